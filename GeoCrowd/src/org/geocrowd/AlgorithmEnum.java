@@ -72,7 +72,11 @@ public enum AlgorithmEnum {
         MAX_COVER_ADAPT_S_W,
         MAX_COVER_ADAPT_ST,
         
-        MAX_COVER_GA
+        MAX_COVER_GA,
+        /** Stochastic greedy, samples the workers in each round **/
+        MAX_COVER_STOCHASTIC,
+        /** Sieve streaming, keeps or discards each worker as it checks in **/
+        MAX_COVER_SIEVE_STREAMING
         
        
 	
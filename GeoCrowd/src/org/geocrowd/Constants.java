@@ -27,6 +27,53 @@ public class Constants {
 	public static int ZIPF_STEPS = 100;
 	
 	public static boolean workerOverload = false;
+
+	/**
+	 * stochastic greedy: approximation slack and seed of the samples
+	 */
+	public static double stochasticEpsilon = 0.1;
+	public static long stochasticSeed = 0;
+
+	/**
+	 * sieve streaming: approximation slack of the guesses of the optimal
+	 */
+	public static double sieveEpsilon = 0.1;
+
+	/**
+	 * multi-objective max cover: max number of evaluations of NSGA-II, it
+	 * stops earlier if the hypervolume improves by less than the tolerance
+	 * (relative) over a window of evaluations
+	 */
+	public static int moMaxEvaluations = 200000;
+	public static int moStallWindow = 10000;
+	public static double moStallTolerance = 0.001;
+
+	/**
+	 * number of threads evaluating the gains of the workers in a greedy round,
+	 * 1 is sequential
+	 */
+	public static int parallelism = 1;
+
+	/**
+	 * branch and bound of the max cover ILP: time limit in milliseconds, the
+	 * best solution found so far is returned when it is reached
+	 */
+	public static long ilpTimeLimit = 60000;
+
+	/**
+	 * remove the workers dominated by another worker before the offline max
+	 * cover, the basic online max cover and the ILP; exact only compares the
+	 * workers that are in the same budgets, so the optimal cover is kept
+	 */
+	public static boolean pruneDominatedWorkers = false;
+	public static boolean exactPruning = true;
+
+	/**
+	 * solve the connected components of the worker/task graph separately, in
+	 * parallel with the threads of parallelism: the offline max cover and the
+	 * ILP with the dynamic budget, and the Hungarian matchings
+	 */
+	public static boolean decomposeComponents = false;
 	//public static double 
 	
 	/**
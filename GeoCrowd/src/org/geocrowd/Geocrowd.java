@@ -26,6 +26,7 @@ import org.geocrowd.common.entropy.Coord;
 import org.geocrowd.common.entropy.EntropyRecord;
 import org.geocrowd.common.entropy.EntropyUtility;
 import org.geocrowd.common.utils.Utils;
+import org.geocrowd.dtype.CandidateGraph;
 
 // TODO: Auto-generated Javadoc
 /**
@@ -124,7 +125,18 @@ public abstract class Geocrowd {
 	 * (not in the task list)
 	 */
 	ArrayList<ArrayList> containerWorker;
-	public static ArrayList<HashMap<Integer, Integer>> containerWorkerWithTaskDeadline = new ArrayList<>();
+	/**
+	 * worker/task adjacency of the current time instance, built by
+	 * matchingTaskWorkers2 and passed to the solvers, empty until then.
+	 */
+	public static CandidateGraph candidateGraph = new CandidateGraph.Builder()
+			.build();
+	/**
+	 * container view of candidateGraph, and the graph it was built from, see
+	 * getContainerWorkerWithTaskDeadline().
+	 */
+	private static ArrayList<HashMap<Integer, Integer>> containerWorkerWithTaskDeadline = null;
+	private static CandidateGraph containerGraph = null;
 	/**
 	 * used to prune workers with no task in container. Similar to
 	 * containerWorker, containerPrune contains task index of elements in
@@ -153,6 +165,22 @@ public abstract class Geocrowd {
 	/** The var tw. */
 	public double varTW = 0;
 
+	/**
+	 * Gets the container view of candidateGraph, for the callers that still
+	 * take containers: each worker is associated with a hashmap <taskid,
+	 * deadline>, in the order of the workers of the graph. The view is built
+	 * on the first call after the graph changes.
+	 *
+	 * @return the container with task deadline
+	 */
+	public static ArrayList<HashMap<Integer, Integer>> getContainerWorkerWithTaskDeadline() {
+		if (containerGraph != candidateGraph) {
+			containerWorkerWithTaskDeadline = candidateGraph.toContainer();
+			containerGraph = candidateGraph;
+		}
+		return containerWorkerWithTaskDeadline;
+	}
+
 	/**
 	 * Compute average number of spatial task which are inside the spatial
 	 * region of a given worker. This method computes both avgTW and varTW;
@@ -35,6 +35,7 @@ import org.geocrowd.common.entropy.EntropyRecord;
 import org.geocrowd.common.utils.TaskUtility;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.cplex.BPMatchingCplex;
+import org.geocrowd.dtype.CandidateGraph;
 import org.geocrowd.dtype.Cell;
 import org.geocrowd.dtype.Point;
 import org.geocrowd.dtype.Range;
@@ -43,6 +44,7 @@ import org.geocrowd.datasets.params.GowallaConstants;
 import org.geocrowd.datasets.synthesis.gowalla.GowallaProcessor;
 import org.geocrowd.datasets.synthetic.Parser;
 import org.geocrowd.datasets.synthetic.UniformGenerator;
+import org.geocrowd.matching.ComponentHungarian;
 import org.geocrowd.matching.Hungarian;
 import org.geocrowd.matching.OnlineBipartiteMatching;
 import org.geocrowd.matching.Utility;
@@ -61,6 +63,12 @@ public class GeocrowdInstance extends Geocrowd {
 	/** The grid. */
 	public Cell[][] grid;
 
+	/**
+	 * position of each task (index in taskList) in candidateTaskIndices, -1 if
+	 * the task is not a candidate yet.
+	 */
+	private int[] candidatePosition;
+
 	/** The sum max t. */
 	public int sumMaxT = 0;
 
@@ -261,6 +269,11 @@ public class GeocrowdInstance extends Geocrowd {
 		// remove expired task from task list
 		pruneExpiredTasks();
 
+		candidatePosition = new int[taskList.size()];
+		Arrays.fill(candidatePosition, -1);
+		if (workerList.size() > 0)
+			buildTaskGrid();
+
 		for (int idx = 0; idx < workerList.size(); idx++) {
 			ExpertWorker w = (ExpertWorker) workerList.get(idx);
 			rangeQuery(idx, w);
@@ -381,8 +394,8 @@ public class GeocrowdInstance extends Geocrowd {
 			}
 		}
 
-		Hungarian HA = new Hungarian(array);
-		int[] r = HA.execute(array);
+		int[] r = Constants.decomposeComponents ? ComponentHungarian
+				.execute(array) : new Hungarian(array).execute(array);
 
 		// COMPUTE
 		double totalScore = 0;
@@ -391,7 +404,7 @@ public class GeocrowdInstance extends Geocrowd {
 		double totalDistance = 0;
 
 		for (int i = r.length - 1; i >= 0; i--)
-			if (origin[i][r[i]] > 0)
+			if (r[i] > -1 && origin[i][r[i]] > 0)
 				totalScore += origin[i][r[i]];
 
 		// find max matching with minimum cost (if possible)
@@ -483,7 +496,7 @@ public class GeocrowdInstance extends Geocrowd {
 		if (algorithm == AlgorithmEnum.BASIC) {
 			// remove the assigned task
 			for (int i = r.length - 1; i >= 0; i--) {
-				if (origin[i][r[i]] > 0) {
+				if (r[i] > -1 && origin[i][r[i]] > 0) {
 					// the task i is assigned
 					totalTasksAssigned++;
 
@@ -600,8 +613,8 @@ public class GeocrowdInstance extends Geocrowd {
 		}
 
 		// Utility.print2(origin);
-		Hungarian HA = new Hungarian(array);
-		int[] r = HA.execute(array);
+		int[] r = Constants.decomposeComponents ? ComponentHungarian
+				.execute(array) : new Hungarian(array).execute(array);
 		double sum = 0;
 
 		int totalTasksAssigned = 0;
@@ -612,7 +625,7 @@ public class GeocrowdInstance extends Geocrowd {
 			// + origin[i][r[i]]);
 
 			// remove the solved task from task list
-			if (origin[i][r[i]] > 0) {
+			if (r[i] > -1 && origin[i][r[i]] > 0) {
 				sum += origin[i][r[i]];
 				totalTasksAssigned++;
 				// exact match?
@@ -646,46 +659,22 @@ public class GeocrowdInstance extends Geocrowd {
 	 */
 	public double onlineMatching() {
 		// replicates workers based on their maxT
-		int virtualWorkerId = 0;
-		HashMap<Integer, ArrayList> workerContainer = new HashMap<>();
-		Iterator it0 = workerList.iterator();
+		CandidateGraph.Builder builder = new CandidateGraph.Builder();
+		ArrayList<Integer> workers = new ArrayList<>();
 		for (int i = 0; i < workerList.size(); i++) {
 			ExpertWorker worker = (ExpertWorker) workerList.get(i);
 			for (int j = 0; j < worker.getCapacity(); j++) {
-				workerContainer.put(virtualWorkerId, containerWorker.get(i));
-				virtualWorkerId++;
-			}
-		}
-
-		// compute inverted container
-		HashMap<Integer, ArrayList> invertedContainer = new HashMap<>();
-		ArrayList<Integer> workers = new ArrayList<>();
-
-		Iterator it1 = workerContainer.keySet().iterator();
-		while (it1.hasNext()) {
-			Integer workerid = (Integer) it1.next();
-			ArrayList taskids = workerContainer.get(workerid);
-
-			Iterator it2 = taskids.iterator();
-			while (it2.hasNext()) {
-				Integer taskid = (Integer) it2.next();
-				if (!invertedContainer.containsKey(taskid)) {
-					ArrayList arr = new ArrayList();
-					arr.add(workerid);
-					invertedContainer.put(taskid, arr);
-				} else {
-					invertedContainer.get(taskid).add(workerid);
-				}
+				workers.add(builder.addWorker());
+				for (Object taskid : containerWorker.get(i))
+					builder.addTask((Integer) taskid, 0);
 			}
-			workers.add(workerid);
-			workerid++;
 		}
 
 		// apply online bipartite matching
 		OnlineBipartiteMatching obm = new OnlineBipartiteMatching(workers);
 
-		HashMap<Integer, Integer> assignment = obm
-				.onlineMatching(invertedContainer);
+		HashMap<Integer, Integer> assignment = obm.onlineMatching(builder
+				.build());
 
 		// remove the assigned tasks from task list
 		ArrayList<Integer> assignedTasks = new ArrayList(assignment.keySet());
@@ -749,6 +738,58 @@ public class GeocrowdInstance extends Geocrowd {
 		System.out.println("#Tasks remained: " + taskList.size());
 	}
 
+	/**
+	 * Tick expired tasks and put the indices of the live ones into the cells of
+	 * the grid, so that a range query only visits the cells overlapping the
+	 * worker's working region.
+	 */
+	private void buildTaskGrid() {
+		if (resolution == 0)
+			createGrid();
+		grid = new Cell[rowCount][colCount];
+		for (int i = 0; i < taskList.size(); i++) {
+			ExpertTask task = (ExpertTask) taskList.get(i);
+
+			/* tick expired task */
+			if ((TimeInstance - task.getArrivalTime()) >= GeocrowdConstants.MAX_TASK_DURATION) {
+				task.setExpired();
+				continue;
+			}
+
+			int row = gridRow(task.getLat());
+			int col = gridCol(task.getLng());
+			if (grid[row][col] == null)
+				grid[row][col] = new Cell();
+			grid[row][col].addTask(i);
+		}
+	}
+
+	/**
+	 * Row of the grid cell containing the latitude, points outside of the
+	 * boundary fall into the border cells.
+	 * 
+	 * @param lat
+	 *            the lat
+	 * @return the int
+	 */
+	private int gridRow(double lat) {
+		int row = latToRowIdx(lat);
+		return row < 0 ? 0 : (row >= rowCount ? rowCount - 1 : row);
+	}
+
+	/**
+	 * Column of the grid cell containing the longitude, points outside of the
+	 * boundary fall into the border cells.
+	 * 
+	 * @param lng
+	 *            the lng
+	 * @return the int
+	 */
+	private int gridCol(double lng) {
+		int col = lngToColIdx(lng);
+		return col < 0 ? 0 : (col >= colCount ? colCount - 1 : col);
+	}
+
 	/**
 	 * Compute input for one time instance, including container and
 	 * invertedTable.
@@ -759,22 +800,30 @@ public class GeocrowdInstance extends Geocrowd {
 	 *            the mbr
 	 */
 	private void rangeQuery(final int workerIdx, ExpertWorker w) {
-		/* task id, increasing from 0 to the number of task - 1 */
-		int t = 0;
-		for (int i = 0; i < taskList.size(); i++) {
-			ExpertTask task = (ExpertTask) taskList.get(i);
+		WorkingRegion mbr = w.getMbr();
 
-			/* tick expired task */
-			if ((TimeInstance - task.getArrivalTime()) >= GeocrowdConstants.MAX_TASK_DURATION) {
-				task.setExpired();
-			} else
+		/* task ids (index in taskList) within the cells overlapping the mbr */
+		ArrayList<Integer> tasks = new ArrayList<Integer>();
+		int maxRow = gridRow(mbr.getMaxLat());
+		int maxCol = gridCol(mbr.getMaxLng());
+		for (int row = gridRow(mbr.getMinLat()); row <= maxRow; row++)
+			for (int col = gridCol(mbr.getMinLng()); col <= maxCol; col++)
+				if (grid[row][col] != null)
+					tasks.addAll(grid[row][col].getTaskList());
+
+		/* keep the order of a full scan over the task list */
+		Collections.sort(tasks);
+
+		for (int t : tasks) {
+			ExpertTask task = (ExpertTask) taskList.get(t);
 
 			/**
 			 * if the task is not assigned and in the worker's working region
 			 */
-			if (TaskUtility.isTaskCoveredBy(task, w.getMbr())) {
+			if (TaskUtility.isTaskCoveredBy(task, mbr)) {
 
-				if (!taskSet.contains(t)) {
+				if (candidatePosition[t] == -1) {
+					candidatePosition[t] = candidateTaskIndices.size();
 					candidateTaskIndices.add(t);
 					taskSet.add(t);
 				}
@@ -785,7 +834,7 @@ public class GeocrowdInstance extends Geocrowd {
 				 * the container contains task index of elements in candidate
 				 * tasks
 				 */
-				containerPrune[workerIdx].add(candidateTaskIndices.indexOf(t));
+				containerPrune[workerIdx].add(candidatePosition[t]);
 
 				if (!invertedContainer.containsKey(t))
 					invertedContainer.put(t, new ArrayList() {
@@ -797,8 +846,6 @@ public class GeocrowdInstance extends Geocrowd {
 					invertedContainer.get(t).add(workerIdx);
 
 			}// if not overlapped
-
-			t++;
 		}// for loop
 	}
 
@@ -3,16 +3,21 @@ package org.geocrowd;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 
 import org.geocrowd.common.crowd.ExpertTask;
 import org.geocrowd.common.crowd.ExpertWorker;
+import org.geocrowd.common.crowd.WorkingRegion;
 import org.geocrowd.common.utils.TaskUtility;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
 import org.geocrowd.datasets.synthetic.Parser;
+import org.geocrowd.dtype.RTree;
+import org.geocrowd.matching.ComponentHungarian;
 import org.geocrowd.matching.Hungarian;
 import org.geocrowd.matching.OnlineBipartiteMatching;
 import org.geocrowd.matching.Utility;
@@ -22,6 +27,12 @@ public class GeocrowdOnline extends Geocrowd {
 	// apply online bipartite matching
 	OnlineBipartiteMatching obm = null;
 
+	/** max number of entries per node of the worker index. */
+	private static final int RTREE_NODE_SIZE = 16;
+
+	/** index over the working regions of the workers in the pool. */
+	RTree<ExpertWorker> workerIndex = null;
+
 	public GeocrowdOnline(String fileName) {
 		super();
 
@@ -87,8 +98,8 @@ public class GeocrowdOnline extends Geocrowd {
 			System.out.println("transpose!");
 		}
 
-		Hungarian HA = new Hungarian(array);
-		int[] r = HA.execute(array);
+		int[] r = Constants.decomposeComponents ? ComponentHungarian
+				.execute(array) : new Hungarian(array).execute(array);
 
 		
 		ArrayList<Integer> assignedTasks = new ArrayList<Integer>();
@@ -96,7 +107,7 @@ public class GeocrowdOnline extends Geocrowd {
 		
 		/* remove the solved task from task list */
 		for (int i = r.length - 1; i >= 0; i--) {
-			if (origin[i][r[i]] == -1) {
+			if (r[i] > -1 && origin[i][r[i]] == -1) {
 				if (isTranpose) {
 					assignedTasks.add(candidateTaskIndices.get(r[i]));
 					assignedWorkers.add(i);
@@ -148,8 +159,8 @@ public class GeocrowdOnline extends Geocrowd {
 			System.out.println("transpose!");
 		}
 
-		Hungarian HA = new Hungarian(array);
-		int[] r = HA.execute(array);
+		int[] r = Constants.decomposeComponents ? ComponentHungarian
+				.execute(array) : new Hungarian(array).execute(array);
 
 		
 		ArrayList<Integer> assignedTasks = new ArrayList<Integer>();
@@ -157,7 +168,7 @@ public class GeocrowdOnline extends Geocrowd {
 		
 		/* remove the solved task from task list */
 		for (int i = r.length - 1; i >= 0; i--) {
-			if (origin[i][r[i]] == -1) {
+			if (r[i] > -1 && origin[i][r[i]] == -1) {
 				if (isTranpose) {
 					assignedTasks.add(candidateTaskIndices.get(r[i]));
 					assignedWorkers.add(i);
@@ -223,8 +234,13 @@ public class GeocrowdOnline extends Geocrowd {
 	private void removeAssignedWorkers(ArrayList<Integer> assignedWorkers) {
 		Collections.sort(assignedWorkers);
 
-		for (int i = assignedWorkers.size() - 1; i >= 0; i--)
-			workerList.remove((int) assignedWorkers.get(i));
+		for (int i = assignedWorkers.size() - 1; i >= 0; i--) {
+			ExpertWorker w = (ExpertWorker) workerList
+					.remove((int) assignedWorkers.get(i));
+			WorkingRegion mbr = w.getMbr();
+			workerIndex.delete(w, mbr.getMinLat(), mbr.getMinLng(),
+					mbr.getMaxLat(), mbr.getMaxLng());
+		}
 
 	}
 
@@ -237,11 +253,14 @@ public class GeocrowdOnline extends Geocrowd {
 
 	/**
 	 * Compute which tasks within working region of which worker and vice versa.
+	 * 
+	 * Each live task is a stabbing query on the worker index, the result is
+	 * the same as scanning all tasks for each worker in the pool.
 	 */
 	@Override
 	public void matchingTasksWorkers() {
 		containerWorker = new ArrayList<ArrayList>();
-		invertedContainer = new HashMap<Integer, ArrayList>();
+		invertedContainer = new HashMap<Integer, ArrayList<Integer>>();
 		candidateTaskIndices = new ArrayList();
 		taskSet = new HashSet<Integer>();
 		containerPrune = new ArrayList[workerList.size()];
@@ -249,11 +268,77 @@ public class GeocrowdOnline extends Geocrowd {
 		// remove expired task from task list
 		pruneExpiredTasks();
 
-		for (int idx = 0; idx < workerList.size(); idx++) {
-			ExpertWorker w = (ExpertWorker) workerList.get(idx);
-			rangeQuery(idx, w);
+		if (workerList.size() > 0) {
+			/* worker -> worker idx, workers shift when others are removed */
+			IdentityHashMap<ExpertWorker, Integer> workerIdxs = new IdentityHashMap<ExpertWorker, Integer>();
+			for (int idx = 0; idx < workerList.size(); idx++)
+				workerIdxs.put((ExpertWorker) workerList.get(idx), idx);
+
+			/* eligible workers of each task, sorted by worker idx */
+			final ArrayList<Integer>[] eligibleWorkers = new ArrayList[taskList
+					.size()];
+			ArrayList<Integer> coveredTasks = new ArrayList<Integer>();
+			for (int t = 0; t < taskList.size(); t++) {
+				ExpertTask task = (ExpertTask) taskList.get(t);
+
+				/* tick expired task */
+				if ((TimeInstance - task.getArrivalTime()) >= GeocrowdConstants.MAX_TASK_DURATION) {
+					task.setExpired();
+					continue;
+				}
+
+				ArrayList<Integer> workers = new ArrayList<Integer>();
+				for (ExpertWorker w : workerIndex.stab(task.getLat(),
+						task.getLng()))
+					/*
+					 * if the task is not assigned and in the worker's working
+					 * region
+					 */
+					if (TaskUtility.isTaskCoveredBy(task, w.getMbr()))
+						workers.add(workerIdxs.get(w));
+
+				if (workers.size() > 0) {
+					Collections.sort(workers);
+					eligibleWorkers[t] = workers;
+					coveredTasks.add(t);
+				}
+			}
+
+			/*
+			 * candidate tasks are ordered as in a scan of the tasks per worker,
+			 * i.e., by the first eligible worker then by task id
+			 */
+			ArrayList<Integer> candidates = new ArrayList<Integer>(coveredTasks);
+			Collections.sort(candidates, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer t1, Integer t2) {
+					int w1 = eligibleWorkers[t1].get(0);
+					int w2 = eligibleWorkers[t2].get(0);
+					return w1 != w2 ? Integer.compare(w1, w2) : Integer
+							.compare(t1, t2);
+				}
+			});
+			int[] candidatePosition = new int[taskList.size()];
+			for (int i = 0; i < candidates.size(); i++) {
+				candidatePosition[candidates.get(i)] = i;
+				candidateTaskIndices.add(candidates.get(i));
+				taskSet.add(candidates.get(i));
+			}
+
+			for (int t : coveredTasks) {
+				for (int workerIdx : eligibleWorkers[t]) {
+					if (containerPrune[workerIdx] == null)
+						containerPrune[workerIdx] = new ArrayList();
+					/*
+					 * the container contains task index of elements in
+					 * candidate tasks
+					 */
+					containerPrune[workerIdx].add(candidatePosition[t]);
+				}
+				invertedContainer.put(t, eligibleWorkers[t]);
+			}
 		}
-		
+
 		for (int i = 0; i < containerPrune.length; i++) {
 			if (containerPrune[i] != null && containerPrune[i].size() > 0)
 				/* add non-empty elements to containerWorker */
@@ -263,59 +348,6 @@ public class GeocrowdOnline extends Geocrowd {
 		System.out.println();
 	}
 
-	/**
-	 * Compute input for one time instance, including container and
-	 * invertedTable.
-	 * 
-	 * @param workerIdx
-	 *            the worker idx
-	 * @param mbr
-	 *            the mbr
-	 */
-	private void rangeQuery(final int workerIdx, ExpertWorker w) {
-		/* task id, increasing from 0 to the number of task - 1 */
-		int t = 0;
-		for (int i = 0; i < taskList.size(); i++) {
-			ExpertTask task = (ExpertTask) taskList.get(i);
-
-			/* tick expired task */
-			if ((TimeInstance - task.getArrivalTime()) >= GeocrowdConstants.MAX_TASK_DURATION) {
-				task.setExpired();
-			} else
-
-			/**
-			 * if the task is not assigned and in the worker's working region
-			 */
-			if (TaskUtility.isTaskCoveredBy(task, w.getMbr())) {
-
-				if (!taskSet.contains(t)) {
-					candidateTaskIndices.add(t);
-					taskSet.add(t);
-				}
-
-				if (containerPrune[workerIdx] == null)
-					containerPrune[workerIdx] = new ArrayList();
-				/*
-				 * the container contains task index of elements in candidate
-				 * tasks
-				 */
-				containerPrune[workerIdx].add(candidateTaskIndices.indexOf(t));
-
-				if (!invertedContainer.containsKey(t))
-					invertedContainer.put(t, new ArrayList() {
-						{
-							add(workerIdx);
-						}
-					});
-				else
-					invertedContainer.get(t).add(workerIdx);
-
-			}// if not overlapped
-
-			t++;
-		}// for loop
-	}
-
 	/**
 	 * Read all task once time when start-up
 	 * 
@@ -325,6 +357,19 @@ public class GeocrowdOnline extends Geocrowd {
 		if (workerList == null)
 			workerList = new ArrayList();
 		WorkerCount += Parser.parseExpertWorkers(fileName, workerList);
+
+		/* the pool is read once, bulk load its index */
+		ArrayList<ExpertWorker> workers = new ArrayList<ExpertWorker>();
+		ArrayList<double[]> mbrs = new ArrayList<double[]>();
+		for (int i = 0; i < workerList.size(); i++) {
+			ExpertWorker w = (ExpertWorker) workerList.get(i);
+			WorkingRegion mbr = w.getMbr();
+			workers.add(w);
+			mbrs.add(new double[] { mbr.getMinLat(), mbr.getMinLng(),
+					mbr.getMaxLat(), mbr.getMaxLng() });
+		}
+		workerIndex = new RTree<ExpertWorker>(RTREE_NODE_SIZE);
+		workerIndex.bulkLoad(workers, mbrs);
 	}
 
 	@Override
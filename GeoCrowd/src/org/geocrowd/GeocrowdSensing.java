@@ -15,6 +15,7 @@
 package org.geocrowd;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -29,6 +30,8 @@ import org.geocrowd.common.crowd.SensingTask;
 import org.geocrowd.common.crowd.VirtualWorker;
 import org.geocrowd.common.entropy.EntropyRecord;
 import org.geocrowd.common.utils.Utils;
+import org.geocrowd.dtype.CandidateGraph;
+import org.geocrowd.dtype.CircleGridIndex;
 import org.geocrowd.setcover.MultiSetCoverGreedy_CloseToDeadline;
 import org.geocrowd.setcover.MultiSetCoverGreedy_LargeWorkerFanout;
 import org.geocrowd.setcover.SetCoverGreedy;
@@ -74,6 +77,15 @@ public class GeocrowdSensing extends Geocrowd {
 	 */
 	VirtualWorker[] vWorkerArray;
 
+	/** index of the tasks in the task list, used by reverseRangeQuery. */
+	CircleGridIndex taskIndex;
+
+	/**
+	 * position of each task (index in taskList) in candidateTaskIndices, -1 if
+	 * the task is not a candidate yet.
+	 */
+	int[] candidatePosition;
+
 	/**
 	 * Gets an array of workers, each worker is associated with a hashmap
 	 * <taskid, deadline>.
@@ -93,7 +105,7 @@ public class GeocrowdSensing extends Geocrowd {
 			while (it2.hasNext()) {
 				Integer taskid = (Integer) it2.next();
 				taskidsWithDeadline.put(taskid,
-						taskList.get(candidateTaskIndices.indexOf(taskid)) //?
+						taskList.get(candidateTaskIndices.get(taskid))
 								.getArrivalTime() + GeocrowdConstants.MAX_TASK_DURATION);
 			}
 			
@@ -104,42 +116,74 @@ public class GeocrowdSensing extends Geocrowd {
 	}
 	
 	
-	public  void matchingTaskWorkers2(){
-		//build tasksMap and containerWorkerWithTaskDealine 
+	/**
+	 * Compute the candidate graph of the current time instance: a worker is
+	 * eligible for a task within the task radius and alive when the worker is
+	 * online. Also fill tasksMap. The solvers take the graph, the container
+	 * view is only built for the callers that still need it, see
+	 * getContainerWorkerWithTaskDeadline().
+	 */
+	public void matchingTaskWorkers2() {
+		// build tasksMap
 		tasksMap.clear();
-		for(int i = 0;  i < taskList.size(); i++){
-			if(!assignedTasks.contains((int) taskList.get(i).getId()))
+		for (int i = 0; i < taskList.size(); i++) {
+			if (!assignedTasks.contains((int) taskList.get(i).getId()))
 				tasksMap.put((int) taskList.get(i).getId(), taskList.get(i));
 		}
-		containerWorkerWithTaskDeadline = new ArrayList<>();
-		invertedContainer = new HashMap<>();
-		
-		for(int i = 0; i < workerList.size(); i++){
-			
-			HashMap<Integer, Integer> tasks_deadlines = new HashMap<>();
-			for(Integer j: tasksMap.keySet()){
-				GenericWorker w = workerList.get(i);
-				SensingTask task = (SensingTask) tasksMap.get(j);
-				if (GeocrowdTaskUtility.distanceWorkerTask(DATA_SET, w, task) <= GeocrowdSensingConstants.TASK_RADIUS
-						&&  w.getOnlineTime() < task.getArrivalTime()+ task.lifetime
+
+		/* tasks in the order of tasksMap, indexed by location */
+		SensingTask[] tasks = new SensingTask[tasksMap.size()];
+		int[] ordinals = new int[tasks.length];
+		double[] lats = new double[tasks.length];
+		double[] lngs = new double[tasks.length];
+		int n = 0;
+		for (GenericTask t : tasksMap.values()) {
+			tasks[n] = (SensingTask) t;
+			ordinals[n] = n;
+			lats[n] = t.getLat();
+			lngs[n] = t.getLng();
+			n++;
+		}
+		CircleGridIndex index = new CircleGridIndex(ordinals, lats, lngs,
+				GeocrowdSensingConstants.TASK_RADIUS,
+				GeocrowdTaskUtility.isGeographic(DATA_SET));
+
+		CandidateGraph.Builder builder = new CandidateGraph.Builder();
+		ArrayList<SensingTask> matched = new ArrayList<>();
+		for (int i = 0; i < workerList.size(); i++) {
+			GenericWorker w = workerList.get(i);
+			builder.addWorker();
+			matched.clear();
+			ArrayList<Integer> nearby = index.query(w.getLat(), w.getLng());
+			Collections.sort(nearby);
+			for (int j : nearby) {
+				SensingTask task = tasks[j];
+				if (w.getOnlineTime() < task.getArrivalTime() + task.lifetime
 						&& w.getOnlineTime() >= task.getArrivalTime()
-						){
-					
-					tasks_deadlines.put((int) task.getId(), task.getArrivalTime()+task.lifetime);
-					if(invertedContainer.containsKey((int) task.getId())){
-						invertedContainer.get((int) task.getId()).add(i);
-					}
-					else{
-						ArrayList<Integer> workerIndices = new ArrayList<>();
-						workerIndices.add(i);
-						invertedContainer.put((int) task.getId(), workerIndices);
-					}
+						&& GeocrowdTaskUtility.distanceWorkerTask(DATA_SET, w,
+								task) <= GeocrowdSensingConstants.TASK_RADIUS) {
+					builder.addTask((int) task.getId(), task.getArrivalTime()
+							+ task.lifetime);
+					matched.add(task);
 				}
 			}
-			containerWorkerWithTaskDeadline.add(tasks_deadlines);
+			workerMatched(i, matched);
 		}
-		
-		
+		candidateGraph = builder.build();
+	}
+
+	/**
+	 * Called by matchingTaskWorkers2 once the tasks of a worker are matched,
+	 * worker after worker in the order of the graph, e.g. to offer the worker
+	 * to a streaming solver as it checks in.
+	 *
+	 * @param workerIdx
+	 *            the worker index in the graph
+	 * @param tasks
+	 *            the tasks of the worker, in the order of the graph; the list
+	 *            is reused for the next worker
+	 */
+	protected void workerMatched(int workerIdx, ArrayList<SensingTask> tasks) {
 	}
 
 	/**
@@ -167,8 +211,14 @@ public class GeocrowdSensing extends Geocrowd {
 		// remove expired task from task list
 		pruneExpiredTasks();
 
+		candidatePosition = new int[taskList.size()];
+		Arrays.fill(candidatePosition, -1);
+		if (workerList.size() > 0)
+			taskIndex = buildTaskIndex(true);
+
 		for (int workeridx = 0; workeridx < workerList.size(); workeridx++) {
 			reverseRangeQuery(workeridx);
+			addToContainers(workeridx);
 		}
 
 		
@@ -178,33 +228,38 @@ public class GeocrowdSensing extends Geocrowd {
 				workerList.remove(i);
 			}
 		}
-		for (int i = 0; i < containerPrune.length; i++) {
-			if (containerPrune[i] != null && containerPrune[i].size() > 0) {
-				containerWorker.add(containerPrune[i]);
-			}
-		}
-		/**
-		 * update invertedContainer <taskid, ArrayList<workerIndex>>
-		 */
-		for (int tid = 0; tid < taskList.size(); tid++) {
-			for (int i = 0; i < containerWorker.size(); i++) {
-				final int workerIndex = i;
-				if (containerWorker.get(workerIndex).contains(tid)) {
-					if (!invertedContainer.containsKey(tid)) {
-						invertedContainer.put(tid, new ArrayList() {
-							{
-								add(workerIndex);
-							}
-						});
-					} else {
-						invertedContainer.get(tid).add(workerIndex);
-					}
-				}
+	}
+
+	/**
+	 * Add the tasks found by the range query of a worker to containerWorker
+	 * and update invertedContainer <taskid, ArrayList<workerIndex>>. Workers
+	 * with no tasks are skipped, so the worker index is the one after removing
+	 * them.
+	 *
+	 * @param workerIdx
+	 *            the worker idx in containerPrune
+	 */
+	void addToContainers(int workerIdx) {
+		if (containerPrune[workerIdx] == null
+				|| containerPrune[workerIdx].size() == 0)
+			return;
+		int workerIndex = containerWorker.size();
+		containerWorker.add(containerPrune[workerIdx]);
+		for (Object tid : containerPrune[workerIdx]) {
+			ArrayList<Integer> workerIdxs = invertedContainer.get(tid);
+			if (workerIdxs == null) {
+				workerIdxs = new ArrayList<Integer>();
+				invertedContainer.put((Integer) tid, workerIdxs);
 			}
+			workerIdxs.add(workerIndex);
 		}
-
 	}
 
+	/**
+	 * index of each task in the task list, used to sort tasks by TASK_ORDER.
+	 */
+	HashMap<GenericTask, Integer> mapTaskIndices;
+
 	final Comparator<GenericTask> TASK_ORDER = new Comparator<GenericTask>() {
 		public int compare(GenericTask t1, GenericTask t2) {
 			if (t1.getRequirement() > t2.getRequirement()) {
@@ -212,18 +267,10 @@ public class GeocrowdSensing extends Geocrowd {
 			} else if (t1.getRequirement() < t2.getRequirement()) {
 				return 1;
 			} else {
-				int idx1 = taskList.indexOf(t1);
-				int idx2 = taskList.indexOf(t2);
-				HashSet<Integer> workerIdxs1 = null;
-				if (invertedContainer.containsKey(idx1)) {
-					workerIdxs1 = new HashSet<Integer>(
-							invertedContainer.get(idx1));
-				}
-				HashSet<Integer> workerIdxs2 = null;
-				if (invertedContainer.containsKey(idx2)) {
-					workerIdxs2 = new HashSet<Integer>(
-							invertedContainer.get(idx2));
-				}
+				int idx1 = mapTaskIndices.get(t1);
+				int idx2 = mapTaskIndices.get(t2);
+				ArrayList<Integer> workerIdxs1 = invertedContainer.get(idx1);
+				ArrayList<Integer> workerIdxs2 = invertedContainer.get(idx2);
 
 				if (workerIdxs1 != null) {
 					if (workerIdxs2 != null) {
@@ -275,14 +322,18 @@ public class GeocrowdSensing extends Geocrowd {
 		/**
 		 * sort tasks by k in descending order *
 		 */
+		mapTaskIndices = new HashMap<GenericTask, Integer>();
+		for (int idx = 0; idx < taskList.size(); idx++) {
+			if (!mapTaskIndices.containsKey(taskList.get(idx)))
+				mapTaskIndices.put(taskList.get(idx), idx);
+		}
+
 		ArrayList<GenericTask> sortedTaskList = (ArrayList<GenericTask>) taskList
 				.clone();
 		Collections.sort(sortedTaskList, TASK_ORDER);
 
-		HashMap<GenericTask, Integer> mapTaskIndices = new HashMap<GenericTask, Integer>();
-		for (GenericTask t : sortedTaskList) {
-			mapTaskIndices.put(t, taskList.indexOf(t));
-		}
+		/* hashed worker sets of the traversed tasks */
+		HashMap<Integer, HashSet<Integer>> workerSets = new HashMap<Integer, HashSet<Integer>>();
 
 		/**
 		 * create virtual worker, using priority queue
@@ -322,9 +373,10 @@ public class GeocrowdSensing extends Geocrowd {
 			if (traversedTasks.containsKey(t.getRequirement())) {
 				for (SensingTask st : traversedTasks.get(t.getRequirement())) {
 					int idxj = mapTaskIndices.get(st);
-					ArrayList<Integer> workerIdxsj = null;
-					if (invertedContainer.containsKey(idxj)) {
-						workerIdxsj = invertedContainer.get(idxj);
+					HashSet<Integer> workerIdxsj = workerSets.get(idxj);
+					if (workerIdxsj == null && invertedContainer.containsKey(idxj)) {
+						workerIdxsj = new HashSet<Integer>(invertedContainer.get(idxj));
+						workerSets.put(idxj, workerIdxsj);
 					}
 
 					if (workerIdxsj != null
@@ -407,6 +459,7 @@ public class GeocrowdSensing extends Geocrowd {
 		/**
 		 * Iterate all worker virtual o
 		 */
+		ArrayList<HashMap<Integer, Integer>> cwWithTaskDeadline = getContainerWithDeadline();
 		for (int o = 0; o < vWorkerArray.length; o++) {
 			VirtualWorker vw = vWorkerArray[o];
 
@@ -417,7 +470,6 @@ public class GeocrowdSensing extends Geocrowd {
 			/**
 			 * Iterate all worker ids of virtual worker o
 			 */
-			ArrayList<HashMap<Integer, Integer>> cwWithTaskDeadline = getContainerWithDeadline();
 			for (Integer j : vw.getWorkerIds()) {
 				HashMap<Integer, Integer> tasksWithDeadlines = cwWithTaskDeadline
 						.get(j);
@@ -756,6 +808,63 @@ public class GeocrowdSensing extends Geocrowd {
 	}
 
 
+	/**
+	 * Index the tasks of the task list by location, so that a worker only
+	 * computes its distance to the tasks in the nearby cells.
+	 *
+	 * @param tickExpired
+	 *            tick the expired tasks and leave them out of the index
+	 * @return the index, ids are indices in the task list
+	 */
+	CircleGridIndex buildTaskIndex(boolean tickExpired) {
+		int n = 0;
+		int[] ids = new int[taskList.size()];
+		double[] lats = new double[taskList.size()];
+		double[] lngs = new double[taskList.size()];
+		double maxRadius = 0;
+		for (int i = 0; i < taskList.size(); i++) {
+			SensingTask task = (SensingTask) taskList.get(i);
+
+			/* tick expired task */
+			if (tickExpired
+					&& (TimeInstance - task.getArrivalTime()) >= (GeocrowdConstants.MAX_TASK_DURATION)) {
+				task.setExpired();
+				continue;
+			}
+			ids[n] = i;
+			lats[n] = task.getLat();
+			lngs[n] = task.getLng();
+			maxRadius = Math.max(maxRadius, task.getRadius());
+			n++;
+		}
+		return new CircleGridIndex(Arrays.copyOf(ids, n), Arrays.copyOf(lats,
+				n), Arrays.copyOf(lngs, n), maxRadius,
+				GeocrowdTaskUtility.isGeographic(DATA_SET));
+	}
+
+	/**
+	 * Add a task to the container of a worker, the task becomes a candidate
+	 * task if it is not yet.
+	 *
+	 * @param workerIdx
+	 *            the worker idx
+	 * @param tid
+	 *            the task index in the task list
+	 */
+	void addCandidate(int workerIdx, int tid) {
+		/* compute a list of candidate tasks */
+		if (candidatePosition[tid] == -1) {
+			candidatePosition[tid] = candidateTaskIndices.size();
+			candidateTaskIndices.add(tid);
+			taskSet.add(tid);
+		}
+
+		if (containerPrune[workerIdx] == null) {
+			containerPrune[workerIdx] = new ArrayList();
+		}
+		containerPrune[workerIdx].add(candidatePosition[tid]);
+	}
+
 	/**
 	 * Compute input for one time instance, including container and
 	 * invertedTable.
@@ -769,32 +878,15 @@ public class GeocrowdSensing extends Geocrowd {
 		/* actual worker */
 		GenericWorker w = workerList.get(workerIdx);
 
-		/* task id, increasing from 0 to the number of task - 1 */
-		int tid = 0;
-		for (int i = 0; i < taskList.size(); i++) {
-//			System.out.println(i + "xxx" + taskList.size());
-//			System.out.println(taskList.get(i).getClass().toString() + i + " " + taskList.size());
-			SensingTask task = (SensingTask) taskList.get(i);
+		/* nearby live tasks, in the order of the task list */
+		ArrayList<Integer> tids = taskIndex.query(w.getLat(), w.getLng());
+		Collections.sort(tids);
+		for (int tid : tids) {
+			SensingTask task = (SensingTask) taskList.get(tid);
 
-			/* tick expired task */
-			if ((TimeInstance - task.getArrivalTime()) >= (GeocrowdConstants.MAX_TASK_DURATION)
-				) {
-				task.setExpired();
-			}
 			/* if worker in task region */
-			else if (GeocrowdTaskUtility.distanceWorkerTask(DATA_SET, w, task) <= task.getRadius()) {
-
-				/* compute a list of candidate tasks */
-				if (!taskSet.contains(tid)) {
-					candidateTaskIndices.add(tid);
-					taskSet.add(tid);
-				}
-
-				if (containerPrune[workerIdx] == null) {
-					containerPrune[workerIdx] = new ArrayList();
-				}
-				containerPrune[workerIdx]
-						.add(candidateTaskIndices.indexOf(tid));
+			if (GeocrowdTaskUtility.distanceWorkerTask(DATA_SET, w, task) <= task.getRadius()) {
+				addCandidate(workerIdx, tid);
 
 				/**
 				 * inverted container need to update after compute
@@ -804,8 +896,6 @@ public class GeocrowdSensing extends Geocrowd {
 				 * invertedContainer.get(tid).add(workerIdx); }
 				 */
 			}// if not overlapped
-
-			tid++;
 		}// for loop
 	}
 	
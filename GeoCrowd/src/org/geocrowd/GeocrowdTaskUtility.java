@@ -1,14 +1,18 @@
 package org.geocrowd;
 
+import java.util.concurrent.RecursiveAction;
+
 import org.geocrowd.common.crowd.ExpertTask;
 import org.geocrowd.common.crowd.ExpertWorker;
 import org.geocrowd.common.crowd.GenericTask;
 import org.geocrowd.common.crowd.GenericWorker;
 import org.geocrowd.common.crowd.SensingTask;
+import org.geocrowd.common.crowd.TaskFactory;
+import org.geocrowd.common.crowd.WorkerFactory;
 import org.geocrowd.common.utils.TaskUtility;
-import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
-import org.geocrowd.datasets.params.GeocrowdSensingConstants;
+import org.geocrowd.dtype.CandidateGraph;
+import org.geocrowd.maxcover.ParallelGains;
 
 /**
  * This class uses Mediator pattern to reduce communication complexity between multiple
@@ -33,8 +37,7 @@ public class GeocrowdTaskUtility {
 	 */
 	public static double distanceWorkerTask(DatasetEnum dataset,
 			GenericWorker worker, GenericTask task) {
-		if (dataset == DatasetEnum.GOWALLA || dataset == DatasetEnum.YELP
-				|| dataset == DatasetEnum.FOURSQUARE)
+		if (isGeographic(dataset))
 			return TaskUtility.distanceToTask(worker, task);
 
 		// not geographical coordinates
@@ -47,6 +50,32 @@ public class GeocrowdTaskUtility {
 		return distance;
 	}
 
+	/**
+	 * Whether the locations of the dataset are latitude/longitude, whose
+	 * distance is the haversine distance.
+	 * 
+	 * @param dataset
+	 *            the dataset
+	 * @return true, if geographic
+	 */
+	public static boolean isGeographic(DatasetEnum dataset) {
+		return dataset == DatasetEnum.GOWALLA || dataset == DatasetEnum.YELP
+				|| dataset == DatasetEnum.FOURSQUARE;
+	}
+
+	/**
+	 * The earth radius of the geographic distance, in its unit. It is read
+	 * off TaskUtility.distanceToTask instead of being restated: along a
+	 * meridian the distance is the radius times the angle.
+	 */
+	public static final double EARTH_RADIUS = earthRadius();
+
+	private static double earthRadius() {
+		GenericWorker w = WorkerFactory.getWorker(WorkerType.EXPERT, 0, 0);
+		GenericTask t = TaskFactory.getTask(TaskType.EXPERT, 1, 0);
+		return TaskUtility.distanceToTask(w, t) / Math.toRadians(1);
+	}
+
 	/**
 	 * Distance-based utility
 	 * 
@@ -56,30 +85,91 @@ public class GeocrowdTaskUtility {
 	 */
 	public static double utility(DatasetEnum dataset, GenericWorker w,
 			SensingTask t) {
-		double dist = distanceWorkerTask(dataset, w, t);
-		if (Constants.UTILITY_FUNCTION == "zipf") {
-			int k = Math.max(
-					1,
-					(int) Math.floor(dist * Constants.ZIPF_STEPS
-							/ GeocrowdSensingConstants.TASK_RADIUS)); // rank
-			double val = Utils.zipf_pmf(Constants.ZIPF_STEPS, k,
-					Constants.s) * Constants.MU;
-			// System.out.println(k);
-			// System.out.println(val);
-			return val;
-		}
+		return UtilityFunction.current().utility(
+				distanceWorkerTask(dataset, w, t));
+	}
+
+	/** Number of edges below which the utilities are computed sequentially. */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	/**
+	 * The utilities of all the (worker, task) edges of a candidate graph,
+	 * computed in parallel on the pool of ParallelGains, sequentially when
+	 * Constants.parallelism is 1. The result is aligned with
+	 * graph.workerTasks.
+	 * 
+	 * @param dataset
+	 *            the dataset
+	 * @param graph
+	 *            the graph
+	 * @param workers
+	 *            the worker of each worker index of the graph
+	 * @param tasks
+	 *            the task of each dense task index of the graph
+	 * @return the utility of each edge
+	 */
+	public static double[] utilities(DatasetEnum dataset, CandidateGraph graph,
+			GenericWorker[] workers, SensingTask[] tasks) {
+		double[] utilities = new double[graph.workerTasks.length];
+		UtilityTask task = new UtilityTask(dataset, UtilityFunction.current(),
+				graph, workers, tasks, utilities, 0, graph.workerCount);
+		if (Constants.parallelism <= 1 || utilities.length < PARALLEL_THRESHOLD)
+			task.scan();
+		else
+			ParallelGains.invoke(task);
+		return utilities;
+	}
+
+	/**
+	 * Computes the utilities of the edges of a range of workers, splitting the
+	 * range in halves while it has many edges.
+	 */
+	private static class UtilityTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final DatasetEnum dataset;
+		private final UtilityFunction f;
+		private final CandidateGraph graph;
+		private final GenericWorker[] workers;
+		private final SensingTask[] tasks;
+		private final double[] utilities;
+		private final int from, to;
 
-		if (Constants.UTILITY_FUNCTION == "linear") {
-			// System.out.println(dist);
-			return Math.max(0, (1 - (dist + 0.0) / GeocrowdSensingConstants.TASK_RADIUS)
-					* Constants.MU);
+		UtilityTask(DatasetEnum dataset, UtilityFunction f,
+				CandidateGraph graph, GenericWorker[] workers,
+				SensingTask[] tasks, double[] utilities, int from, int to) {
+			this.dataset = dataset;
+			this.f = f;
+			this.graph = graph;
+			this.workers = workers;
+			this.tasks = tasks;
+			this.utilities = utilities;
+			this.from = from;
+			this.to = to;
 		}
 
-		if (Constants.UTILITY_FUNCTION == "const") {
-			return Constants.MU;
+		@Override
+		protected void compute() {
+			if (to - from > 1
+					&& graph.workerStart[to] - graph.workerStart[from] >= PARALLEL_THRESHOLD) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new UtilityTask(dataset, f, graph, workers, tasks,
+						utilities, from, mid), new UtilityTask(dataset, f,
+						graph, workers, tasks, utilities, mid, to));
+				return;
+			}
+			scan();
 		}
 
-		return Constants.MU;
+		/**
+		 * Computes the utilities of the range in this thread.
+		 */
+		void scan() {
+			for (int w = from; w < to; w++)
+				for (int e = graph.workerStart[w]; e < graph.workerStart[w + 1]; e++)
+					utilities[e] = f.utility(distanceWorkerTask(dataset,
+							workers[w], tasks[graph.workerTasks[e]]));
+		}
 	}
 
 }
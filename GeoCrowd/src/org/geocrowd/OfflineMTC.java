@@ -1,6 +1,8 @@
 package org.geocrowd;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 
@@ -13,6 +15,8 @@ import org.geocrowd.datasets.params.GeocrowdSensingConstants;
 import org.geocrowd.datasets.synthetic.Parser;
 import org.geocrowd.maxcover.MaxCover;
 import org.geocrowd.maxcover.MaxCoverBasic;
+import org.geocrowd.maxcover.MaxCoverComponents;
+import org.geocrowd.maxcover.MaxCoverDistributed;
 import org.geocrowd.maxcover.MaxCoverDynamicOffline;
 import org.geocrowd.maxcover.MaxCoverFixedOffline;
 
@@ -20,8 +24,32 @@ public class OfflineMTC extends GeocrowdSensing {
 
     public int budget = 0;
     public boolean isFixed = true;
+    /**
+     * the number of shards of the distributed solve, 1 solves all the workers
+     * with one greedy
+     */
+    public int shards = 1;
+    /**
+     * whether the distributed solve also solves all the workers with one
+     * greedy, to report approximationLoss and speedup
+     */
+    public boolean compareCentralized = false;
+    /**
+     * 1 - distributed utility / centralized utility, and centralized time /
+     * distributed time, of the last distributed solve with compareCentralized
+     */
+    public double approximationLoss = 0;
+    public double speedup = 0;
     public int [] counts;
 
+    /**
+     * the assigned tasks, covered utility and assigned workers of each budget
+     * of maxTaskCoverage(budgets)
+     */
+    public int[] budgetAssignedTasks;
+    public double[] budgetCoveredUtility;
+    public int[] budgetAssignedWorkers;
+
     /**
      * read worker and then add entry time
      *
@@ -55,10 +83,11 @@ public class OfflineMTC extends GeocrowdSensing {
         /* actual worker */
         SensingWorker w = (SensingWorker) workerList.get(workerIdx);
         int workerOnlineTime = w.getOnlineTime();
-        /* task id, increasing from 0 to the number of task - 1 */
-        int tid = 0;
-        for (int i = 0; i < taskList.size(); i++) {
-            SensingTask task = (SensingTask) taskList.get(i);
+        /* nearby tasks, in the order of the task list */
+        ArrayList<Integer> tids = taskIndex.query(w.getLat(), w.getLng());
+        Collections.sort(tids);
+        for (int tid : tids) {
+            SensingTask task = (SensingTask) taskList.get(tid);
 
             /**
              * worker covers only task at the same time instance or deferred and
@@ -67,63 +96,11 @@ public class OfflineMTC extends GeocrowdSensing {
             if ((workerOnlineTime - task.getArrivalTime()) < GeocrowdConstants.MAX_TASK_DURATION
                     && (workerOnlineTime - task.getArrivalTime()) >=0 && 
                     		GeocrowdTaskUtility.distanceWorkerTask(DATA_SET, w, task) <= task.getRadius()) {
-
-            	
-                /* compute a list of candidate tasks */
-                if (!taskSet.contains(tid)) {
-                    candidateTaskIndices.add(tid);
-                    taskSet.add(tid);
-                }
-
-                if (containerPrune[workerIdx] == null) {
-                    containerPrune[workerIdx] = new ArrayList();
-                }
-                containerPrune[workerIdx].add(candidateTaskIndices.indexOf(tid));
-                
-
+                addCandidate(workerIdx, tid);
             }// if not overlapped
-            tid++;
         }// for loop
     }
 
-    
-    
-    public void matchingTaskWorkers2(){
-    	//build tasksMap and containerWorkerWithTaskDealine 
-    			tasksMap.clear();
-    			for(int i = 0;  i < taskList.size(); i++){
-    				if(!assignedTasks.contains((int) taskList.get(i).getId()))
-    					tasksMap.put((int) taskList.get(i).getId(), taskList.get(i));
-    			}
-    			containerWorkerWithTaskDeadline = new ArrayList<>();
-    			invertedContainer = new HashMap<>();
-    			
-    			for(int i = 0; i < workerList.size(); i++){
-    				
-    				HashMap<Integer, Integer> tasks_deadlines = new HashMap<>();
-    				for(Integer j: tasksMap.keySet()){
-    					GenericWorker w = workerList.get(i);
-    					SensingTask task = (SensingTask) tasksMap.get(j);
-    					if (GeocrowdTaskUtility.distanceWorkerTask(DATA_SET, w, task) <= GeocrowdSensingConstants.TASK_RADIUS
-    							&&  w.getOnlineTime() < task.getArrivalTime()+ task.lifetime
-    							&& w.getOnlineTime() >= task.getArrivalTime()
-    							){
-    						
-    						tasks_deadlines.put((int) task.getId(), task.getArrivalTime()+task.lifetime);
-    						if(invertedContainer.containsKey((int) task.getId())){
-    							invertedContainer.get((int) task.getId()).add(i);
-    						}
-    						else{
-    							ArrayList<Integer> workerIndices = new ArrayList<>();
-    							workerIndices.add(i);
-    							invertedContainer.put((int) task.getId(), workerIndices);
-    						}
-    					}
-    				}
-    				containerWorkerWithTaskDeadline.add(tasks_deadlines);
-    			}
-    }
-    
     @Override
     public void matchingTasksWorkers() {
         invertedContainer = new HashMap<Integer, ArrayList<Integer>>();
@@ -134,9 +111,13 @@ public class OfflineMTC extends GeocrowdSensing {
 
         System.out.println("Worker size ="+workerList.size());
         System.out.println("Task size =" + taskList.size());
+        candidatePosition = new int[taskList.size()];
+        Arrays.fill(candidatePosition, -1);
+        taskIndex = buildTaskIndex(false);
         for (int workeridx = 0; workeridx < workerList.size(); workeridx++) {
         	
             reverseRangeQuery(workeridx);
+            addToContainers(workeridx);
             
         }
 
@@ -146,31 +127,6 @@ public class OfflineMTC extends GeocrowdSensing {
                 workerList.remove(i);
             }
         }
-        for (int i = 0; i < containerPrune.length; i++) {
-            if (containerPrune[i] != null && containerPrune[i].size() > 0) {
-                containerWorker.add(containerPrune[i]);
-            }
-        }
-        /**
-         * update invertedContainer <taskid, ArrayList<workerIndex>>
-         */
-        for (int tid = 0; tid < taskList.size(); tid++) {
-            for (int i = 0; i < containerWorker.size(); i++) {
-                final int workerIndex = i;
-                if (containerWorker.get(workerIndex).contains(tid)) {
-                    if (!invertedContainer.containsKey(tid)) {
-                        invertedContainer.put(tid, new ArrayList() {
-                            {
-                                add(workerIndex);
-                            }
-                        });
-                    } else {
-                        invertedContainer.get(tid).add(workerIndex);
-                    }
-                }
-            }
-        }
-
     }
 
     /**
@@ -180,17 +136,36 @@ public class OfflineMTC extends GeocrowdSensing {
     public HashSet<Integer> maxTaskCoverage() {
     	MaxCover maxCover = null;
     	
-    	if (isFixed) {
-    		maxCover = new MaxCoverFixedOffline(containerWorkerWithTaskDeadline, TimeInstance);
+    	if (shards > 1) {
+    		MaxCoverDistributed distributed = new MaxCoverDistributed(candidateGraph, TimeInstance);
+    		distributed.shards = shards;
+    		distributed.isFixed = isFixed;
+    		distributed.compareCentralized = compareCentralized;
+    		maxCover = distributed;
+    	} else if (isFixed) {
+    		maxCover = new MaxCoverFixedOffline(candidateGraph, TimeInstance);
+    	} else if (Constants.decomposeComponents) {
+    		maxCover = new MaxCoverComponents(candidateGraph, TimeInstance);
     	} else {
-    		maxCover = new MaxCoverDynamicOffline(containerWorkerWithTaskDeadline, TimeInstance);
+    		maxCover = new MaxCoverDynamicOffline(candidateGraph, TimeInstance);
     	}
 
     	maxCover.budget = budget;
+    	if (Constants.pruneDominatedWorkers)
+    		System.out.println("Pruned dominated workers: "
+    				+ maxCover.pruneDominatedWorkers(Constants.exactPruning));
 //        maxCover.numberTimeInstance = Constants.TIME_INSTANCE;
         HashSet<Integer> workerSet = maxCover.maxCover();
         TotalAssignedTasks = maxCover.assignedTasks;
         TotalCoveredUtility = maxCover.assignedUtility;
+        if (compareCentralized && maxCover instanceof MaxCoverDistributed) {
+        	MaxCoverDistributed distributed = (MaxCoverDistributed) maxCover;
+        	approximationLoss = distributed.approximationLoss;
+        	speedup = distributed.speedup;
+        	System.out.println("Assigned tasks: " + TotalAssignedTasks
+        			+ ", approximation loss: " + approximationLoss
+        			+ ", speedup: " + speedup);
+        }
         
         // print instances of the assigned workers
 		counts = new int[GeocrowdConstants.TIME_INSTANCE];
@@ -203,4 +178,48 @@ public class OfflineMTC extends GeocrowdSensing {
         TotalAssignedWorkers = workerSet.size();
         return workerSet;
     }
+
+    /**
+     * Solve the offline MTC problem for several budgets. The dynamic greedy
+     * selects the workers regardless of the budget, so it is solved once with
+     * the largest budget and every budget is answered from a prefix of the
+     * selection. Otherwise the problem is solved once per budget.
+     *
+     * @param budgets the budgets
+     */
+    public void maxTaskCoverage(int[] budgets) {
+        budgetAssignedTasks = new int[budgets.length];
+        budgetCoveredUtility = new double[budgets.length];
+        budgetAssignedWorkers = new int[budgets.length];
+
+        if (!isFixed && shards <= 1) {
+            int maxBudget = 0;
+            for (int b : budgets)
+                maxBudget = Math.max(maxBudget, b);
+            MaxCover maxCover = Constants.decomposeComponents
+                    ? new MaxCoverComponents(candidateGraph, TimeInstance)
+                    : new MaxCoverDynamicOffline(candidateGraph, TimeInstance);
+            maxCover.budget = maxBudget;
+            if (Constants.pruneDominatedWorkers)
+                System.out.println("Pruned dominated workers: "
+                        + maxCover.pruneDominatedWorkers(Constants.exactPruning));
+            maxCover.maxCover();
+            for (int i = 0; i < budgets.length; i++) {
+                budgetAssignedTasks[i] = maxCover.prefixAssignedTasks(budgets[i]);
+                budgetCoveredUtility[i] = maxCover.prefixAssignedUtility(budgets[i]);
+                budgetAssignedWorkers[i] = maxCover.prefixLength(budgets[i]);
+            }
+            return;
+        }
+
+        int savedBudget = budget;
+        for (int i = 0; i < budgets.length; i++) {
+            budget = budgets[i];
+            maxTaskCoverage();
+            budgetAssignedTasks[i] = TotalAssignedTasks;
+            budgetCoveredUtility[i] = TotalCoveredUtility;
+            budgetAssignedWorkers[i] = TotalAssignedWorkers;
+        }
+        budget = savedBudget;
+    }
 }
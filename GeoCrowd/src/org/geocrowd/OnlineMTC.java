@@ -22,6 +22,7 @@ import static org.geocrowd.Geocrowd.taskList;
 
 import org.geocrowd.common.crowd.GenericTask;
 import org.geocrowd.common.crowd.GenericWorker;
+import org.geocrowd.common.crowd.SensingTask;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
 import org.geocrowd.datasets.synthetic.Parser;
@@ -33,6 +34,8 @@ import org.geocrowd.maxcover.MaxCoverBasic;
 import org.geocrowd.maxcover.MaxCoverEqualGA;
 import org.geocrowd.maxcover.MaxCoverSpatial;
 import org.geocrowd.maxcover.MaxCoverSpatial2;
+import org.geocrowd.maxcover.MaxCoverSieveStreaming;
+import org.geocrowd.maxcover.MaxCoverStochastic;
 import org.geocrowd.maxcover.MaxCoverEqualSMO;
 import org.geocrowd.maxcover.MaxCoverTemporal;
 import org.geocrowd.maxcover.Temporal2;
@@ -60,6 +63,12 @@ public class OnlineMTC extends GeocrowdSensing {
 	// public static HashMap<Integer, Integer> workerCounts = new Hash
 
 	public static ArrayList<Integer> randomBudget;
+
+	/**
+	 * The sieve streaming solver of the current time instance, fed by
+	 * workerMatched while the workers are matched.
+	 */
+	private MaxCoverSieveStreaming sieve = null;
 	public OnlineMTC() throws IOException {
 		if (AlgorithmEnum.BASIC != Geocrowd.algorithm) {
 			this.totalNumberTasks = computeTotalTasks();
@@ -100,6 +109,27 @@ public class OnlineMTC extends GeocrowdSensing {
 
 	}
 
+	/**
+	 * Compute the candidate graph of the current time instance. With sieve
+	 * streaming, each worker is offered to the sieves as soon as it is
+	 * matched.
+	 */
+	@Override
+	public void matchingTaskWorkers2() {
+		sieve = null;
+		if (algorithm == AlgorithmEnum.MAX_COVER_SIEVE_STREAMING) {
+			sieve = new MaxCoverSieveStreaming(TimeInstance);
+			sieve.budget = getBudget(algorithm);
+		}
+		super.matchingTaskWorkers2();
+	}
+
+	@Override
+	protected void workerMatched(int workerIdx, ArrayList<SensingTask> tasks) {
+		if (sieve != null)
+			sieve.offer(workerIdx, tasks);
+	}
+
 	public HashSet<Integer> maxCoverage() {
 		MaxCover maxCover = null;
 		HashSet<Integer> assignedWorker = new HashSet<Integer>();
@@ -110,8 +140,10 @@ public class OnlineMTC extends GeocrowdSensing {
 		case MAX_COVER_PRO_B:
 			// MaxCoverBasic maxCoverBsic = new MaxCoverBasic(
 			// getContainerWithDeadline(), TimeInstance); //luan test here
-			MaxCoverBasic maxCoverBsic = new MaxCoverBasic(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverBasic maxCoverBsic = new MaxCoverBasic(candidateGraph, TimeInstance);
 			maxCoverBsic.budget = getBudget(algorithm);
+			if (Constants.pruneDominatedWorkers)
+				maxCoverBsic.pruneDominatedWorkers(Constants.exactPruning);
 			// System.out.println("xxxx" + maxCoverPro.budget);
 			assignedWorker = maxCoverBsic.maxCover();
 			// printSelectedWorker(algorithm.toString(), assignedWorker);
@@ -123,10 +155,44 @@ public class OnlineMTC extends GeocrowdSensing {
 			// System.out.print("\t" + maxCoverPro.gain);
 			break;
 			
+		case MAX_COVER_STOCHASTIC:
+			MaxCoverStochastic maxCoverStochastic = new MaxCoverStochastic(candidateGraph, TimeInstance);
+			maxCoverStochastic.budget = getBudget(algorithm);
+			assignedWorker = maxCoverStochastic.maxCover();
+			TotalAssignedTasks += maxCoverStochastic.assignedTasks;
+			TotalCoveredUtility += maxCoverStochastic.assignedUtility;
+			TotalAssignedWorkers += assignedWorker.size();
+			usedBudget += assignedWorker.size();
+			maxCover = maxCoverStochastic;
+			break;
+
+		case MAX_COVER_SIEVE_STREAMING:
+			/**
+			 * the workers have been offered as they were matched, see
+			 * workerMatched; otherwise they are streamed from the graph
+			 */
+			MaxCoverSieveStreaming maxCoverSieve = sieve;
+			if (maxCoverSieve != null) {
+				maxCoverSieve.setGraph(candidateGraph);
+				sieve = null;
+			} else {
+				maxCoverSieve = new MaxCoverSieveStreaming(candidateGraph, TimeInstance);
+				maxCoverSieve.budget = getBudget(algorithm);
+			}
+			assignedWorker = maxCoverSieve.maxCover();
+			TotalAssignedTasks += maxCoverSieve.assignedTasks;
+			TotalCoveredUtility += maxCoverSieve.assignedUtility;
+			TotalAssignedWorkers += assignedWorker.size();
+			usedBudget += assignedWorker.size();
+			maxCover = maxCoverSieve;
+			break;
+
 		case MAX_COVER_NAIVE_B:
-			MaxCoverBasic maxCoverBsic2 = new MaxCoverBasic(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverBasic maxCoverBsic2 = new MaxCoverBasic(candidateGraph, TimeInstance);
 
 			maxCoverBsic2.budget = totalBudget - usedBudget;
+			if (Constants.pruneDominatedWorkers)
+				maxCoverBsic2.pruneDominatedWorkers(Constants.exactPruning);
 
 			assignedWorker = maxCoverBsic2.maxCover();
 			// printSelectedWorker(algorithm.toString(), assignedWorker);
@@ -143,9 +209,11 @@ public class OnlineMTC extends GeocrowdSensing {
 			break;
 			
 		case MAX_COVER_RANDOM_B:
-			MaxCoverBasic maxCoverBsic3 = new MaxCoverBasic(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverBasic maxCoverBsic3 = new MaxCoverBasic(candidateGraph, TimeInstance);
 
 			maxCoverBsic3.budget = getBudget(algorithm);
+			if (Constants.pruneDominatedWorkers)
+				maxCoverBsic3.pruneDominatedWorkers(Constants.exactPruning);
 
 			assignedWorker = maxCoverBsic3.maxCover();
 			// printSelectedWorker(algorithm.toString(), assignedWorker);
@@ -170,7 +238,7 @@ public class OnlineMTC extends GeocrowdSensing {
 				else
 					_workerCounts[i++] = 0;
 			}
-			assignedWorker = mcBasicMo.maxCover(containerWorkerWithTaskDeadline, TimeInstance, _workerCounts, budget);
+			assignedWorker = mcBasicMo.maxCover(getContainerWorkerWithTaskDeadline(), TimeInstance, _workerCounts, budget);
 			// printSelectedWorker(algorithm.toString(), assignedWorker);
 			TotalAssignedTasks += mcBasicMo.assignedTasks;
 			TotalAssignedWorkers += assignedWorker.size();
@@ -181,7 +249,7 @@ public class OnlineMTC extends GeocrowdSensing {
 		case MAX_COVER_BASIC_S_MO:
 			MaxCoverEqualSMO mcBasicSMO = new MaxCoverEqualSMO();
 			int budgetSMO = getBudget(algorithm);
-			assignedWorker = mcBasicSMO.maxCover(containerWorkerWithTaskDeadline, TimeInstance, budgetSMO);
+			assignedWorker = mcBasicSMO.maxCover(getContainerWorkerWithTaskDeadline(), TimeInstance, budgetSMO);
 
 			TotalAssignedTasks += mcBasicSMO.assignedTasks;
 			TotalAssignedWorkers += assignedWorker.size();
@@ -190,7 +258,7 @@ public class OnlineMTC extends GeocrowdSensing {
 			break;
 
 		case MAX_COVER_ADAPT_B:
-			MaxCoverAdaptB maxCoverAdaptB = new MaxCoverAdaptB(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverAdaptB maxCoverAdaptB = new MaxCoverAdaptB(candidateGraph, TimeInstance);
 			maxCoverAdaptB.epsGain = epsGain;
 			maxCoverAdaptB.epsBudget = epsBudget;
 			if (TimeInstance == GeocrowdConstants.TIME_INSTANCE - 1) {
@@ -225,7 +293,7 @@ public class OnlineMTC extends GeocrowdSensing {
 			break;
 		case MAX_COVER_ADAPT_B_W:
 
-			MaxCoverAdaptB maxCoverAdapt = new MaxCoverAdaptB(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverAdaptB maxCoverAdapt = new MaxCoverAdaptB(candidateGraph, TimeInstance);
 			maxCoverAdapt.epsGain = epsGain;
 			maxCoverAdapt.epsBudget = epsBudget;
 			if (TimeInstance == GeocrowdConstants.TIME_INSTANCE - 1) {
@@ -258,7 +326,7 @@ public class OnlineMTC extends GeocrowdSensing {
 			break;
 
 		case MAX_COVER_ADAPT_T:
-			MaxCoverAdaptT maxCoverAdaptT = new MaxCoverAdaptT(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverAdaptT maxCoverAdaptT = new MaxCoverAdaptT(candidateGraph, TimeInstance);
 			maxCoverAdaptT.epsGain = epsGain;
 			maxCoverAdaptT.epsBudget = epsBudget;
 			if (TimeInstance == GeocrowdConstants.TIME_INSTANCE - 1) {
@@ -289,7 +357,7 @@ public class OnlineMTC extends GeocrowdSensing {
 			break;
 
 		case MAX_COVER_ADAPT_T_W:
-			MaxCoverAdaptT maxCoverAdaptTW = new MaxCoverAdaptT(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverAdaptT maxCoverAdaptTW = new MaxCoverAdaptT(candidateGraph, TimeInstance);
 			maxCoverAdaptTW.epsGain = epsGain;
 			maxCoverAdaptTW.epsBudget = epsBudget;
 			if (TimeInstance == GeocrowdConstants.TIME_INSTANCE - 1) {
@@ -321,7 +389,7 @@ public class OnlineMTC extends GeocrowdSensing {
 			
 		
 		case MAX_COVER_NAIVE_T:
-			MaxCoverTemporal maxCoverBasicT3 = new MaxCoverTemporal(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverTemporal maxCoverBasicT3 = new MaxCoverTemporal(candidateGraph, TimeInstance);
 
 			maxCoverBasicT3.budget = totalBudget - usedBudget;
 
@@ -340,7 +408,7 @@ public class OnlineMTC extends GeocrowdSensing {
 			break;
 
 		case MAX_COVER_RANDOM_T:
-			MaxCoverTemporal maxCoverBasicT4 = new MaxCoverTemporal(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverTemporal maxCoverBasicT4 = new MaxCoverTemporal(candidateGraph, TimeInstance);
 
 			maxCoverBasicT4.budget = getBudget(algorithm);
 
@@ -357,7 +425,7 @@ public class OnlineMTC extends GeocrowdSensing {
 		case MAX_COVER_BASIC_T:
 		case MAX_COVER_BASIC_WORKLOAD_T:
 		case MAX_COVER_PRO_T:
-			MaxCoverTemporal maxCoverBasicT = new MaxCoverTemporal(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverTemporal maxCoverBasicT = new MaxCoverTemporal(candidateGraph, TimeInstance);
 			maxCoverBasicT.budget = getBudget(algorithm);
 			assignedWorker = maxCoverBasicT.maxCover();
 			// printSelectedWorker(algorithm.toString(), assignedWorker);
@@ -369,7 +437,7 @@ public class OnlineMTC extends GeocrowdSensing {
 			// }
 			break;
 		case MAX_COVER_BASIC_T2:
-			Temporal2 maxCoverBasicT2 = new Temporal2(containerWorkerWithTaskDeadline, TimeInstance);
+			Temporal2 maxCoverBasicT2 = new Temporal2(candidateGraph, TimeInstance);
 			maxCoverBasicT2.budget = getBudget(algorithm);
 			assignedWorker = maxCoverBasicT2.maxCover();
 
@@ -382,7 +450,7 @@ public class OnlineMTC extends GeocrowdSensing {
 
 		case MAX_COVER_BASIC_S:
 		case MAX_COVER_PRO_S:
-			MaxCoverSpatial maxCoverS = new MaxCoverSpatial(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverSpatial maxCoverS = new MaxCoverSpatial(candidateGraph, TimeInstance);
 			maxCoverS.budget = getBudget(algorithm);
 			// maxCoverS.setTaskList(taskList);
 			maxCoverS.setTaskList(tasksMap);
@@ -393,8 +461,8 @@ public class OnlineMTC extends GeocrowdSensing {
 			readBoundary();
 			readEntropy();
 			HashMap<Integer, Double> worker_entropies = new HashMap<Integer, Double>();
-			// luan change container worker to containerWorkerWithTaskDeadline
-			for (int idx = 0; idx < containerWorkerWithTaskDeadline.size(); idx++)
+			// luan change container worker to candidateGraph
+			for (int idx = 0; idx < candidateGraph.workerCount; idx++)
 				worker_entropies.put(idx, computeCost(workerList.get(idx)));
 
 			HashMap<Integer, Double> task_entropies = new HashMap<Integer, Double>();
@@ -416,7 +484,7 @@ public class OnlineMTC extends GeocrowdSensing {
 			maxCover = maxCoverS;
 			break;
 		case MAX_COVER_BASIC_S2:
-			MaxCoverSpatial2 maxCoverS2 = new MaxCoverSpatial2(containerWorkerWithTaskDeadline, TimeInstance);
+			MaxCoverSpatial2 maxCoverS2 = new MaxCoverSpatial2(candidateGraph, TimeInstance);
 			maxCoverS2.budget = getBudget(algorithm);
 			// maxCoverS2.setTaskList(taskList);
 			maxCoverS2.setTaskList(tasksMap);
@@ -427,8 +495,8 @@ public class OnlineMTC extends GeocrowdSensing {
 			createGrid();
 			readEntropy();
 			HashMap<Integer, Double> worker_entropies2 = new HashMap<Integer, Double>();
-			// luan change container worker to containerWorkerWithTaskDeadline
-			for (int idx = 0; idx < containerWorkerWithTaskDeadline.size(); idx++)
+			// luan change container worker to candidateGraph
+			for (int idx = 0; idx < candidateGraph.workerCount; idx++)
 				worker_entropies2.put(idx, computeCost(workerList.get(idx)));
 
 			HashMap<Integer, Double> task_entropies2 = new HashMap<Integer, Double>();
@@ -606,6 +674,8 @@ public class OnlineMTC extends GeocrowdSensing {
 						- totalBudget / GeocrowdConstants.TIME_INSTANCE * (GeocrowdConstants.TIME_INSTANCE - 1);
 			}
 		case MAX_COVER_BASIC_MO:
+		case MAX_COVER_STOCHASTIC:
+		case MAX_COVER_SIEVE_STREAMING:
 		case MAX_COVER_BASIC_S_MO:
 		case MAX_COVER_BASIC_S:
 		case MAX_COVER_BASIC_S2:
@@ -678,8 +748,8 @@ public class OnlineMTC extends GeocrowdSensing {
 		try (Writer writer = new BufferedWriter(
 				new OutputStreamWriter(new FileOutputStream(TimeInstance + "tasksPerWorker.txt"), "utf-8"))) {
 
-			for (HashMap<Integer, Integer> taskWithDeadline : containerWorkerWithTaskDeadline) {
-				tasksPerWorkers.add(taskWithDeadline.size());
+			for (int w = 0; w < candidateGraph.workerCount; w++) {
+				tasksPerWorkers.add(candidateGraph.workerDegree(w));
 			}
 			Collections.sort(tasksPerWorkers);
 			for (int i = 0; i < tasksPerWorkers.size(); i++) {
@@ -692,8 +762,8 @@ public class OnlineMTC extends GeocrowdSensing {
 		try (Writer writer = new BufferedWriter(
 				new OutputStreamWriter(new FileOutputStream(TimeInstance + "workersPerTask.txt"), "utf-8"))) {
 
-			for (ArrayList workers : invertedContainer.values()) {
-				workersPerTask.add(workers.size());
+			for (int t = 0; t < candidateGraph.taskCount; t++) {
+				workersPerTask.add(candidateGraph.taskDegree(t));
 			}
 			Collections.sort(workersPerTask);
 			for (int i = 0; i < workersPerTask.size(); i++) {
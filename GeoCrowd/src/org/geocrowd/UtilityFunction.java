@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd;
+
+import org.geocrowd.common.utils.Utils;
+import org.geocrowd.datasets.params.GeocrowdSensingConstants;
+
+/**
+ * The utility of a task for a worker as a function of their distance, as
+ * selected by Constants.UTILITY_FUNCTION ("zipf", "linear" or "const").
+ *
+ * The function is resolved once from the constants, see current(), instead of
+ * comparing the name of the function for every (worker, task) pair. The zipf
+ * function serves the pmf values from a table of its ranks; Constants.MU is
+ * not in the table, so it can change without resolving the function again.
+ */
+public abstract class UtilityFunction {
+
+	/** The last resolved function. */
+	private static volatile UtilityFunction current = null;
+
+	/** The name of the function. */
+	final String name;
+
+	/** The task radius the distance is normalized by. */
+	final double radius;
+
+	/**
+	 * Instantiates a new utility function.
+	 *
+	 * @param name
+	 *            the name
+	 * @param radius
+	 *            the task radius
+	 */
+	UtilityFunction(String name, double radius) {
+		this.name = name;
+		this.radius = radius;
+	}
+
+	/**
+	 * Utility of a task for a worker at a given distance.
+	 *
+	 * @param dist
+	 *            the distance between the worker and the task
+	 * @return the utility
+	 */
+	public abstract double utility(double dist);
+
+	/**
+	 * Whether the function is the one selected by the constants.
+	 *
+	 * @return true, if successful
+	 */
+	boolean isCurrent() {
+		return name.equals(Constants.UTILITY_FUNCTION)
+				&& radius == GeocrowdSensingConstants.TASK_RADIUS;
+	}
+
+	/**
+	 * The utility function selected by the constants. It is only resolved
+	 * again when one of the constants has changed.
+	 *
+	 * @return the utility function
+	 */
+	public static UtilityFunction current() {
+		UtilityFunction f = current;
+		if (f == null || !f.isCurrent()) {
+			f = resolve();
+			current = f;
+		}
+		return f;
+	}
+
+	/**
+	 * Resolve the utility function from the constants.
+	 *
+	 * @return the utility function
+	 */
+	private static UtilityFunction resolve() {
+		String name = Constants.UTILITY_FUNCTION;
+		double radius = GeocrowdSensingConstants.TASK_RADIUS;
+		if ("zipf".equals(name))
+			return new Zipf(name, radius, Constants.ZIPF_STEPS, Constants.s);
+		if ("linear".equals(name))
+			return new Linear(name, radius);
+		return new Const(name == null ? "" : name, radius);
+	}
+
+	/**
+	 * Constant utility.
+	 */
+	static class Const extends UtilityFunction {
+
+		Const(String name, double radius) {
+			super(name, radius);
+		}
+
+		@Override
+		public double utility(double dist) {
+			return Constants.MU;
+		}
+	}
+
+	/**
+	 * Utility decreasing linearly with the distance, zero at the task radius.
+	 */
+	static class Linear extends UtilityFunction {
+
+		Linear(String name, double radius) {
+			super(name, radius);
+		}
+
+		@Override
+		public double utility(double dist) {
+			return Math.max(0, (1 - (dist + 0.0) / radius) * Constants.MU);
+		}
+	}
+
+	/**
+	 * Zipf utility, the rank is the distance in steps of the task radius.
+	 */
+	static class Zipf extends UtilityFunction {
+
+		/** The number of steps. */
+		final int steps;
+
+		/** The zipf exponent. */
+		final int s;
+
+		/**
+		 * pmf of each rank 1..steps, the utility is the pmf times
+		 * Constants.MU, which is read at every lookup like the other functions
+		 */
+		final double[] table;
+
+		Zipf(String name, double radius, int steps, int s) {
+			super(name, radius);
+			this.steps = steps;
+			this.s = s;
+			table = new double[steps + 1];
+			for (int k = 1; k <= steps; k++)
+				table[k] = Utils.zipf_pmf(steps, k, s);
+		}
+
+		@Override
+		boolean isCurrent() {
+			return super.isCurrent() && steps == Constants.ZIPF_STEPS
+					&& s == Constants.s;
+		}
+
+		@Override
+		public double utility(double dist) {
+			int k = Math.max(1, (int) Math.floor(dist * steps / radius)); // rank
+			if (k <= steps)
+				return table[k] * Constants.MU;
+			return Utils.zipf_pmf(steps, k, s) * Constants.MU;
+		}
+	}
+}
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.dtype;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The bipartite graph between workers and their candidate tasks of one time
+ * instance, stored in compressed sparse rows.
+ *
+ * Workers are numbered 0..workerCount-1, in the order of the container. Tasks
+ * get a dense index 0..taskCount-1 in the order they are first seen; taskIds
+ * maps a dense index back to the task id used in the containers. The tasks of
+ * a worker keep the order in which they were added, the workers of a task are
+ * in increasing order.
+ *
+ * The graph is immutable once built.
+ */
+public class CandidateGraph {
+
+	/** The number of workers. */
+	public final int workerCount;
+
+	/** The number of tasks. */
+	public final int taskCount;
+
+	/** task id of each dense task index. */
+	public final int[] taskIds;
+
+	/** tasks of worker w are workerTasks[workerStart[w]..workerStart[w+1]). */
+	public final int[] workerStart;
+
+	/** dense task indices, grouped by worker. */
+	public final int[] workerTasks;
+
+	/** workers of task t are taskWorkers[taskStart[t]..taskStart[t+1]). */
+	public final int[] taskStart;
+
+	/** worker indices, grouped by task. */
+	public final int[] taskWorkers;
+
+	/** deadline of each task. */
+	public final int[] taskDeadline;
+
+	/** utility (weight) of each task, one by default. */
+	public final double[] taskUtility;
+
+	/** task id -> dense task index. */
+	private final HashMap<Integer, Integer> taskIndices;
+
+	/**
+	 * Instantiates a new graph from the worker adjacency, the task adjacency is
+	 * computed by a counting sort.
+	 *
+	 * @param workerStart
+	 *            the worker start
+	 * @param workerTasks
+	 *            the worker tasks
+	 * @param taskIds
+	 *            the task ids
+	 * @param taskDeadline
+	 *            the task deadline
+	 * @param taskUtility
+	 *            the task utility
+	 */
+	public CandidateGraph(int[] workerStart, int[] workerTasks, int[] taskIds,
+			int[] taskDeadline, double[] taskUtility) {
+		this.workerCount = workerStart.length - 1;
+		this.taskCount = taskIds.length;
+		this.workerStart = workerStart;
+		this.workerTasks = workerTasks;
+		this.taskIds = taskIds;
+		this.taskDeadline = taskDeadline;
+		this.taskUtility = taskUtility;
+
+		taskIndices = new HashMap<Integer, Integer>(taskCount * 2);
+		for (int t = 0; t < taskCount; t++)
+			taskIndices.put(taskIds[t], t);
+
+		taskStart = new int[taskCount + 1];
+		for (int e = 0; e < workerTasks.length; e++)
+			taskStart[workerTasks[e] + 1]++;
+		for (int t = 0; t < taskCount; t++)
+			taskStart[t + 1] += taskStart[t];
+		int[] next = Arrays.copyOf(taskStart, taskCount);
+		taskWorkers = new int[workerTasks.length];
+		for (int w = 0; w < workerCount; w++)
+			for (int e = workerStart[w]; e < workerStart[w + 1]; e++)
+				taskWorkers[next[workerTasks[e]]++] = w;
+	}
+
+	/**
+	 * Build the graph from a container, each element is a map <task id,
+	 * deadline> of a worker.
+	 *
+	 * @param container
+	 *            the container
+	 * @return the candidate graph
+	 */
+	public static CandidateGraph fromContainer(
+			ArrayList<HashMap<Integer, Integer>> container) {
+		Builder builder = new Builder();
+		for (HashMap<Integer, Integer> tasks : container) {
+			builder.addWorker();
+			if (tasks != null)
+				for (Map.Entry<Integer, Integer> e : tasks.entrySet())
+					builder.addTask(e.getKey(), e.getValue());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Number of tasks of a worker.
+	 *
+	 * @param w
+	 *            the worker
+	 * @return the int
+	 */
+	public int workerDegree(int w) {
+		return workerStart[w + 1] - workerStart[w];
+	}
+
+	/**
+	 * Number of workers of a task.
+	 *
+	 * @param t
+	 *            the dense task index
+	 * @return the int
+	 */
+	public int taskDegree(int t) {
+		return taskStart[t + 1] - taskStart[t];
+	}
+
+	/**
+	 * Dense index of a task id.
+	 *
+	 * @param taskId
+	 *            the task id
+	 * @return the dense index, -1 if the task is not in the graph
+	 */
+	public int taskIndex(int taskId) {
+		Integer t = taskIndices.get(taskId);
+		return t == null ? -1 : t;
+	}
+
+	/**
+	 * The container view of the graph, each element is a map <task id,
+	 * deadline> of a worker. The maps iterate in the order of the tasks of
+	 * the worker in the graph, so that fromContainer gives back the same
+	 * graph.
+	 *
+	 * @return the container
+	 */
+	public ArrayList<HashMap<Integer, Integer>> toContainer() {
+		ArrayList<HashMap<Integer, Integer>> container = new ArrayList<>(
+				workerCount);
+		for (int w = 0; w < workerCount; w++) {
+			HashMap<Integer, Integer> tasks = new LinkedHashMap<>(
+					workerDegree(w) * 2);
+			for (int e = workerStart[w]; e < workerStart[w + 1]; e++)
+				tasks.put(taskIds[workerTasks[e]], taskDeadline[workerTasks[e]]);
+			container.add(tasks);
+		}
+		return container;
+	}
+
+	/**
+	 * The inverted container view of the graph, <task id, worker indices>.
+	 *
+	 * @return the inverted container
+	 */
+	public HashMap<Integer, ArrayList<Integer>> toInvertedContainer() {
+		HashMap<Integer, ArrayList<Integer>> invertedContainer = new HashMap<>();
+		for (int t = 0; t < taskCount; t++) {
+			ArrayList<Integer> workers = new ArrayList<Integer>(taskDegree(t));
+			for (int e = taskStart[t]; e < taskStart[t + 1]; e++)
+				workers.add(taskWorkers[e]);
+			invertedContainer.put(taskIds[t], workers);
+		}
+		return invertedContainer;
+	}
+
+	/**
+	 * Builds a candidate graph in one pass, worker by worker.
+	 */
+	public static class Builder {
+
+		/** The worker start. */
+		private int[] workerStart = new int[16];
+
+		/** The worker tasks. */
+		private int[] workerTasks = new int[64];
+
+		/** The task ids. */
+		private int[] taskIds = new int[16];
+
+		/** The task deadlines. */
+		private int[] taskDeadline = new int[16];
+
+		/** task id -> dense task index. */
+		private HashMap<Integer, Integer> taskIndices = new HashMap<>();
+
+		/** The number of workers. */
+		private int workerCount = 0;
+
+		/** The number of edges. */
+		private int edgeCount = 0;
+
+		/**
+		 * Start the next worker, tasks added after this belong to it.
+		 *
+		 * @return the index of the worker
+		 */
+		public int addWorker() {
+			if (workerCount + 2 > workerStart.length)
+				workerStart = Arrays.copyOf(workerStart, workerStart.length * 2);
+			workerCount++;
+			workerStart[workerCount] = edgeCount;
+			return workerCount - 1;
+		}
+
+		/**
+		 * Add a task to the current worker.
+		 *
+		 * @param taskId
+		 *            the task id
+		 * @param deadline
+		 *            the deadline of the task
+		 */
+		public void addTask(int taskId, int deadline) {
+			Integer t = taskIndices.get(taskId);
+			if (t == null) {
+				t = taskIndices.size();
+				if (t == taskIds.length) {
+					taskIds = Arrays.copyOf(taskIds, t * 2);
+					taskDeadline = Arrays.copyOf(taskDeadline, t * 2);
+				}
+				taskIds[t] = taskId;
+				taskDeadline[t] = deadline;
+				taskIndices.put(taskId, t);
+			}
+			if (edgeCount == workerTasks.length)
+				workerTasks = Arrays.copyOf(workerTasks, edgeCount * 2);
+			workerTasks[edgeCount++] = t;
+			workerStart[workerCount] = edgeCount;
+		}
+
+		/**
+		 * Builds the graph, all tasks have utility one.
+		 *
+		 * @return the candidate graph
+		 */
+		public CandidateGraph build() {
+			int taskCount = taskIndices.size();
+			double[] taskUtility = new double[taskCount];
+			Arrays.fill(taskUtility, 1.0);
+			return new CandidateGraph(Arrays.copyOf(workerStart,
+					workerCount + 1), Arrays.copyOf(workerTasks, edgeCount),
+					Arrays.copyOf(taskIds, taskCount), Arrays.copyOf(
+							taskDeadline, taskCount), taskUtility);
+		}
+	}
+}
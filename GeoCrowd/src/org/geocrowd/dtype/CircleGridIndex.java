@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.dtype;
+
+import java.util.ArrayList;
+
+import org.geocrowd.GeocrowdTaskUtility;
+
+/**
+ * A uniform grid over points (e.g., sensing tasks), each covering a circle of
+ * at most a given radius. A circle query returns the points whose cells lie in
+ * a stencil of cells within the max radius from the query cell, so the exact
+ * distance only needs to be computed for these candidates.
+ *
+ * For geographical coordinates the radius is in the unit of the haversine
+ * distance of TaskUtility, on a sphere of GeocrowdTaskUtility.EARTH_RADIUS,
+ * otherwise it is in the unit of the coordinates.
+ */
+public class CircleGridIndex {
+
+	/** Average number of points per cell when the radius is small. */
+	private static final int MIN_POINTS_PER_CELL = 4;
+
+	/** The min lat. */
+	private double minLat;
+
+	/** The min lng. */
+	private double minLng;
+
+	/** The cell height in degrees. */
+	private double cellLat;
+
+	/** The cell width in degrees. */
+	private double cellLng;
+
+	/** The row count. */
+	private int rowCount;
+
+	/** The col count. */
+	private int colCount;
+
+	/** ids of the points, grouped by cell. */
+	private int[] cellIds;
+
+	/** start of the points of each cell in cellIds. */
+	private int[] cellStart;
+
+	/** cell offsets {row, col} that may contain a point within the radius. */
+	private int[][] stencil;
+
+	/**
+	 * Instantiates a new index.
+	 *
+	 * @param ids
+	 *            the ids of the points
+	 * @param lats
+	 *            the lats
+	 * @param lngs
+	 *            the lngs
+	 * @param maxRadius
+	 *            the max radius of the points
+	 * @param geographic
+	 *            whether the coordinates are latitude/longitude
+	 */
+	public CircleGridIndex(int[] ids, double[] lats, double[] lngs,
+			double maxRadius, boolean geographic) {
+		int n = ids.length;
+		double maxLat = Double.NEGATIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+		minLat = minLng = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minLat = Math.min(minLat, lats[i]);
+			maxLat = Math.max(maxLat, lats[i]);
+			minLng = Math.min(minLng, lngs[i]);
+			maxLng = Math.max(maxLng, lngs[i]);
+		}
+		if (n == 0)
+			minLat = maxLat = minLng = maxLng = 0;
+
+		/* max difference in lat/lng between a point and a covered location */
+		double spanLat, spanLng;
+		if (geographic) {
+			double earthRadius = GeocrowdTaskUtility.EARTH_RADIUS;
+			spanLat = Math.toDegrees(maxRadius / earthRadius);
+			double maxAbsLat = Math.max(Math.abs(minLat), Math.abs(maxLat))
+					+ spanLat;
+			double ratio = Math.sin(maxRadius / (2 * earthRadius))
+					/ Math.cos(Math.toRadians(maxAbsLat));
+			spanLng = maxAbsLat >= 90 || ratio >= 1 ? 360 : Math.toDegrees(2 * Math
+					.asin(ratio));
+		} else
+			spanLat = spanLng = maxRadius;
+		/* guard against rounding */
+		spanLat = spanLat * 1.0001 + 1e-12;
+		spanLng = spanLng * 1.0001 + 1e-12;
+
+		/* cells of half the span, coarser if there would be too many cells */
+		cellLat = spanLat / 2;
+		cellLng = spanLng / 2;
+		long maxCells = Math.max(1, n / MIN_POINTS_PER_CELL);
+		while ((long) cells(maxLat - minLat, cellLat)
+				* cells(maxLng - minLng, cellLng) > maxCells) {
+			cellLat *= 2;
+			cellLng *= 2;
+		}
+		rowCount = cells(maxLat - minLat, cellLat);
+		colCount = cells(maxLng - minLng, cellLng);
+
+		/* bucket the points, counting sort by cell */
+		int[] cellOf = new int[n];
+		cellStart = new int[rowCount * colCount + 1];
+		for (int i = 0; i < n; i++) {
+			cellOf[i] = row(lats[i]) * colCount + col(lngs[i]);
+			cellStart[cellOf[i] + 1]++;
+		}
+		for (int c = 0; c < rowCount * colCount; c++)
+			cellStart[c + 1] += cellStart[c];
+		int[] next = cellStart.clone();
+		cellIds = new int[n];
+		for (int i = 0; i < n; i++)
+			cellIds[next[cellOf[i]]++] = ids[i];
+
+		/*
+		 * the stencil contains the offsets of the cells whose gap to the query
+		 * cell is within the span; the planar distance is a circle
+		 */
+		int dRows = (int) Math.ceil(spanLat / cellLat);
+		int dCols = (int) Math.ceil(spanLng / cellLng);
+		ArrayList<int[]> offsets = new ArrayList<int[]>();
+		for (int dr = -dRows; dr <= dRows; dr++)
+			for (int dc = -dCols; dc <= dCols; dc++) {
+				double gapLat = Math.max(0, Math.abs(dr) - 1) * cellLat
+						/ spanLat;
+				double gapLng = Math.max(0, Math.abs(dc) - 1) * cellLng
+						/ spanLng;
+				if (geographic ? (gapLat <= 1 && gapLng <= 1) : (gapLat
+						* gapLat + gapLng * gapLng <= 1))
+					offsets.add(new int[] { dr, dc });
+			}
+		stencil = offsets.toArray(new int[offsets.size()][]);
+	}
+
+	/**
+	 * Number of cells covering an extent.
+	 *
+	 * @param extent
+	 *            the extent
+	 * @param cell
+	 *            the cell size
+	 * @return the int
+	 */
+	private static int cells(double extent, double cell) {
+		return (int) Math.min(Integer.MAX_VALUE / 2, Math.floor(extent / cell) + 1);
+	}
+
+	/**
+	 * Row of a latitude, may be outside of the grid.
+	 *
+	 * @param lat
+	 *            the lat
+	 * @return the int
+	 */
+	private int row(double lat) {
+		return (int) Math.min(Math.max(Math.floor((lat - minLat) / cellLat),
+				-Integer.MAX_VALUE / 2), Integer.MAX_VALUE / 2);
+	}
+
+	/**
+	 * Column of a longitude, may be outside of the grid.
+	 *
+	 * @param lng
+	 *            the lng
+	 * @return the int
+	 */
+	private int col(double lng) {
+		return (int) Math.min(Math.max(Math.floor((lng - minLng) / cellLng),
+				-Integer.MAX_VALUE / 2), Integer.MAX_VALUE / 2);
+	}
+
+	/**
+	 * Ids of the points that may be within the max radius of a location, in no
+	 * particular order.
+	 *
+	 * @param lat
+	 *            the lat
+	 * @param lng
+	 *            the lng
+	 * @return the candidate ids
+	 */
+	public ArrayList<Integer> query(double lat, double lng) {
+		ArrayList<Integer> result = new ArrayList<Integer>();
+		int row = row(lat);
+		int col = col(lng);
+		for (int[] offset : stencil) {
+			int r = row + offset[0];
+			int c = col + offset[1];
+			if (r < 0 || r >= rowCount || c < 0 || c >= colCount)
+				continue;
+			int cell = r * colCount + c;
+			for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++)
+				result.add(cellIds[i]);
+		}
+		return result;
+	}
+}
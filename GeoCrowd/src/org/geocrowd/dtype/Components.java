@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.dtype;
+
+import java.util.Arrays;
+
+/**
+ * The connected components of a worker/task adjacency, found by union-find.
+ *
+ * Workers and tasks far apart never share an edge, so the instance of a time
+ * instance is usually made of many small components that can be solved
+ * separately. Components are numbered in the order of their smallest worker.
+ * A worker that is not active or has no task, and a task without an active
+ * worker, are in no component (-1).
+ */
+public class Components {
+
+	/** The number of components. */
+	public final int count;
+
+	/** component of each worker, -1 if none. */
+	public final int[] workerComponent;
+
+	/** component of each task, -1 if none. */
+	public final int[] taskComponent;
+
+	/**
+	 * workers of component c are workers[workerOffset[c]..workerOffset[c+1]),
+	 * in increasing order.
+	 */
+	public final int[] workerOffset;
+	public final int[] workers;
+
+	/**
+	 * tasks of component c are tasks[taskOffset[c]..taskOffset[c+1]), in
+	 * increasing order.
+	 */
+	public final int[] taskOffset;
+	public final int[] tasks;
+
+	/**
+	 * The components of a worker/task adjacency.
+	 *
+	 * @param workerCount
+	 *            the number of workers
+	 * @param taskCount
+	 *            the number of tasks
+	 * @param workerStart
+	 *            tasks of worker w are workerTasks[workerStart[w]..workerStart[w+1])
+	 * @param workerTasks
+	 *            the tasks of each worker
+	 * @param active
+	 *            the workers to consider, null for all
+	 */
+	public Components(int workerCount, int taskCount, int[] workerStart,
+			int[] workerTasks, boolean[] active) {
+		/**
+		 * union-find over the workers 0..workerCount-1 and the tasks
+		 * workerCount..workerCount+taskCount-1, by size with path halving
+		 */
+		int[] parent = new int[workerCount + taskCount];
+		int[] size = new int[parent.length];
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+			size[i] = 1;
+		}
+		for (int w = 0; w < workerCount; w++) {
+			if (active != null && !active[w])
+				continue;
+			for (int e = workerStart[w]; e < workerStart[w + 1]; e++) {
+				int a = find(parent, w);
+				int b = find(parent, workerCount + workerTasks[e]);
+				if (a == b)
+					continue;
+				if (size[a] < size[b]) {
+					int tmp = a;
+					a = b;
+					b = tmp;
+				}
+				parent[b] = a;
+				size[a] += size[b];
+			}
+		}
+
+		/**
+		 * number the roots in the order of the smallest worker
+		 */
+		int[] id = new int[parent.length];
+		Arrays.fill(id, -1);
+		workerComponent = new int[workerCount];
+		int n = 0;
+		for (int w = 0; w < workerCount; w++) {
+			workerComponent[w] = -1;
+			if ((active != null && !active[w])
+					|| workerStart[w + 1] == workerStart[w])
+				continue;
+			int root = find(parent, w);
+			if (id[root] == -1)
+				id[root] = n++;
+			workerComponent[w] = id[root];
+		}
+		count = n;
+		taskComponent = new int[taskCount];
+		for (int t = 0; t < taskCount; t++)
+			taskComponent[t] = id[find(parent, workerCount + t)];
+
+		workerOffset = new int[count + 1];
+		workers = group(workerComponent, workerOffset);
+		taskOffset = new int[count + 1];
+		tasks = group(taskComponent, taskOffset);
+	}
+
+	/**
+	 * The components of a candidate graph.
+	 *
+	 * @param graph
+	 *            the graph
+	 * @param active
+	 *            the workers to consider, null for all
+	 */
+	public Components(CandidateGraph graph, boolean[] active) {
+		this(graph.workerCount, graph.taskCount, graph.workerStart,
+				graph.workerTasks, active);
+	}
+
+	/**
+	 * The workers of a component.
+	 *
+	 * @param c
+	 *            the component
+	 * @return the workers, in increasing order
+	 */
+	public int[] workers(int c) {
+		return Arrays.copyOfRange(workers, workerOffset[c], workerOffset[c + 1]);
+	}
+
+	/**
+	 * The tasks of a component.
+	 *
+	 * @param c
+	 *            the component
+	 * @return the tasks, in increasing order
+	 */
+	public int[] tasks(int c) {
+		return Arrays.copyOfRange(tasks, taskOffset[c], taskOffset[c + 1]);
+	}
+
+	/**
+	 * Number of workers of a component.
+	 *
+	 * @param c
+	 *            the component
+	 * @return the int
+	 */
+	public int workerCount(int c) {
+		return workerOffset[c + 1] - workerOffset[c];
+	}
+
+	/**
+	 * Number of tasks of a component.
+	 *
+	 * @param c
+	 *            the component
+	 * @return the int
+	 */
+	public int taskCount(int c) {
+		return taskOffset[c + 1] - taskOffset[c];
+	}
+
+	/**
+	 * The root of an element, halving the path.
+	 */
+	private static int find(int[] parent, int x) {
+		while (parent[x] != x) {
+			parent[x] = parent[parent[x]];
+			x = parent[x];
+		}
+		return x;
+	}
+
+	/**
+	 * Group the elements by component with a counting sort.
+	 */
+	private int[] group(int[] component, int[] offset) {
+		for (int c : component)
+			if (c > -1)
+				offset[c + 1]++;
+		for (int c = 0; c < count; c++)
+			offset[c + 1] += offset[c];
+		int[] members = new int[offset[count]];
+		int[] next = Arrays.copyOf(offset, count);
+		for (int i = 0; i < component.length; i++)
+			if (component[i] > -1)
+				members[next[component[i]]++] = i;
+		return members;
+	}
+}
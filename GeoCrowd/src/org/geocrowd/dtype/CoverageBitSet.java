@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.dtype;
+
+/**
+ * The coverage state of a greedy cover algorithm over the dense task indices
+ * of a candidate graph, in long[] bitsets.
+ *
+ * Each worker has a bitset of its tasks, restricted to the words between its
+ * first and last task, and there is one bitset of the covered tasks. The
+ * number of uncovered tasks of a worker is the bit count of its bitset AND-NOT
+ * the covered one.
+ */
+public class CoverageBitSet {
+
+	/** The graph. */
+	private final CandidateGraph graph;
+
+	/** The covered tasks. */
+	private final long[] covered;
+
+	/** The number of covered tasks. */
+	private int coveredCount = 0;
+
+	/** The task bitsets of all the workers, one after another. */
+	private final long[] rows;
+
+	/** the bitset of worker w is rows[rowStart[w]..rowStart[w+1]). */
+	private final int[] rowStart;
+
+	/** the word of the covered bitset of the first word of each worker. */
+	private final int[] firstWord;
+
+	/** the buffer of unionCount of each thread, all zero between calls. */
+	private final ThreadLocal<long[]> buffer = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[covered.length];
+		}
+	};
+
+	/**
+	 * Instantiates a new coverage bitset, no task is covered.
+	 *
+	 * @param graph
+	 *            the graph
+	 */
+	public CoverageBitSet(CandidateGraph graph) {
+		this.graph = graph;
+		covered = new long[(graph.taskCount + 63) >>> 6];
+
+		int n = graph.workerCount;
+		rowStart = new int[n + 1];
+		firstWord = new int[n];
+		for (int w = 0; w < n; w++) {
+			int lo = Integer.MAX_VALUE, hi = -1;
+			for (int e = graph.workerStart[w]; e < graph.workerStart[w + 1]; e++) {
+				lo = Math.min(lo, graph.workerTasks[e] >>> 6);
+				hi = Math.max(hi, graph.workerTasks[e] >>> 6);
+			}
+			firstWord[w] = hi == -1 ? 0 : lo;
+			rowStart[w + 1] = rowStart[w] + (hi == -1 ? 0 : hi - lo + 1);
+		}
+		rows = new long[rowStart[n]];
+		for (int w = 0; w < n; w++)
+			for (int e = graph.workerStart[w]; e < graph.workerStart[w + 1]; e++) {
+				int t = graph.workerTasks[e];
+				rows[rowStart[w] + (t >>> 6) - firstWord[w]] |= 1L << t;
+			}
+	}
+
+	/**
+	 * Instantiates a coverage bitset over the same graph as another one, no
+	 * task is covered. The task bitsets of the workers are shared.
+	 *
+	 * @param other
+	 *            the other coverage bitset
+	 */
+	private CoverageBitSet(CoverageBitSet other) {
+		graph = other.graph;
+		covered = new long[other.covered.length];
+		rows = other.rows;
+		rowStart = other.rowStart;
+		firstWord = other.firstWord;
+	}
+
+	/**
+	 * A coverage bitset over the same graph where no task is covered.
+	 *
+	 * @return the coverage bitset
+	 */
+	public CoverageBitSet empty() {
+		return new CoverageBitSet(this);
+	}
+
+	/**
+	 * Whether a task is covered.
+	 *
+	 * @param t
+	 *            the dense task index
+	 * @return true, if is covered
+	 */
+	public boolean isCovered(int t) {
+		return (covered[t >>> 6] & (1L << t)) != 0;
+	}
+
+	/**
+	 * Cover a task.
+	 *
+	 * @param t
+	 *            the dense task index
+	 * @return true, if the task was not covered
+	 */
+	public boolean coverTask(int t) {
+		if (isCovered(t))
+			return false;
+		covered[t >>> 6] |= 1L << t;
+		coveredCount++;
+		return true;
+	}
+
+	/**
+	 * Cover all the tasks of a worker.
+	 *
+	 * @param w
+	 *            the worker
+	 * @return the number of newly covered tasks
+	 */
+	public int cover(int w) {
+		int count = 0;
+		for (int i = rowStart[w], j = firstWord[w]; i < rowStart[w + 1]; i++, j++) {
+			count += Long.bitCount(rows[i] & ~covered[j]);
+			covered[j] |= rows[i];
+		}
+		coveredCount += count;
+		return count;
+	}
+
+	/**
+	 * Number of tasks of a worker that are not covered.
+	 *
+	 * @param w
+	 *            the worker
+	 * @return the int
+	 */
+	public int uncoveredCount(int w) {
+		int count = 0;
+		for (int i = rowStart[w], j = firstWord[w]; i < rowStart[w + 1]; i++, j++)
+			count += Long.bitCount(rows[i] & ~covered[j]);
+		return count;
+	}
+
+	/**
+	 * Number of tasks covered by a set of workers, regardless of the covered
+	 * tasks. It can be called by several threads at once, each one uses its
+	 * own buffer.
+	 *
+	 * @param selected
+	 *            whether each worker is selected
+	 * @return the number of tasks
+	 */
+	public int unionCount(boolean[] selected) {
+		long[] union = buffer.get();
+		int n = Math.min(selected.length, graph.workerCount);
+		int count = 0;
+		for (int w = 0; w < n; w++)
+			if (selected[w])
+				for (int i = rowStart[w], j = firstWord[w]; i < rowStart[w + 1]; i++, j++) {
+					long bits = rows[i] & ~union[j];
+					count += Long.bitCount(bits);
+					union[j] |= bits;
+				}
+		for (int w = 0; w < n; w++)
+			if (selected[w])
+				for (int i = rowStart[w], j = firstWord[w]; i < rowStart[w + 1]; i++, j++)
+					union[j] = 0;
+		return count;
+	}
+
+	/**
+	 * Number of covered tasks.
+	 *
+	 * @return the int
+	 */
+	public int coveredCount() {
+		return coveredCount;
+	}
+
+	/**
+	 * Whether all the tasks are covered.
+	 *
+	 * @return true, if successful
+	 */
+	public boolean isAllCovered() {
+		return coveredCount == graph.taskCount;
+	}
+}
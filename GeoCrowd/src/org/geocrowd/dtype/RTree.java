@@ -0,0 +1,474 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.dtype;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An R-tree over rectangles (e.g., working regions of workers), answering
+ * stabbing queries: which rectangles contain a given point.
+ *
+ * The tree is bulk loaded with Sort-Tile-Recursive (STR) packing, and supports
+ * Guttman's insert (quadratic split) and delete (condense tree).
+ *
+ * @param <T>
+ *            the type of the indexed items
+ */
+public class RTree<T> {
+
+	/** The max number of entries per node. */
+	private final int maxEntries;
+
+	/** The min number of entries per node, except the root. */
+	private final int minEntries;
+
+	/** The root. */
+	private Node root;
+
+	/** The number of items. */
+	private int size = 0;
+
+	/**
+	 * A node of the tree. The entries of a leaf are nodes holding an item.
+	 */
+	private class Node {
+		double minLat, minLng, maxLat, maxLng;
+		boolean leaf;
+		ArrayList<Node> children;
+		T item;
+
+		Node(boolean leaf) {
+			this.leaf = leaf;
+			this.children = new ArrayList<Node>(maxEntries + 1);
+			resetBox();
+		}
+
+		Node(T item, double minLat, double minLng, double maxLat, double maxLng) {
+			this.item = item;
+			this.minLat = minLat;
+			this.minLng = minLng;
+			this.maxLat = maxLat;
+			this.maxLng = maxLng;
+		}
+
+		void resetBox() {
+			minLat = minLng = Double.POSITIVE_INFINITY;
+			maxLat = maxLng = Double.NEGATIVE_INFINITY;
+		}
+
+		void add(Node child) {
+			children.add(child);
+			extend(child);
+		}
+
+		void extend(Node n) {
+			minLat = Math.min(minLat, n.minLat);
+			minLng = Math.min(minLng, n.minLng);
+			maxLat = Math.max(maxLat, n.maxLat);
+			maxLng = Math.max(maxLng, n.maxLng);
+		}
+
+		void recomputeBox() {
+			resetBox();
+			for (Node child : children)
+				extend(child);
+		}
+
+		boolean contains(double lat, double lng) {
+			return minLat <= lat && lat <= maxLat && minLng <= lng
+					&& lng <= maxLng;
+		}
+
+		boolean contains(Node n) {
+			return minLat <= n.minLat && n.maxLat <= maxLat
+					&& minLng <= n.minLng && n.maxLng <= maxLng;
+		}
+
+		double area() {
+			return (maxLat - minLat) * (maxLng - minLng);
+		}
+
+		double enlargement(Node n) {
+			return (Math.max(maxLat, n.maxLat) - Math.min(minLat, n.minLat))
+					* (Math.max(maxLng, n.maxLng) - Math.min(minLng, n.minLng))
+					- area();
+		}
+
+		double centerLat() {
+			return (minLat + maxLat) / 2;
+		}
+
+		double centerLng() {
+			return (minLng + maxLng) / 2;
+		}
+	}
+
+	/**
+	 * Instantiates an empty tree.
+	 *
+	 * @param maxEntries
+	 *            the max number of entries per node
+	 */
+	public RTree(int maxEntries) {
+		this.maxEntries = Math.max(4, maxEntries);
+		this.minEntries = Math.max(2, (int) (this.maxEntries * 0.4));
+		this.root = new Node(true);
+	}
+
+	/**
+	 * Replace the content of the tree by the given items, packed bottom-up with
+	 * Sort-Tile-Recursive.
+	 *
+	 * @param items
+	 *            the items
+	 * @param boxes
+	 *            the boxes of the items, {minLat, minLng, maxLat, maxLng}
+	 */
+	public void bulkLoad(List<T> items, List<double[]> boxes) {
+		ArrayList<Node> level = new ArrayList<Node>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			double[] b = boxes.get(i);
+			level.add(new Node(items.get(i), b[0], b[1], b[2], b[3]));
+		}
+		size = level.size();
+
+		boolean leaf = true;
+		do {
+			level = pack(level, leaf);
+			leaf = false;
+		} while (level.size() > 1);
+		root = level.get(0);
+	}
+
+	/**
+	 * Pack one level of nodes into their parents.
+	 *
+	 * @param nodes
+	 *            the nodes
+	 * @param leaf
+	 *            whether the parents are leaves
+	 * @return the parents
+	 */
+	private ArrayList<Node> pack(ArrayList<Node> nodes, boolean leaf) {
+		ArrayList<Node> parents = new ArrayList<Node>();
+		if (nodes.isEmpty()) {
+			parents.add(new Node(leaf));
+			return parents;
+		}
+		int leafCount = (int) Math.ceil(nodes.size() / (double) maxEntries);
+		int sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+		int sliceSize = sliceCount * maxEntries;
+
+		Collections.sort(nodes, new Comparator<Node>() {
+			@Override
+			public int compare(Node a, Node b) {
+				return Double.compare(a.centerLng(), b.centerLng());
+			}
+		});
+		for (int s = 0; s < nodes.size(); s += sliceSize) {
+			List<Node> slice = nodes.subList(s,
+					Math.min(s + sliceSize, nodes.size()));
+			Collections.sort(slice, new Comparator<Node>() {
+				@Override
+				public int compare(Node a, Node b) {
+					return Double.compare(a.centerLat(), b.centerLat());
+				}
+			});
+			for (int i = 0; i < slice.size(); i += maxEntries) {
+				Node parent = new Node(leaf);
+				for (Node n : slice.subList(i,
+						Math.min(i + maxEntries, slice.size())))
+					parent.add(n);
+				parents.add(parent);
+			}
+		}
+		return parents;
+	}
+
+	/**
+	 * Number of items in the tree.
+	 *
+	 * @return the int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Insert an item.
+	 *
+	 * @param item
+	 *            the item
+	 * @param minLat
+	 *            the min lat
+	 * @param minLng
+	 *            the min lng
+	 * @param maxLat
+	 *            the max lat
+	 * @param maxLng
+	 *            the max lng
+	 */
+	public void insert(T item, double minLat, double minLng, double maxLat,
+			double maxLng) {
+		insert(new Node(item, minLat, minLng, maxLat, maxLng));
+		size++;
+	}
+
+	/**
+	 * Insert a leaf entry, growing a new root if the old one is split.
+	 *
+	 * @param entry
+	 *            the entry
+	 */
+	private void insert(Node entry) {
+		Node sibling = insert(root, entry);
+		if (sibling != null) {
+			Node newRoot = new Node(false);
+			newRoot.add(root);
+			newRoot.add(sibling);
+			root = newRoot;
+		}
+	}
+
+	/**
+	 * Insert a leaf entry into the subtree.
+	 *
+	 * @param node
+	 *            the node
+	 * @param entry
+	 *            the entry
+	 * @return the new sibling if the node is split, null otherwise
+	 */
+	private Node insert(Node node, Node entry) {
+		if (node.leaf) {
+			node.add(entry);
+		} else {
+			Node best = null;
+			double bestEnlargement = Double.POSITIVE_INFINITY;
+			for (Node child : node.children) {
+				double enlargement = child.enlargement(entry);
+				if (enlargement < bestEnlargement
+						|| (enlargement == bestEnlargement && child.area() < best
+								.area())) {
+					best = child;
+					bestEnlargement = enlargement;
+				}
+			}
+			Node sibling = insert(best, entry);
+			if (sibling != null)
+				node.children.add(sibling);
+			node.recomputeBox();
+		}
+		if (node.children.size() > maxEntries)
+			return split(node);
+		return null;
+	}
+
+	/**
+	 * Quadratic split, the node keeps one group and the other one is returned.
+	 *
+	 * @param node
+	 *            the node
+	 * @return the new node
+	 */
+	private Node split(Node node) {
+		ArrayList<Node> entries = node.children;
+
+		/* pick the two seeds wasting the most area */
+		int seed1 = 0, seed2 = 1;
+		double worst = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < entries.size(); i++)
+			for (int j = i + 1; j < entries.size(); j++) {
+				Node a = entries.get(i), b = entries.get(j);
+				double waste = a.enlargement(b) - b.area();
+				if (waste > worst) {
+					worst = waste;
+					seed1 = i;
+					seed2 = j;
+				}
+			}
+
+		Node group1 = new Node(node.leaf);
+		Node group2 = new Node(node.leaf);
+		group1.add(entries.get(seed1));
+		group2.add(entries.get(seed2));
+		ArrayList<Node> remaining = new ArrayList<Node>(entries);
+		remaining.remove(seed2);
+		remaining.remove(seed1);
+
+		while (!remaining.isEmpty()) {
+			/* make sure both groups get the minimum number of entries */
+			if (group1.children.size() + remaining.size() == minEntries) {
+				for (Node n : remaining)
+					group1.add(n);
+				break;
+			}
+			if (group2.children.size() + remaining.size() == minEntries) {
+				for (Node n : remaining)
+					group2.add(n);
+				break;
+			}
+
+			/* pick the entry with the strongest preference for one group */
+			int next = 0;
+			double maxDiff = -1;
+			for (int i = 0; i < remaining.size(); i++) {
+				double diff = Math.abs(group1.enlargement(remaining.get(i))
+						- group2.enlargement(remaining.get(i)));
+				if (diff > maxDiff) {
+					maxDiff = diff;
+					next = i;
+				}
+			}
+			Node n = remaining.remove(next);
+			double e1 = group1.enlargement(n);
+			double e2 = group2.enlargement(n);
+			if (e1 < e2 || (e1 == e2 && group1.area() < group2.area())
+					|| (e1 == e2 && group1.area() == group2.area() && group1.children
+							.size() <= group2.children.size()))
+				group1.add(n);
+			else
+				group2.add(n);
+		}
+
+		node.children = group1.children;
+		node.recomputeBox();
+		return group2;
+	}
+
+	/**
+	 * Delete an item, the box must be the one given when inserting the item.
+	 *
+	 * @param item
+	 *            the item
+	 * @param minLat
+	 *            the min lat
+	 * @param minLng
+	 *            the min lng
+	 * @param maxLat
+	 *            the max lat
+	 * @param maxLng
+	 *            the max lng
+	 * @return true if the item was found
+	 */
+	public boolean delete(T item, double minLat, double minLng, double maxLat,
+			double maxLng) {
+		Node entry = new Node(item, minLat, minLng, maxLat, maxLng);
+		ArrayList<Node> orphans = new ArrayList<Node>();
+		if (!delete(root, entry, orphans))
+			return false;
+		size--;
+
+		/* shorten the tree */
+		while (!root.leaf && root.children.size() == 1)
+			root = root.children.get(0);
+		if (!root.leaf && root.children.isEmpty())
+			root = new Node(true);
+
+		for (Node orphan : orphans)
+			insert(orphan);
+		return true;
+	}
+
+	/**
+	 * Delete a leaf entry from the subtree, underfull nodes are removed and
+	 * their leaf entries are collected for reinsertion.
+	 *
+	 * @param node
+	 *            the node
+	 * @param entry
+	 *            the entry
+	 * @param orphans
+	 *            the orphans
+	 * @return true if the entry was found
+	 */
+	private boolean delete(Node node, Node entry, ArrayList<Node> orphans) {
+		if (node.leaf) {
+			for (int i = 0; i < node.children.size(); i++)
+				if (node.children.get(i).item == entry.item) {
+					node.children.remove(i);
+					node.recomputeBox();
+					return true;
+				}
+			return false;
+		}
+		for (int i = 0; i < node.children.size(); i++) {
+			Node child = node.children.get(i);
+			if (child.contains(entry) && delete(child, entry, orphans)) {
+				if (child.children.size() < minEntries) {
+					node.children.remove(i);
+					collectEntries(child, orphans);
+				}
+				node.recomputeBox();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Collect the leaf entries of a subtree.
+	 *
+	 * @param node
+	 *            the node
+	 * @param entries
+	 *            the entries
+	 */
+	private void collectEntries(Node node, ArrayList<Node> entries) {
+		if (node.leaf)
+			entries.addAll(node.children);
+		else
+			for (Node child : node.children)
+				collectEntries(child, entries);
+	}
+
+	/**
+	 * Stabbing query, items whose box contains the point (borders included).
+	 *
+	 * @param lat
+	 *            the lat
+	 * @param lng
+	 *            the lng
+	 * @return the items
+	 */
+	public ArrayList<T> stab(double lat, double lng) {
+		ArrayList<T> result = new ArrayList<T>();
+		stab(root, lat, lng, result);
+		return result;
+	}
+
+	/**
+	 * Stabbing query on a subtree.
+	 *
+	 * @param node
+	 *            the node
+	 * @param lat
+	 *            the lat
+	 * @param lng
+	 *            the lng
+	 * @param result
+	 *            the result
+	 */
+	private void stab(Node node, double lat, double lng, ArrayList<T> result) {
+		for (Node child : node.children)
+			if (child.contains(lat, lng)) {
+				if (node.leaf)
+					result.add(child.item);
+				else
+					stab(child, lat, lng, result);
+			}
+	}
+}
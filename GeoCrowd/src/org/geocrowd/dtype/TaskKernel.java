@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.dtype;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The tasks that are covered by exactly the same workers, merged in
+ * super-tasks.
+ *
+ * A worker covers either all the tasks of a super-task or none of them, so
+ * they are always covered together, and a max cover or set cover over the
+ * super-tasks, each weighted by the summed utility of its tasks, has the same
+ * solutions as over the tasks. The tasks are grouped by hashing their sorted
+ * worker lists, the lists with the same hash are then compared.
+ *
+ * Super-tasks are numbered in the order of their first task, the tasks of a
+ * super-task are in increasing order.
+ */
+public class TaskKernel {
+
+	/** The number of super-tasks. */
+	public final int superCount;
+
+	/** super-task of each task. */
+	public final int[] superTask;
+
+	/** tasks of super-task s are members[memberStart[s]..memberStart[s+1]). */
+	public final int[] memberStart;
+	public final int[] members;
+
+	/**
+	 * The graph over the super-tasks, a super-task has the id of its first
+	 * task, the earliest deadline and the summed utility of its tasks. Null if
+	 * the kernel is not built from a graph.
+	 */
+	public final CandidateGraph reduced;
+
+	/** edge of the reduced graph of each edge of the graph, or null. */
+	public final int[] edgeMap;
+
+	/**
+	 * Merge the tasks of a worker/task adjacency.
+	 *
+	 * @param taskCount
+	 *            the number of tasks
+	 * @param taskStart
+	 *            workers of task t are taskWorkers[taskStart[t]..taskStart[t+1])
+	 * @param taskWorkers
+	 *            the workers of each task, in increasing order
+	 */
+	public TaskKernel(int taskCount, int[] taskStart, int[] taskWorkers) {
+		superTask = new int[taskCount];
+		HashMap<Integer, ArrayList<Integer>> buckets = new HashMap<>();
+		ArrayList<Integer> firstTask = new ArrayList<>();
+		for (int t = 0; t < taskCount; t++) {
+			int hash = 1;
+			for (int e = taskStart[t]; e < taskStart[t + 1]; e++)
+				hash = 31 * hash + taskWorkers[e];
+			ArrayList<Integer> bucket = buckets.get(hash);
+			if (bucket == null) {
+				bucket = new ArrayList<>(1);
+				buckets.put(hash, bucket);
+			}
+			int s = -1;
+			for (int candidate : bucket)
+				if (sameWorkers(taskStart, taskWorkers, firstTask.get(candidate), t)) {
+					s = candidate;
+					break;
+				}
+			if (s == -1) {
+				s = firstTask.size();
+				firstTask.add(t);
+				bucket.add(s);
+			}
+			superTask[t] = s;
+		}
+		superCount = firstTask.size();
+
+		memberStart = new int[superCount + 1];
+		for (int t = 0; t < taskCount; t++)
+			memberStart[superTask[t] + 1]++;
+		for (int s = 0; s < superCount; s++)
+			memberStart[s + 1] += memberStart[s];
+		members = new int[taskCount];
+		int[] next = Arrays.copyOf(memberStart, superCount);
+		for (int t = 0; t < taskCount; t++)
+			members[next[superTask[t]]++] = t;
+
+		reduced = null;
+		edgeMap = null;
+	}
+
+	/**
+	 * Merge the tasks of a graph, and build the reduced graph.
+	 *
+	 * @param graph
+	 *            the graph
+	 */
+	public TaskKernel(CandidateGraph graph) {
+		TaskKernel kernel = new TaskKernel(graph.taskCount, graph.taskStart,
+				graph.taskWorkers);
+		superCount = kernel.superCount;
+		superTask = kernel.superTask;
+		memberStart = kernel.memberStart;
+		members = kernel.members;
+
+		int[] taskIds = new int[superCount];
+		int[] taskDeadline = new int[superCount];
+		double[] taskUtility = new double[superCount];
+		for (int s = 0; s < superCount; s++) {
+			taskIds[s] = graph.taskIds[members[memberStart[s]]];
+			taskDeadline[s] = Integer.MAX_VALUE;
+			for (int i = memberStart[s]; i < memberStart[s + 1]; i++) {
+				taskDeadline[s] = Math.min(taskDeadline[s],
+						graph.taskDeadline[members[i]]);
+				taskUtility[s] += graph.taskUtility[members[i]];
+			}
+		}
+
+		/**
+		 * a worker has one edge per super-task, in the order of its first
+		 * task
+		 */
+		edgeMap = new int[graph.workerTasks.length];
+		int[] workerStart = new int[graph.workerCount + 1];
+		int[] workerTasks = new int[graph.workerTasks.length];
+		int[] lastWorker = new int[superCount];
+		int[] lastEdge = new int[superCount];
+		Arrays.fill(lastWorker, -1);
+		int edges = 0;
+		for (int w = 0; w < graph.workerCount; w++) {
+			for (int e = graph.workerStart[w]; e < graph.workerStart[w + 1]; e++) {
+				int s = superTask[graph.workerTasks[e]];
+				if (lastWorker[s] != w) {
+					lastWorker[s] = w;
+					lastEdge[s] = edges;
+					workerTasks[edges++] = s;
+				}
+				edgeMap[e] = lastEdge[s];
+			}
+			workerStart[w + 1] = edges;
+		}
+		reduced = new CandidateGraph(workerStart, Arrays.copyOf(workerTasks,
+				edges), taskIds, taskDeadline, taskUtility);
+	}
+
+	/**
+	 * Number of tasks of a super-task.
+	 *
+	 * @param s
+	 *            the super-task
+	 * @return the int
+	 */
+	public int size(int s) {
+		return memberStart[s + 1] - memberStart[s];
+	}
+
+	/**
+	 * The first task of a super-task, it is covered if and only if all the
+	 * tasks of the super-task are.
+	 *
+	 * @param s
+	 *            the super-task
+	 * @return the task
+	 */
+	public int representative(int s) {
+		return members[memberStart[s]];
+	}
+
+	/**
+	 * Sum the values of the edges of the graph on the edges of the reduced
+	 * graph.
+	 *
+	 * @param edgeValues
+	 *            a value per edge of the graph
+	 * @return a value per edge of the reduced graph
+	 */
+	public double[] reduce(double[] edgeValues) {
+		double[] reducedValues = new double[reduced.workerTasks.length];
+		for (int e = 0; e < edgeMap.length; e++)
+			reducedValues[edgeMap[e]] += edgeValues[e];
+		return reducedValues;
+	}
+
+	/**
+	 * Whether two tasks have the same workers.
+	 */
+	private static boolean sameWorkers(int[] taskStart, int[] taskWorkers,
+			int t1, int t2) {
+		int n = taskStart[t1 + 1] - taskStart[t1];
+		if (n != taskStart[t2 + 1] - taskStart[t2])
+			return false;
+		for (int i = 0; i < n; i++)
+			if (taskWorkers[taskStart[t1] + i] != taskWorkers[taskStart[t2] + i])
+				return false;
+		return true;
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.dtype;
+
+import java.util.Arrays;
+
+/**
+ * Finds the workers dominated by another worker: the tasks of the worker are a
+ * subset of the tasks of the other one, and the value of each task (e.g. its
+ * utility) is not larger.
+ *
+ * A dominated worker never covers more than its dominator, so it can be left
+ * out of a cover as long as the dominator can be selected in its place, which
+ * is the case when both are in the same budgets (same class). Two workers that
+ * dominate each other are identical, only the one with the larger index is
+ * dominated. A worker without tasks is always dominated.
+ *
+ * The candidate dominators of a worker are the workers of its task with the
+ * fewest workers. A candidate is discarded by a 64-bit signature of the tasks
+ * before the sorted task lists are merged.
+ */
+public class WorkerDominance {
+
+	/**
+	 * The dominated workers of a worker/task adjacency.
+	 *
+	 * @param workerCount
+	 *            the number of workers
+	 * @param workerStart
+	 *            tasks of worker w are workerTasks[workerStart[w]..workerStart[w+1])
+	 * @param workerTasks
+	 *            the tasks of each worker
+	 * @param taskStart
+	 *            workers of task t are taskWorkers[taskStart[t]..taskStart[t+1])
+	 * @param taskWorkers
+	 *            the workers of each task
+	 * @param edgeValue
+	 *            the value of each edge of workerTasks, null if all are equal
+	 * @param workerClass
+	 *            a worker is only dominated by a worker of the same class, null
+	 *            for a single class
+	 * @param active
+	 *            the workers to consider, null for all
+	 * @return whether each active worker is dominated
+	 */
+	public static boolean[] dominated(int workerCount, int[] workerStart,
+			int[] workerTasks, int[] taskStart, int[] taskWorkers,
+			double[] edgeValue, int[] workerClass, boolean[] active) {
+		/**
+		 * the tasks of each worker in increasing order, with their values
+		 */
+		int[] sortedTasks = new int[workerTasks.length];
+		double[] sortedValues = new double[workerTasks.length];
+		long[] signature = new long[workerCount];
+		for (int w = 0; w < workerCount; w++) {
+			int from = workerStart[w], to = workerStart[w + 1];
+			long[] keys = new long[to - from];
+			for (int e = from; e < to; e++)
+				keys[e - from] = ((long) workerTasks[e] << 32) | (e - from);
+			Arrays.sort(keys);
+			for (int i = 0; i < keys.length; i++) {
+				int e = from + (int) keys[i];
+				sortedTasks[from + i] = workerTasks[e];
+				sortedValues[from + i] = edgeValue == null ? 0 : edgeValue[e];
+				signature[w] |= 1L << (workerTasks[e] & 63);
+			}
+		}
+
+		boolean[] dominated = new boolean[workerCount];
+		for (int u = 0; u < workerCount; u++) {
+			if (active != null && !active[u])
+				continue;
+			int degree = workerStart[u + 1] - workerStart[u];
+			if (degree == 0) {
+				dominated[u] = true;
+				continue;
+			}
+
+			/**
+			 * the dominators of u are among the workers of its rarest task
+			 */
+			int rarest = sortedTasks[workerStart[u]];
+			for (int e = workerStart[u]; e < workerStart[u + 1]; e++) {
+				int t = sortedTasks[e];
+				if (taskStart[t + 1] - taskStart[t] < taskStart[rarest + 1]
+						- taskStart[rarest])
+					rarest = t;
+			}
+			for (int i = taskStart[rarest]; i < taskStart[rarest + 1]; i++) {
+				int v = taskWorkers[i];
+				if (v == u || (active != null && !active[v])
+						|| (workerClass != null && workerClass[u] != workerClass[v])
+						|| workerStart[v + 1] - workerStart[v] < degree
+						|| (signature[u] & ~signature[v]) != 0)
+					continue;
+				if (dominates(v, u, workerStart, sortedTasks, sortedValues)) {
+					dominated[u] = true;
+					break;
+				}
+			}
+		}
+		return dominated;
+	}
+
+	/**
+	 * The dominated workers of a candidate graph.
+	 *
+	 * @param graph
+	 *            the graph
+	 * @param edgeValue
+	 *            the value of each edge of the graph, null if all are equal
+	 * @param workerClass
+	 *            a worker is only dominated by a worker of the same class, null
+	 *            for a single class
+	 * @param active
+	 *            the workers to consider, null for all
+	 * @return whether each active worker is dominated
+	 */
+	public static boolean[] dominated(CandidateGraph graph, double[] edgeValue,
+			int[] workerClass, boolean[] active) {
+		return dominated(graph.workerCount, graph.workerStart,
+				graph.workerTasks, graph.taskStart, graph.taskWorkers,
+				edgeValue, workerClass, active);
+	}
+
+	/**
+	 * Whether worker v dominates worker u, the task lists are merged.
+	 */
+	private static boolean dominates(int v, int u, int[] workerStart,
+			int[] sortedTasks, double[] sortedValues) {
+		boolean equal = workerStart[v + 1] - workerStart[v] == workerStart[u + 1]
+				- workerStart[u];
+		int j = workerStart[v];
+		for (int i = workerStart[u]; i < workerStart[u + 1]; i++) {
+			int t = sortedTasks[i];
+			while (j < workerStart[v + 1] && sortedTasks[j] < t)
+				j++;
+			if (j == workerStart[v + 1] || sortedTasks[j] != t
+					|| sortedValues[i] > sortedValues[j])
+				return false;
+			if (sortedValues[i] < sortedValues[j])
+				equal = false;
+			j++;
+		}
+		/**
+		 * of two identical workers, only the one with the larger index is
+		 * dominated
+		 */
+		return !equal || v < u;
+	}
+}
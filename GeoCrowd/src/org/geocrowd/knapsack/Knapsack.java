@@ -1,75 +1,370 @@
 package org.geocrowd.knapsack;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
 /*************************************************************************
- * Compilation: javac Knapsack.java Execution: java Knapsack N W
+ * Knapsack problems with integer weights, by dynamic programming.
  *
- * Generates an instance of the 0/1 knapsack problem with N items and maximum
- * weight W and solves it in time and space proportional to N * W using dynamic
- * programming.
+ * The items are in groups, and at most one option of each group is taken
+ * (multiple choice knapsack): a 0/1 item is a group of one option, the budget
+ * of a time instance is a group whose option k is k workers. The first option
+ * of every group is taken when nothing else is, it weighs nothing.
  *
- * For testing, the inputs are generated at random with weights between 0 and W,
- * and profits between 0 and 1000.
+ * The exact solve keeps one array of capacity + 1 values, updated group by
+ * group from the largest capacity down, and the option chosen for each group
+ * and capacity in a table packed into bits, N * (W + 1) bits for N items and
+ * capacity W instead of N * (W + 1) floats and booleans. For large
+ * capacities, approximate is a FPTAS: the values are rounded down to
+ * multiples of epsilon * the best single option / the number of groups, and
+ * the least weight of each rounded value is computed instead, within
+ * (1 - epsilon) of the optimum in time independent of the capacity.
  *
- * % java Knapsack 6 2000 item profit weight take 1 874 580 true 2 620 1616
- * false 3 345 1906 false 4 369 1942 false 5 360 50 true 6 470 294 true
+ * Execution: java Knapsack [N] [W] solves a random 0/1 instance with N
+ * items, 1000 by default, of profits in [0, 1000) and weights in [0, 10),
+ * and maximum weight W, 1000 by default. It prints one line per item: item,
+ * profit, weight, take.
  *
  *************************************************************************/
 
 public class Knapsack {
 
-	public static void main(String[] args) {
-		int N = 1000;
-		int W = 1000;
+	/**
+	 * The option chosen for each group and capacity, cells of width bits
+	 * packed into longs; the width is a power of two so that a cell does not
+	 * cross two longs.
+	 */
+	private static class ChoiceTable {
+		final int cols;
+		final int width;
+		final long mask;
+		final long[] bits;
 
-		float[] profit = new float[N + 1];
-		int[] weight = new int[N + 1];
+		ChoiceTable(int rows, int cols, int maxChoice) {
+			this.cols = cols;
+			int w = 1;
+			while (w < 64 && (1L << w) <= maxChoice)
+				w <<= 1;
+			width = w;
+			mask = w == 64 ? -1L : (1L << w) - 1;
+			bits = new long[(int) (((long) rows * cols * width + 63) / 64)];
+		}
 
-		// generate random instance, items 1..N
-		for (int n = 1; n <= N; n++) {
-			profit[n] = (int) (Math.random() * 1000);
-			weight[n] = (int) (Math.random() * 10);
+		void set(int row, int col, int choice) {
+			long bit = ((long) row * cols + col) * width;
+			bits[(int) (bit >>> 6)] |= (choice & mask) << (bit & 63);
+		}
+
+		int get(int row, int col) {
+			long bit = ((long) row * cols + col) * width;
+			return (int) ((bits[(int) (bit >>> 6)] >>> (bit & 63)) & mask);
 		}
+	}
 
-		// opt[n][w] = max profit of packing items 1..n with weight limit w
-		// sol[n][w] = does opt solution to pack items 1..n with weight limit w
-		// include item n?
-		float[][] opt = new float[N + 1][W + 1];
-		boolean[][] sol = new boolean[N + 1][W + 1];
+	/**
+	 * Exact multiple choice knapsack, the best options within the capacity.
+	 * On ties the first option of a group is kept.
+	 *
+	 * @param weights
+	 *            the weight of each option of each group, weights[g][0] is 0
+	 * @param values
+	 *            the value of each option of each group
+	 * @param capacity
+	 *            the capacity
+	 * @return the option taken in each group
+	 */
+	public static int[] choose(int[][] weights, double[][] values, int capacity) {
+		int n = weights.length;
+		int maxOptions = 1;
+		for (int g = 0; g < n; g++)
+			maxOptions = Math.max(maxOptions, weights[g].length);
+		ChoiceTable choice = new ChoiceTable(n, capacity + 1, maxOptions - 1);
 
-		for (int n = 1; n <= N; n++) {
-			for (int w = 1; w <= W; w++) {
+		/**
+		 * best[b] is the best value of the groups so far within the capacity
+		 * b; from the largest b down, best[b - w] is still the one of the
+		 * previous groups
+		 */
+		double[] best = new double[capacity + 1];
+		for (int g = 0; g < n; g++) {
+			int[] w = weights[g];
+			double[] v = values[g];
+			for (int b = capacity; b >= 0; b--) {
+				double max = best[b] + v[0];
+				int option = 0;
+				for (int j = 1; j < w.length; j++)
+					if (w[j] <= b) {
+						double value = best[b - w[j]] + v[j];
+						if (value > max) {
+							max = value;
+							option = j;
+						}
+					}
+				best[b] = max;
+				if (option != 0)
+					choice.set(g, b, option);
+			}
+		}
 
-				// don't take item n
-				float option1 = opt[n - 1][w];
+		int[] result = new int[n];
+		for (int g = n - 1, b = capacity; g >= 0; g--) {
+			result[g] = choice.get(g, b);
+			b -= weights[g][result[g]];
+		}
+		return result;
+	}
 
-				// take item n
-				float option2 = Float.MIN_VALUE;
-				if (weight[n] <= w)
-					option2 = profit[n] + opt[n - 1][w - weight[n]];
+	/**
+	 * FPTAS for the multiple choice knapsack, within (1 - epsilon) of the
+	 * best value; only the gains of the options over the first one of their
+	 * group are rounded.
+	 *
+	 * @param weights
+	 *            the weight of each option of each group, weights[g][0] is 0
+	 * @param values
+	 *            the value of each option of each group
+	 * @param capacity
+	 *            the capacity
+	 * @param epsilon
+	 *            the approximation error, in (0, 1)
+	 * @return the option taken in each group
+	 */
+	public static int[] approximateChoose(int[][] weights, double[][] values,
+			int capacity, double epsilon) {
+		int n = weights.length;
 
-				// select better of two options
-				opt[n][w] = Math.max(option1, option2);
-				sol[n][w] = (option2 > option1);
+		/**
+		 * the best single option is a lower bound of the optimum, and the
+		 * groups with a gain at most their number times it
+		 */
+		double lowerBound = 0;
+		int groups = 0;
+		for (int g = 0; g < n; g++) {
+			double max = 0;
+			for (int j = 1; j < weights[g].length; j++)
+				if (weights[g][j] <= capacity)
+					max = Math.max(max, values[g][j] - values[g][0]);
+			if (max > 0)
+				groups++;
+			lowerBound = Math.max(lowerBound, max);
+		}
+		int[] result = new int[n];
+		if (lowerBound <= 0)
+			return result;
+		double unit = epsilon * lowerBound / groups;
+
+		/**
+		 * the options of a group that no lighter option matches once rounded
+		 */
+		int[][] scaled = new int[n][];
+		int[][] options = new int[n][];
+		int maxOptions = 1;
+		int total = 0;
+		for (int g = 0; g < n; g++) {
+			scaled[g] = new int[weights[g].length];
+			for (int j = 1; j < weights[g].length; j++) {
+				double gain = values[g][j] - values[g][0];
+				if (weights[g][j] <= capacity && gain > 0)
+					scaled[g][j] = (int) (gain / unit);
 			}
+			options[g] = pareto(weights[g], scaled[g]);
+			if (options[g].length > 0)
+				total += scaled[g][options[g][options[g].length - 1]];
+			maxOptions = Math.max(maxOptions, weights[g].length);
 		}
+		ChoiceTable choice = new ChoiceTable(n, total + 1, maxOptions - 1);
 
-		// determine which items to take
-		boolean[] take = new boolean[N + 1];
-		for (int n = N, w = W; n > 0; n--) {
-			if (sol[n][w]) {
-				take[n] = true;
-				w = w - weight[n];
-			} else {
-				take[n] = false;
+		/**
+		 * least[p] is the least weight of the groups so far with the rounded
+		 * value p
+		 */
+		long[] least = new long[total + 1];
+		Arrays.fill(least, Long.MAX_VALUE);
+		least[0] = 0;
+		for (int g = 0; g < n; g++) {
+			int[] w = weights[g];
+			int[] s = scaled[g];
+			for (int p = total; p >= 0; p--) {
+				long min = least[p];
+				int option = 0;
+				for (int j : options[g])
+					if (s[j] <= p && least[p - s[j]] != Long.MAX_VALUE) {
+						long weight = least[p - s[j]] + w[j];
+						if (weight < min) {
+							min = weight;
+							option = j;
+						}
+					}
+				least[p] = min;
+				if (option != 0)
+					choice.set(g, p, option);
 			}
 		}
 
+		int p = total;
+		while (least[p] > capacity)
+			p--;
+		for (int g = n - 1; g >= 0; g--) {
+			result[g] = choice.get(g, p);
+			p -= scaled[g][result[g]];
+		}
+		return result;
+	}
+
+	/**
+	 * The options with a positive rounded value that are lighter than every
+	 * option of a larger rounded value, by increasing rounded value.
+	 */
+	private static int[] pareto(final int[] weight, final int[] scaled) {
+		Integer[] order = new Integer[weight.length - 1];
+		for (int j = 1; j < weight.length; j++)
+			order[j - 1] = j;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer j1, Integer j2) {
+				if (scaled[j1] != scaled[j2])
+					return Integer.compare(scaled[j2], scaled[j1]);
+				if (weight[j1] != weight[j2])
+					return Integer.compare(weight[j1], weight[j2]);
+				return j1.compareTo(j2);
+			}
+		});
+		ArrayList<Integer> kept = new ArrayList<>();
+		long lightest = Long.MAX_VALUE;
+		for (int j : order)
+			if (scaled[j] > 0 && weight[j] < lightest) {
+				kept.add(j);
+				lightest = weight[j];
+			}
+		int[] result = new int[kept.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = kept.get(result.length - 1 - i);
+		return result;
+	}
+
+	/**
+	 * Exact 0/1 knapsack.
+	 *
+	 * @param weight
+	 *            the weight of each item
+	 * @param profit
+	 *            the profit of each item
+	 * @param capacity
+	 *            the capacity
+	 * @return whether each item is taken
+	 */
+	public static boolean[] solve(int[] weight, double[] profit, int capacity) {
+		return taken(choose(itemWeights(weight), itemValues(profit), capacity));
+	}
+
+	/**
+	 * FPTAS for the 0/1 knapsack, within (1 - epsilon) of the best profit.
+	 *
+	 * @param weight
+	 *            the weight of each item
+	 * @param profit
+	 *            the profit of each item
+	 * @param capacity
+	 *            the capacity
+	 * @param epsilon
+	 *            the approximation error, in (0, 1)
+	 * @return whether each item is taken
+	 */
+	public static boolean[] approximate(int[] weight, double[] profit,
+			int capacity, double epsilon) {
+		return taken(approximateChoose(itemWeights(weight), itemValues(profit),
+				capacity, epsilon));
+	}
+
+	/**
+	 * Split a budget of workers between the time instances. The curve of an
+	 * instance t is curves[t][k], its gain with k workers, the gain stays the
+	 * same with more workers; the curves may be of any shape.
+	 *
+	 * @param curves
+	 *            the gain curves
+	 * @param budget
+	 *            the budget
+	 * @return the budget of each instance, at most budget in total
+	 */
+	public static int[] allocateBudget(double[][] curves, int budget) {
+		return choose(curveWeights(curves, budget), curves, budget);
+	}
+
+	/**
+	 * Split a budget of workers between the time instances by the FPTAS, for
+	 * large budgets.
+	 *
+	 * @param curves
+	 *            the gain curves
+	 * @param budget
+	 *            the budget
+	 * @param epsilon
+	 *            the approximation error, in (0, 1)
+	 * @return the budget of each instance, at most budget in total
+	 */
+	public static int[] allocateBudget(double[][] curves, int budget,
+			double epsilon) {
+		return approximateChoose(curveWeights(curves, budget), curves, budget,
+				epsilon);
+	}
+
+	/**
+	 * The option k of a curve is k workers, up to the budget.
+	 */
+	private static int[][] curveWeights(double[][] curves, int budget) {
+		int[][] weights = new int[curves.length][];
+		for (int t = 0; t < curves.length; t++) {
+			weights[t] = new int[Math.min(budget, curves[t].length - 1) + 1];
+			for (int k = 0; k < weights[t].length; k++)
+				weights[t][k] = k;
+		}
+		return weights;
+	}
+
+	private static int[][] itemWeights(int[] weight) {
+		int[][] weights = new int[weight.length][];
+		for (int i = 0; i < weight.length; i++)
+			weights[i] = new int[] { 0, weight[i] };
+		return weights;
+	}
+
+	private static double[][] itemValues(double[] profit) {
+		double[][] values = new double[profit.length][];
+		for (int i = 0; i < profit.length; i++)
+			values[i] = new double[] { 0, profit[i] };
+		return values;
+	}
+
+	private static boolean[] taken(int[] options) {
+		boolean[] take = new boolean[options.length];
+		for (int i = 0; i < options.length; i++)
+			take[i] = options[i] == 1;
+		return take;
+	}
+
+	public static void main(String[] args) {
+		int N = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int W = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+		double[] profit = new double[N];
+		int[] weight = new int[N];
+
+		// generate random instance
+		for (int n = 0; n < N; n++) {
+			profit[n] = (int) (Math.random() * 1000);
+			weight[n] = (int) (Math.random() * 10);
+		}
+
+		boolean[] take = solve(weight, profit, W);
+
 		// print results
 		System.out.println("item" + "\t" + "profit" + "\t" + "weight" + "\t"
 				+ "take");
-		for (int n = 1; n <= N; n++) {
-			System.out.println(n + "\t" + profit[n] + "\t" + weight[n] + "\t"
-					+ take[n]);
+		for (int n = 0; n < N; n++) {
+			System.out.println((n + 1) + "\t" + profit[n] + "\t" + weight[n]
+					+ "\t" + take[n]);
 		}
 	}
 }
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.geocrowd.dtype.Components;
+import org.geocrowd.maxcover.ParallelGains;
+
+/**
+ * The Hungarian algorithm run on each connected component of a cost matrix.
+ *
+ * The non zero entries of the matrix are the edges between the rows and the
+ * columns, and a matching only pays off on its edges, so the costs must not be
+ * positive. The components are matched independently by Hungarian on their
+ * own square matrices, in parallel with Constants.parallelism threads. The
+ * O(n^3) algorithm on the n rows and columns becomes one run of about
+ * (n/c)^3 per component.
+ */
+public class ComponentHungarian {
+
+	/**
+	 * Execute the algorithm.
+	 *
+	 * @param costMatrix
+	 *            the cost matrix, not changed
+	 * @return the column matched to each row, -1 if the row is not matched
+	 *         on an edge
+	 */
+	public static int[] execute(final double[][] costMatrix) {
+		int rows = costMatrix.length;
+		int cols = rows == 0 ? 0 : costMatrix[0].length;
+
+		/**
+		 * the edges of each row
+		 */
+		int[] rowStart = new int[rows + 1];
+		for (int i = 0; i < rows; i++) {
+			rowStart[i + 1] = rowStart[i];
+			for (int j = 0; j < cols; j++)
+				if (costMatrix[i][j] != 0)
+					rowStart[i + 1]++;
+		}
+		int[] rowCols = new int[rowStart[rows]];
+		for (int i = 0, e = 0; i < rows; i++)
+			for (int j = 0; j < cols; j++)
+				if (costMatrix[i][j] != 0)
+					rowCols[e++] = j;
+
+		final Components components = new Components(rows, cols, rowStart,
+				rowCols, null);
+		final int[] result = new int[rows];
+		Arrays.fill(result, -1);
+		ArrayList<Runnable> jobs = new ArrayList<>();
+		for (int n = 0; n < components.count; n++) {
+			final int c = n;
+			jobs.add(new Runnable() {
+				@Override
+				public void run() {
+					int[] r = components.workers(c);
+					int[] t = components.tasks(c);
+					int dim = Math.max(r.length, t.length);
+					double[][] cost = new double[dim][dim];
+					for (int i = 0; i < r.length; i++)
+						for (int j = 0; j < t.length; j++)
+							cost[i][j] = costMatrix[r[i]][t[j]];
+					int[] match = new Hungarian(cost).execute(cost);
+					for (int i = 0; i < r.length; i++)
+						if (match[i] > -1 && match[i] < t.length
+								&& costMatrix[r[i]][t[match[i]]] != 0)
+							result[r[i]] = t[match[i]];
+				}
+			});
+		}
+		ParallelGains.runAll(jobs);
+		return result;
+	}
+}
@@ -13,10 +13,14 @@
 package org.geocrowd.matching;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 
+import org.geocrowd.dtype.CandidateGraph;
+
 // TODO: Auto-generated Javadoc
 /**
  * The Class OnlineBipartiteMatching.
@@ -53,7 +57,7 @@ public class OnlineBipartiteMatching {
 	 * @return assignment, task index to worker index
 	 */
 	public HashMap<Integer, Integer> onlineMatching(
-			HashMap<Integer, ArrayList> invertedContainer) {
+			HashMap<Integer, ? extends ArrayList> invertedContainer) {
 		
 		
 
@@ -84,6 +88,57 @@ public class OnlineBipartiteMatching {
 		return assignment;
 	}
 
+	/**
+	 * Online algorithm on a candidate graph, tasks arrive in increasing order
+	 * of their ids.
+	 * 
+	 * @param graph
+	 *            the candidate graph
+	 * @return assignment, task id to worker index
+	 */
+	public HashMap<Integer, Integer> onlineMatching(final CandidateGraph graph) {
+
+		/* task id, worker order id */
+		HashMap<Integer, Integer> assignment = new HashMap<>();
+
+		Integer[] tasks = new Integer[graph.taskCount];
+		for (int t = 0; t < graph.taskCount; t++)
+			tasks[t] = t;
+		Arrays.sort(tasks, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer t1, Integer t2) {
+				return Integer.compare(graph.taskIds[t1], graph.taskIds[t2]);
+			}
+		});
+
+		/* eligible workers of the current task */
+		boolean[] eligible = new boolean[graph.workerCount];
+		for (int t : tasks) {
+			if (workerOrders.size() == 0)
+				break;
+			for (int e = graph.taskStart[t]; e < graph.taskStart[t + 1]; e++)
+				eligible[graph.taskWorkers[e]] = true;
+
+			// find the worker of highest rank by iterate through ranks
+			for (int i = 0; i < ranks.size(); i++) {
+				int worker = workerOrders.get(ranks.get(i));
+				if (worker < graph.workerCount && eligible[worker]) {
+					assignment.put(graph.taskIds[t], worker);
+
+					// remove the task & rank from workers and ranks
+					workerOrders.remove(ranks.get(i));
+					ranks.remove(i);
+					break; // find the worker
+				}
+			}
+
+			for (int e = graph.taskStart[t]; e < graph.taskStart[t + 1]; e++)
+				eligible[graph.taskWorkers[e]] = false;
+		}
+
+		return assignment;
+	}
+
 	/**
 	 * Rank the workers.
 	 */
@@ -0,0 +1,513 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.Arrays;
+
+/**
+ * Revised dual simplex with bounded variables over sparse columns, for
+ *
+ * max c x s.t. A x + s = b, l <= x <= u, s >= 0,
+ *
+ * where every variable x has finite bounds. The columns of A are given in
+ * compressed arrays, the basis is kept as its dense inverse, updated at each
+ * pivot and inverted again from the columns every so often to drop the
+ * rounding errors.
+ *
+ * Since every x is bounded, any basis is dual feasible once each nonbasic x
+ * is put at the bound its reduced cost points to, so no phase 1 is needed:
+ * the first solve starts from the slacks, and the later solves start from the
+ * basis left by the previous one, or from a basis given by setBasis. Changing
+ * bounds or right hand sides between the solves keeps the basis dual
+ * feasible, so a branch and bound node only pays for the pivots that repair
+ * its branched bounds. The leaving row is the most infeasible one, the
+ * smallest basic index after a run of degenerate pivots so that the method
+ * does not cycle.
+ */
+public class BoundedSimplex {
+
+	/** Tolerance on the bounds of the basic variables. */
+	private static final double PRIMAL_EPSILON = 1e-9;
+
+	/** Tolerance on the reduced costs. */
+	private static final double DUAL_EPSILON = 1e-9;
+
+	/** The smallest pivot. */
+	private static final double PIVOT_EPSILON = 1e-9;
+
+	/** Consecutive degenerate pivots before switching to Bland's rule. */
+	private static final int DEGENERATE_PIVOTS = 50;
+
+	/** The min number of pivots between two inversions of the basis. */
+	private static final int MIN_REFACTOR = 100;
+
+	private final int m;
+	private final int n;
+
+	/** The column j of A is rowIndex/values[columnStart[j]..columnStart[j+1]). */
+	private final int[] columnStart;
+	private final int[] rowIndex;
+	private final double[] values;
+
+	private final double[] rhs;
+
+	/** The costs to minimize, -c, the columns n..n+m-1 are the slacks. */
+	private final double[] cost;
+	private final double[] lower;
+	private final double[] upper;
+
+	/** The basic variable of each row, and the row of each basic variable. */
+	private final int[] basis;
+	private final int[] basisRow;
+
+	/** Whether a nonbasic variable is at its upper bound. */
+	private final boolean[] atUpper;
+
+	/** The inverse of the basis. */
+	private final double[][] inverse;
+
+	/** The values of the basic variables. */
+	private final double[] basic;
+
+	/** The reduced costs. */
+	private final double[] reduced;
+
+	/** The pivot row, the row of the inverse times A. */
+	private final double[] alphaRow;
+
+	/** The pivot column, the inverse times the entering column. */
+	private final double[] alphaColumn;
+
+	private int pivots = 0;
+
+	/**
+	 * Instantiates a new problem, the costs and right hand sides are 0 and
+	 * the bounds are [0, 1].
+	 *
+	 * @param rows
+	 *            the number of constraints
+	 * @param columns
+	 *            the number of variables
+	 * @param columnStart
+	 *            the start of each column in rowIndex and values, columns + 1
+	 *            entries
+	 * @param rowIndex
+	 *            the row of each coefficient
+	 * @param values
+	 *            the coefficients
+	 */
+	public BoundedSimplex(int rows, int columns, int[] columnStart,
+			int[] rowIndex, double[] values) {
+		m = rows;
+		n = columns;
+		this.columnStart = columnStart;
+		this.rowIndex = rowIndex;
+		this.values = values;
+		rhs = new double[m];
+		cost = new double[n + m];
+		lower = new double[n + m];
+		upper = new double[n + m];
+		Arrays.fill(upper, 0, n, 1.0);
+		Arrays.fill(upper, n, n + m, Double.POSITIVE_INFINITY);
+		basis = new int[m];
+		basisRow = new int[n + m];
+		atUpper = new boolean[n + m];
+		inverse = new double[m][m];
+		basic = new double[m];
+		reduced = new double[n + m];
+		alphaRow = new double[n + m];
+		alphaColumn = new double[m];
+		slackBasis();
+	}
+
+	/**
+	 * Set the right hand side of a constraint.
+	 */
+	public void setRhs(int row, double b) {
+		rhs[row] = b;
+	}
+
+	/**
+	 * Set the coefficient of a variable in the objective, the basis is then
+	 * only kept if it stays dual feasible.
+	 */
+	public void setObjective(int column, double c) {
+		cost[column] = -c;
+	}
+
+	/**
+	 * Set the bounds of a variable, they must be finite.
+	 */
+	public void setBounds(int column, double l, double u) {
+		if (l > u || Double.isInfinite(l) || Double.isInfinite(u))
+			throw new IllegalArgumentException("invalid bounds");
+		lower[column] = l;
+		upper[column] = u;
+	}
+
+	/**
+	 * The basis, the basic variable of each constraint, the slack of row i is
+	 * the variable columns + i.
+	 *
+	 * @return a copy of the basis
+	 */
+	public int[] getBasis() {
+		return basis.clone();
+	}
+
+	/**
+	 * Start the next solve from a basis returned by getBasis, e.g. the basis
+	 * of the parent of a branch and bound node. The variables that are not
+	 * basic are pivoted in, in place of the ones that are not in the basis.
+	 *
+	 * @param target
+	 *            the basis
+	 */
+	public void setBasis(int[] target) {
+		boolean[] in = new boolean[n + m];
+		for (int j : target)
+			in[j] = true;
+		for (int j : target) {
+			if (basisRow[j] > -1)
+				continue;
+			column(j, alphaColumn);
+			int r = -1;
+			double best = PIVOT_EPSILON;
+			for (int i = 0; i < m; i++)
+				if (!in[basis[i]] && Math.abs(alphaColumn[i]) > best) {
+					best = Math.abs(alphaColumn[i]);
+					r = i;
+				}
+			if (r == -1) {
+				/* lost to rounding, invert the target instead */
+				System.arraycopy(target, 0, basis, 0, m);
+				refactor();
+				return;
+			}
+			updateInverse(r);
+			basisRow[basis[r]] = -1;
+			basis[r] = j;
+			basisRow[j] = r;
+		}
+	}
+
+	/**
+	 * Solve the problem.
+	 *
+	 * @param maxIterations
+	 *            the max number of pivots
+	 * @return the max of the objective, Double.NEGATIVE_INFINITY if the
+	 *         problem is infeasible
+	 * @throws IllegalStateException
+	 *             if the iterations run out
+	 */
+	public double solve(int maxIterations) {
+		if (!dualFeasible()) {
+			slackBasis();
+			dualFeasible();
+		}
+		computeBasic();
+
+		int degenerate = 0;
+		for (int iteration = 0; iteration < maxIterations; iteration++) {
+			boolean bland = degenerate >= DEGENERATE_PIVOTS;
+
+			/**
+			 * leaving variable, the most infeasible basic one
+			 */
+			int r = -1;
+			double worst = PRIMAL_EPSILON;
+			for (int i = 0; i < m; i++) {
+				int p = basis[i];
+				double infeasibility = Math.max(lower[p] - basic[i], basic[i]
+						- upper[p]);
+				if (infeasibility > worst
+						&& (!bland || r == -1 || p < basis[r])) {
+					r = i;
+					if (!bland)
+						worst = infeasibility;
+				}
+			}
+			if (r == -1)
+				return objective();
+			int p = basis[r];
+			boolean toLower = basic[r] < lower[p];
+
+			/**
+			 * entering variable, the ratio test keeps the reduced costs of
+			 * their sign
+			 */
+			pivotRow(r);
+			int q = -1;
+			double ratio = Double.POSITIVE_INFINITY;
+			for (int j = 0; j < n + m; j++) {
+				if (basisRow[j] > -1 || lower[j] == upper[j])
+					continue;
+				double a = toLower ? alphaRow[j] : -alphaRow[j];
+				if (atUpper[j] ? a < PIVOT_EPSILON : a > -PIVOT_EPSILON)
+					continue;
+				double d = Math.max(0, atUpper[j] ? -reduced[j] : reduced[j]);
+				double t = d / Math.abs(a);
+				if (t < ratio
+						|| (t == ratio && Math.abs(a) > Math.abs(alphaRow[q]))) {
+					ratio = t;
+					q = j;
+				}
+			}
+			if (q == -1)
+				return Double.NEGATIVE_INFINITY;
+			degenerate = ratio <= DUAL_EPSILON ? degenerate + 1 : 0;
+
+			/**
+			 * update the reduced costs, the values and the inverse
+			 */
+			double theta = reduced[q] / alphaRow[q];
+			for (int j = 0; j < n + m; j++)
+				if (basisRow[j] == -1 && alphaRow[j] != 0)
+					reduced[j] -= theta * alphaRow[j];
+			reduced[p] = -theta;
+			reduced[q] = 0;
+
+			column(q, alphaColumn);
+			double target = toLower ? lower[p] : upper[p];
+			double step = (basic[r] - target) / alphaColumn[r];
+			for (int i = 0; i < m; i++)
+				basic[i] -= step * alphaColumn[i];
+			basic[r] = nonbasicValue(q) + step;
+			updateInverse(r);
+			basisRow[p] = -1;
+			atUpper[p] = !toLower && lower[p] < upper[p];
+			basis[r] = q;
+			basisRow[q] = r;
+
+			if (pivots >= Math.max(MIN_REFACTOR, m)) {
+				refactor();
+				dualFeasible();
+				computeBasic();
+			}
+		}
+		throw new IllegalStateException("too many iterations");
+	}
+
+	/**
+	 * The value of a variable in the solution.
+	 *
+	 * @param column
+	 *            the variable
+	 * @return the value
+	 */
+	public double value(int column) {
+		return basisRow[column] > -1 ? basic[basisRow[column]]
+				: nonbasicValue(column);
+	}
+
+	/**
+	 * The objective of the current solution.
+	 */
+	private double objective() {
+		double z = 0;
+		for (int j = 0; j < n; j++)
+			if (cost[j] != 0)
+				z -= cost[j] * value(j);
+		return z;
+	}
+
+	private double nonbasicValue(int j) {
+		return atUpper[j] ? upper[j] : lower[j];
+	}
+
+	/**
+	 * The basis of the slacks, its inverse is the identity.
+	 */
+	private void slackBasis() {
+		Arrays.fill(basisRow, -1);
+		for (int i = 0; i < m; i++) {
+			Arrays.fill(inverse[i], 0);
+			inverse[i][i] = 1;
+			basis[i] = n + i;
+			basisRow[n + i] = i;
+		}
+		pivots = 0;
+	}
+
+	/**
+	 * Compute the reduced costs and put every nonbasic bounded variable at the
+	 * bound they point to.
+	 *
+	 * @return whether the basis is dual feasible, i.e. no nonbasic slack has a
+	 *         negative reduced cost
+	 */
+	private boolean dualFeasible() {
+		double[] y = new double[m];
+		for (int i = 0; i < m; i++) {
+			double c = cost[basis[i]];
+			if (c == 0)
+				continue;
+			double[] row = inverse[i];
+			for (int k = 0; k < m; k++)
+				y[k] += c * row[k];
+		}
+		boolean feasible = true;
+		for (int j = 0; j < n + m; j++) {
+			if (basisRow[j] > -1) {
+				reduced[j] = 0;
+				continue;
+			}
+			double d = cost[j];
+			if (j < n)
+				for (int e = columnStart[j]; e < columnStart[j + 1]; e++)
+					d -= y[rowIndex[e]] * values[e];
+			else
+				d -= y[j - n];
+			reduced[j] = d;
+			if (j >= n)
+				feasible &= d >= -DUAL_EPSILON;
+			else if (d < -DUAL_EPSILON)
+				atUpper[j] = lower[j] < upper[j];
+			else if (d > DUAL_EPSILON || lower[j] == upper[j])
+				atUpper[j] = false;
+		}
+		return feasible;
+	}
+
+	/**
+	 * Compute the values of the basic variables from the nonbasic ones.
+	 */
+	private void computeBasic() {
+		double[] b = rhs.clone();
+		for (int j = 0; j < n; j++) {
+			if (basisRow[j] > -1)
+				continue;
+			double x = nonbasicValue(j);
+			if (x != 0)
+				for (int e = columnStart[j]; e < columnStart[j + 1]; e++)
+					b[rowIndex[e]] -= values[e] * x;
+		}
+		for (int i = 0; i < m; i++) {
+			double v = 0;
+			double[] row = inverse[i];
+			for (int k = 0; k < m; k++)
+				v += row[k] * b[k];
+			basic[i] = v;
+		}
+	}
+
+	/**
+	 * The row r of the inverse times every column, into alphaRow.
+	 */
+	private void pivotRow(int r) {
+		double[] row = inverse[r];
+		for (int j = 0; j < n; j++) {
+			double a = 0;
+			for (int e = columnStart[j]; e < columnStart[j + 1]; e++)
+				a += row[rowIndex[e]] * values[e];
+			alphaRow[j] = a;
+		}
+		System.arraycopy(row, 0, alphaRow, n, m);
+	}
+
+	/**
+	 * The inverse times the column j.
+	 */
+	private void column(int j, double[] result) {
+		if (j >= n) {
+			for (int i = 0; i < m; i++)
+				result[i] = inverse[i][j - n];
+			return;
+		}
+		Arrays.fill(result, 0);
+		for (int e = columnStart[j]; e < columnStart[j + 1]; e++) {
+			int k = rowIndex[e];
+			double a = values[e];
+			for (int i = 0; i < m; i++)
+				result[i] += inverse[i][k] * a;
+		}
+	}
+
+	/**
+	 * Pivot the inverse on alphaColumn[r].
+	 */
+	private void updateInverse(int r) {
+		double[] pivotRow = inverse[r];
+		double p = alphaColumn[r];
+		for (int k = 0; k < m; k++)
+			pivotRow[k] /= p;
+		for (int i = 0; i < m; i++) {
+			double a = alphaColumn[i];
+			if (i == r || a == 0)
+				continue;
+			double[] row = inverse[i];
+			for (int k = 0; k < m; k++)
+				if (pivotRow[k] != 0)
+					row[k] -= a * pivotRow[k];
+		}
+		pivots++;
+	}
+
+	/**
+	 * Invert the basis from its columns by Gauss-Jordan elimination, back to
+	 * the slacks if it is singular.
+	 */
+	private void refactor() {
+		double[][] b = new double[m][m];
+		for (int i = 0; i < m; i++) {
+			int j = basis[i];
+			if (j >= n)
+				b[j - n][i] = 1;
+			else
+				for (int e = columnStart[j]; e < columnStart[j + 1]; e++)
+					b[rowIndex[e]][i] = values[e];
+		}
+		for (int i = 0; i < m; i++) {
+			Arrays.fill(inverse[i], 0);
+			inverse[i][i] = 1;
+		}
+		for (int c = 0; c < m; c++) {
+			int r = -1;
+			double best = PIVOT_EPSILON;
+			for (int i = c; i < m; i++)
+				if (Math.abs(b[i][c]) > best) {
+					best = Math.abs(b[i][c]);
+					r = i;
+				}
+			if (r == -1) {
+				slackBasis();
+				return;
+			}
+			double[] t = b[r];
+			b[r] = b[c];
+			b[c] = t;
+			t = inverse[r];
+			inverse[r] = inverse[c];
+			inverse[c] = t;
+			double p = b[c][c];
+			for (int k = 0; k < m; k++) {
+				b[c][k] /= p;
+				inverse[c][k] /= p;
+			}
+			for (int i = 0; i < m; i++) {
+				double a = b[i][c];
+				if (i == c || a == 0)
+					continue;
+				for (int k = 0; k < m; k++) {
+					b[i][k] -= a * b[c][k];
+					inverse[i][k] -= a * inverse[c][k];
+				}
+			}
+		}
+		Arrays.fill(basisRow, -1);
+		for (int i = 0; i < m; i++)
+			basisRow[basis[i]] = i;
+		pivots = 0;
+	}
+}
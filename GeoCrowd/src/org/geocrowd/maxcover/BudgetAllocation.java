@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import org.geocrowd.knapsack.Knapsack;
+
+/**
+ * Split a budget between independent components, given the value of each
+ * component for each budget.
+ *
+ * The curve of a component c is curves[c][k], the value with k workers, for
+ * k = 0..curves[c].length-1, the value stays the same with more workers.
+ */
+public class BudgetAllocation {
+
+	/**
+	 * The value of a component with a budget.
+	 */
+	public static double value(double[] curve, int k) {
+		return curve[Math.min(k, curve.length - 1)];
+	}
+
+	/**
+	 * Greedy merge of the curves: each worker goes to the component with the
+	 * largest next marginal gain, the first component on ties. When the curves
+	 * are the prefixes of greedy solutions, their gains do not increase, and
+	 * the merge selects the same workers as one greedy over all the
+	 * components.
+	 *
+	 * @param curves
+	 *            the curves
+	 * @param budget
+	 *            the budget
+	 * @return the component of each worker, in the order of selection; it
+	 *         stops earlier when no gain is positive
+	 */
+	public static int[] greedyOrder(final double[][] curves, int budget) {
+		final int[] next = new int[curves.length];
+		PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1,
+				curves.length), new Comparator<Integer>() {
+			@Override
+			public int compare(Integer c1, Integer c2) {
+				int cmp = Double.compare(gain(c2), gain(c1));
+				return cmp != 0 ? cmp : c1.compareTo(c2);
+			}
+
+			private double gain(int c) {
+				return curves[c][next[c] + 1] - curves[c][next[c]];
+			}
+		});
+		for (int c = 0; c < curves.length; c++)
+			if (curves[c].length > 1)
+				queue.add(c);
+
+		ArrayList<Integer> order = new ArrayList<>();
+		while (order.size() < budget && !queue.isEmpty()) {
+			int c = queue.poll();
+			if (curves[c][next[c] + 1] - curves[c][next[c]] <= 0)
+				break;
+			order.add(c);
+			next[c]++;
+			if (next[c] + 1 < curves[c].length)
+				queue.add(c);
+		}
+		int[] result = new int[order.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = order.get(i);
+		return result;
+	}
+
+	/**
+	 * The budget of each component of a greedy order.
+	 *
+	 * @param order
+	 *            the component of each worker
+	 * @param count
+	 *            the number of components
+	 * @return the budget of each component
+	 */
+	public static int[] allocation(int[] order, int count) {
+		int[] allocation = new int[count];
+		for (int c : order)
+			allocation[c]++;
+		return allocation;
+	}
+
+	/**
+	 * Dynamic programming over the curves, the best allocation within the
+	 * budget, the curves may be of any shape; see Knapsack.allocateBudget.
+	 *
+	 * @param curves
+	 *            the curves
+	 * @param budget
+	 *            the budget
+	 * @return the budget of each component
+	 */
+	public static int[] dynamicProgramming(double[][] curves, int budget) {
+		return Knapsack.allocateBudget(curves, budget);
+	}
+
+	/**
+	 * The value of an allocation.
+	 *
+	 * @param curves
+	 *            the curves
+	 * @param allocation
+	 *            the budget of each component
+	 * @return the summed value
+	 */
+	public static double value(double[][] curves, int[] allocation) {
+		double v = 0;
+		for (int c = 0; c < curves.length; c++)
+			v += value(curves[c], allocation[c]);
+		return v;
+	}
+}
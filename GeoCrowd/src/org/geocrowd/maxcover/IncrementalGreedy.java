@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.Arrays;
+
+import org.geocrowd.dtype.CandidateGraph;
+
+/**
+ * Incremental selection of the worker with the smallest weight, for the
+ * greedy algorithms whose weight of a worker only depends on its own uncovered
+ * tasks (e.g., a sum of deadline or entropy discounted utilities).
+ *
+ * The weights are kept in an indexed min-heap. When a worker is selected, only
+ * the workers that share one of its newly covered tasks (found by the
+ * task->worker adjacency of the candidate graph) are marked dirty, and their
+ * weights are recomputed before the next pick. Since the weights are computed
+ * by the same function, the selections are the same as a full scan over the
+ * workers in increasing order that keeps the first strictly smaller weight.
+ * The weights are evaluated by ParallelGains.
+ */
+public class IncrementalGreedy {
+
+	/**
+	 * The weight and gain of a worker given the tasks covered so far.
+	 */
+	public interface Weight {
+		WeightGain weight(int worker);
+	}
+
+	/** The candidate graph. */
+	private final CandidateGraph graph;
+
+	/** The weight function. */
+	private final Weight f;
+
+	/** only the weights strictly smaller than this can be selected. */
+	private final double maxWeight;
+
+	/** last computed weight and gain of each worker. */
+	private WeightGain[] scores;
+
+	/** the heap of workers. */
+	private int[] heap;
+
+	/** position of each worker in the heap, -1 if not in the heap. */
+	private int[] pos;
+
+	/** The heap size. */
+	private int size = 0;
+
+	/** The covered tasks, by dense task index. */
+	private boolean[] covered;
+
+	/** The dirty workers, their weights must be recomputed. */
+	private int[] dirty;
+
+	/** The number of dirty workers. */
+	private int dirtyCount = 0;
+
+	/** whether a worker is in the dirty list. */
+	private boolean[] isDirty;
+
+	/** The number of weight evaluations. */
+	public long evaluations = 0;
+
+	/**
+	 * Instantiates a new incremental greedy, the weights of all the workers
+	 * are computed once, in the order of the iteration.
+	 *
+	 * @param graph
+	 *            the candidate graph
+	 * @param workers
+	 *            the candidate workers
+	 * @param f
+	 *            the weight function
+	 * @param maxWeight
+	 *            only the weights strictly smaller than this can be selected
+	 */
+	public IncrementalGreedy(CandidateGraph graph, Iterable<Integer> workers,
+			Weight f, double maxWeight) {
+		this.graph = graph;
+		this.f = f;
+		this.maxWeight = maxWeight;
+		int n = graph.workerCount;
+		scores = new WeightGain[n];
+		heap = new int[n];
+		pos = new int[n];
+		Arrays.fill(pos, -1);
+		covered = new boolean[graph.taskCount];
+		dirty = new int[n];
+		isDirty = new boolean[n];
+		for (int w : workers) {
+			pos[w] = size;
+			heap[size++] = w;
+		}
+		WeightGain[] weights = evaluate(heap, size);
+		for (int i = 0; i < size; i++)
+			scores[heap[i]] = weights[i];
+		heapify();
+	}
+
+	/**
+	 * Evaluate the weights of workers[0..n), in parallel with
+	 * Constants.parallelism threads.
+	 *
+	 * @param workers
+	 *            the workers
+	 * @param n
+	 *            the number of workers
+	 * @return the weight and gain of each worker
+	 */
+	private WeightGain[] evaluate(int[] workers, int n) {
+		evaluations += n;
+		return ParallelGains.weights(workers, n, f);
+	}
+
+	/**
+	 * Whether a weight can be selected, NaN cannot.
+	 *
+	 * @param worker
+	 *            the worker
+	 * @return true, if successful
+	 */
+	private boolean selectable(int worker) {
+		return scores[worker].weight < maxWeight;
+	}
+
+	/**
+	 * Whether worker a comes before worker b: the smaller weight, then the
+	 * smaller worker index.
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return true, if successful
+	 */
+	private boolean before(int a, int b) {
+		boolean sa = selectable(a), sb = selectable(b);
+		if (sa != sb)
+			return sa;
+		if (sa) {
+			double wa = scores[a].weight, wb = scores[b].weight;
+			if (wa < wb)
+				return true;
+			if (wa > wb)
+				return false;
+		}
+		return a < b;
+	}
+
+	/**
+	 * Place a worker at a heap position.
+	 *
+	 * @param i
+	 *            the position
+	 * @param w
+	 *            the worker
+	 */
+	private void place(int i, int w) {
+		heap[i] = w;
+		pos[w] = i;
+	}
+
+	/**
+	 * Sift up.
+	 *
+	 * @param i
+	 *            the position
+	 */
+	private void up(int i) {
+		int w = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (!before(w, heap[parent]))
+				break;
+			place(i, heap[parent]);
+			i = parent;
+		}
+		place(i, w);
+	}
+
+	/**
+	 * Sift down.
+	 *
+	 * @param i
+	 *            the position
+	 */
+	private void down(int i) {
+		int w = heap[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && before(heap[child + 1], heap[child]))
+				child++;
+			if (!before(heap[child], w))
+				break;
+			place(i, heap[child]);
+			i = child;
+		}
+		place(i, w);
+	}
+
+	/**
+	 * Heapify.
+	 */
+	private void heapify() {
+		for (int i = size / 2 - 1; i >= 0; i--)
+			down(i);
+	}
+
+	/**
+	 * Recompute the weights of the dirty workers.
+	 */
+	public void update() {
+		int n = 0;
+		for (int i = 0; i < dirtyCount; i++) {
+			int w = dirty[i];
+			isDirty[w] = false;
+			if (pos[w] != -1)
+				dirty[n++] = w;
+		}
+		dirtyCount = 0;
+		WeightGain[] weights = evaluate(dirty, n);
+		for (int i = 0; i < n; i++) {
+			int w = dirty[i];
+			scores[w] = weights[i];
+			up(pos[w]);
+			down(pos[w]);
+		}
+	}
+
+	/**
+	 * Recompute the weights of all the workers not selected yet, in
+	 * increasing order of worker index. This is needed when the weight of a
+	 * worker also depends on a global state that has changed.
+	 */
+	public void updateAll() {
+		for (int i = 0; i < dirtyCount; i++)
+			isDirty[dirty[i]] = false;
+		dirtyCount = 0;
+		int[] workers = new int[size];
+		int n = 0;
+		for (int w = 0; w < pos.length; w++)
+			if (pos[w] != -1)
+				workers[n++] = w;
+		WeightGain[] weights = evaluate(workers, n);
+		for (int i = 0; i < n; i++)
+			scores[workers[i]] = weights[i];
+		heapify();
+	}
+
+	/**
+	 * The worker with the smallest weight, the weight and gain can be read by
+	 * peekWeightGain.
+	 *
+	 * @return the worker, -1 if no weight can be selected
+	 */
+	public int peek() {
+		update();
+		return size > 0 && selectable(heap[0]) ? heap[0] : -1;
+	}
+
+	/**
+	 * The weight and gain of the worker returned by peek.
+	 *
+	 * @return the weight gain
+	 */
+	public WeightGain peekWeightGain() {
+		return scores[heap[0]];
+	}
+
+	/**
+	 * The weight and gain of a worker not selected yet.
+	 *
+	 * @param worker
+	 *            the worker
+	 * @return the weight gain
+	 */
+	public WeightGain weightGain(int worker) {
+		update();
+		return scores[worker];
+	}
+
+	/**
+	 * Select a worker, its tasks become covered and the workers sharing one of
+	 * the newly covered tasks are marked dirty.
+	 *
+	 * @param worker
+	 *            the worker
+	 */
+	public void select(int worker) {
+		int i = pos[worker];
+		if (i != -1) {
+			pos[worker] = -1;
+			size--;
+			if (i < size) {
+				int last = heap[size];
+				place(i, last);
+				up(i);
+				down(pos[last]);
+			}
+		}
+		for (int e = graph.workerStart[worker]; e < graph.workerStart[worker + 1]; e++) {
+			int t = graph.workerTasks[e];
+			if (covered[t])
+				continue;
+			covered[t] = true;
+			for (int j = graph.taskStart[t]; j < graph.taskStart[t + 1]; j++) {
+				int u = graph.taskWorkers[j];
+				if (pos[u] != -1 && !isDirty[u]) {
+					isDirty[u] = true;
+					dirty[dirtyCount++] = u;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of workers not selected yet.
+	 *
+	 * @return the int
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Lazy greedy (CELF) selection of the worker with the max marginal gain.
+ *
+ * The workers are kept in a max-heap of their last evaluated gains. Since the
+ * gain of a worker never increases as tasks get covered (submodularity), a
+ * stale gain is an upper bound, and a worker is only re-evaluated when it
+ * reaches the top of the heap. Ties are broken by the smallest worker index,
+ * so the selections are the same as a full scan over the workers in
+ * increasing order that keeps the first max. The full evaluations (the first
+ * one, or all of them when not lazy) are done by ParallelGains.
+ */
+public class LazyGreedy {
+
+	/**
+	 * The marginal gain of a worker given the workers selected so far.
+	 */
+	public interface Gain {
+		double gain(int worker);
+	}
+
+	/**
+	 * A worker with its last evaluated gain.
+	 */
+	private static class Entry {
+		int worker;
+		double gain;
+		int round;
+
+		Entry(int worker, double gain, int round) {
+			this.worker = worker;
+			this.gain = gain;
+			this.round = round;
+		}
+	}
+
+	/** larger gain first, then smaller worker index. */
+	private static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			int c = Double.compare(e2.gain, e1.gain);
+			return c != 0 ? c : Integer.compare(e1.worker, e2.worker);
+		}
+	};
+
+	/** The heap. */
+	private PriorityQueue<Entry> heap;
+
+	/** The gain function. */
+	private final Gain f;
+
+	/**
+	 * If false, all the workers are re-evaluated in every round (the gain may
+	 * increase, e.g., with a negative weight).
+	 */
+	private final boolean lazy;
+
+	/** number of selected workers, gains evaluated before are stale. */
+	private int round = 0;
+
+	/** The number of gain evaluations. */
+	public long evaluations = 0;
+
+	/**
+	 * Instantiates a new lazy greedy, all workers are evaluated once, in
+	 * parallel with Constants.parallelism threads.
+	 *
+	 * @param workers
+	 *            the candidate workers
+	 * @param f
+	 *            the gain function
+	 * @param lazy
+	 *            whether the gain function is submodular
+	 */
+	public LazyGreedy(Iterable<Integer> workers, Gain f, boolean lazy) {
+		this.f = f;
+		this.lazy = lazy;
+		heap = new PriorityQueue<Entry>(16, ORDER);
+		int[] array = ParallelGains.toArray(workers);
+		double[] gains = evaluate(array, array.length);
+		for (int i = 0; i < array.length; i++)
+			heap.add(new Entry(array[i], gains[i], round));
+	}
+
+	/**
+	 * Instantiates a new lazy greedy from upper bounds of the gains, e.g. the
+	 * gains before any task is covered. No worker is evaluated until it
+	 * reaches the top of the heap.
+	 *
+	 * @param workers
+	 *            the candidate workers
+	 * @param bounds
+	 *            an upper bound of the gain of each worker
+	 * @param f
+	 *            the gain function, submodular
+	 */
+	public LazyGreedy(int[] workers, double[] bounds, Gain f) {
+		this.f = f;
+		this.lazy = true;
+		heap = new PriorityQueue<Entry>(Math.max(1, workers.length), ORDER);
+		for (int i = 0; i < workers.length; i++)
+			heap.add(new Entry(workers[i], bounds[i], -1));
+	}
+
+	/**
+	 * Evaluate the gains of workers[0..n).
+	 *
+	 * @param workers
+	 *            the workers
+	 * @param n
+	 *            the number of workers
+	 * @return the gains
+	 */
+	private double[] evaluate(int[] workers, int n) {
+		evaluations += n;
+		return ParallelGains.gains(workers, n, f);
+	}
+
+	/**
+	 * Evaluate the gain of a worker.
+	 *
+	 * @param worker
+	 *            the worker
+	 * @return the gain
+	 */
+	private double evaluate(int worker) {
+		evaluations++;
+		return f.gain(worker);
+	}
+
+	/**
+	 * The worker with the max gain in the current round, the gain can be read
+	 * by peekGain.
+	 *
+	 * @return the worker, -1 if there is no worker left
+	 */
+	public int peek() {
+		if (!lazy && !heap.isEmpty() && heap.peek().round != round) {
+			ArrayList<Entry> entries = new ArrayList<Entry>(heap);
+			heap.clear();
+			int[] array = new int[entries.size()];
+			for (int i = 0; i < array.length; i++)
+				array[i] = entries.get(i).worker;
+			double[] gains = evaluate(array, array.length);
+			for (int i = 0; i < array.length; i++) {
+				Entry e = entries.get(i);
+				e.gain = gains[i];
+				e.round = round;
+				heap.add(e);
+			}
+		}
+		while (!heap.isEmpty() && heap.peek().round != round) {
+			Entry top = heap.poll();
+			top.gain = evaluate(top.worker);
+			top.round = round;
+			heap.add(top);
+		}
+		return heap.isEmpty() ? -1 : heap.peek().worker;
+	}
+
+	/**
+	 * The gain of the worker returned by peek.
+	 *
+	 * @return the gain
+	 */
+	public double peekGain() {
+		return heap.peek().gain;
+	}
+
+	/**
+	 * Select the worker returned by peek, the gains of the others become
+	 * stale.
+	 *
+	 * @return the worker
+	 */
+	public int select() {
+		round++;
+		return heap.poll().worker;
+	}
+
+	/**
+	 * The gains of all the workers become stale, e.g., when a worker of
+	 * another lazy greedy over the same coverage has been selected.
+	 */
+	public void invalidate() {
+		round++;
+	}
+
+	/**
+	 * Number of workers not selected yet.
+	 *
+	 * @return the int
+	 */
+	public int size() {
+		return heap.size();
+	}
+}
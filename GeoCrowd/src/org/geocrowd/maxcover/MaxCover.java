@@ -14,9 +14,27 @@
  */
 package org.geocrowd.maxcover;
 
+import static org.geocrowd.Geocrowd.taskList;
+import static org.geocrowd.Geocrowd.tasksMap;
+import static org.geocrowd.Geocrowd.workerList;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.geocrowd.Constants;
+import org.geocrowd.Geocrowd;
+import org.geocrowd.GeocrowdTaskUtility;
+import org.geocrowd.OnlineMTC;
+import org.geocrowd.common.crowd.GenericWorker;
+import org.geocrowd.common.crowd.SensingTask;
+import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CandidateGraph;
+import org.geocrowd.dtype.CoverageBitSet;
+import org.geocrowd.dtype.TaskKernel;
+import org.geocrowd.dtype.WorkerDominance;
 
 
 /**
@@ -31,6 +49,30 @@ public abstract class MaxCover {
 	 */
 	public HashMap<Integer, HashMap<Integer, Integer>> mapSets = null;
 
+	/**
+	 * The same worker/task adjacency as mapSets, in compressed sparse rows. The
+	 * tasks of a worker are in the iteration order of its map.
+	 */
+	public CandidateGraph graph = null;
+
+	/**
+	 * The covered tasks and the tasks of each worker in bitsets over the dense
+	 * task indices of the graph, in sync with assignedTaskSet.
+	 */
+	public CoverageBitSet coverage = null;
+
+	/**
+	 * The utility of each edge of the graph, see edgeUtility().
+	 */
+	private volatile double[] edgeUtility = null;
+
+	/**
+	 * The tasks with the same workers merged, and the summed utilities of the
+	 * edges of the reduced graph, computed with edgeUtility().
+	 */
+	private TaskKernel kernel = null;
+	private double[] kernelUtility = null;
+
 	public int budget = 0; // budget
 
 	public double gain = 0.0; // this gain is updated at every stage of greedy
@@ -57,6 +99,22 @@ public abstract class MaxCover {
 	 * The assigned workers
 	 */
 	public HashSet<Integer> assignWorkers = new HashSet<>();
+
+	/**
+	 * The number of workers removed by pruneDominatedWorkers().
+	 */
+	public int prunedWorkers = 0;
+
+	/**
+	 * The assigned workers in the order of selection, with the number of
+	 * assigned tasks and the assigned utility after each selection. They are
+	 * filled in by the greedy algorithms whose selection does not depend on
+	 * the budget, so the solution of any smaller budget is a prefix.
+	 */
+	public ArrayList<Integer> selectionOrder = new ArrayList<>();
+	public ArrayList<Integer> prefixTasks = new ArrayList<>();
+	public ArrayList<Double> prefixUtility = new ArrayList<>();
+
 	/**
 	 * The current time instance.
 	 */
@@ -65,14 +123,16 @@ public abstract class MaxCover {
 	public MaxCover(ArrayList container, Integer currentTI) {
 		mapSets = new HashMap<>();
 		int k = 0;
-		universe = new HashSet<>();
 		currentTimeInstance = currentTI;
 		
 		for(int i =0; i < container.size(); i++){
 			mapSets.put(i, (HashMap<Integer, Integer>) container.get(i));
-			universe.addAll(((HashMap<Integer, Integer>) container.get(i)).keySet());
-			
 		}
+		graph = CandidateGraph.fromContainer(container);
+		coverage = new CoverageBitSet(graph);
+		universe = new HashSet<>(graph.taskCount * 2);
+		for (int taskId : graph.taskIds)
+			universe.add(taskId);
 		/**
 		if (container.size() > 0
 				&& container.get(0).getClass().isInstance(new ArrayList())) {
@@ -100,6 +160,316 @@ public abstract class MaxCover {
 		**/
 	}
 
+	/**
+	 * Instantiates the instance of a candidate graph, e.g.
+	 * Geocrowd.candidateGraph, which is shared instead of built again. The
+	 * task maps of mapSets iterate in the order of the graph.
+	 *
+	 * @param graph
+	 *            the graph
+	 * @param currentTI
+	 *            the current time instance
+	 */
+	public MaxCover(CandidateGraph graph, Integer currentTI) {
+		currentTimeInstance = currentTI;
+		setGraph(graph);
+	}
+
+	/**
+	 * Set the graph of the instance, for the solvers that only get it once
+	 * the workers are matched. No task is covered.
+	 *
+	 * @param graph
+	 *            the graph
+	 */
+	protected void setGraph(CandidateGraph graph) {
+		this.graph = graph;
+		edgeUtility = null;
+		ArrayList<HashMap<Integer, Integer>> container = graph.toContainer();
+		mapSets = new HashMap<>(graph.workerCount * 2);
+		for (int i = 0; i < container.size(); i++)
+			mapSets.put(i, container.get(i));
+		coverage = new CoverageBitSet(graph);
+		universe = new HashSet<>(graph.taskCount * 2);
+		for (int taskId : graph.taskIds)
+			universe.add(taskId);
+	}
+
+	/**
+	 * Sum of the utilities of the tasks of a worker that are not covered yet.
+	 * The tasks with the same workers are covered together, so they are
+	 * summed once per super-task of the kernel.
+	 *
+	 * @param worker
+	 *            the worker index in mapSets
+	 * @return the uncovered utility
+	 */
+	protected double uncoveredUtility(int worker) {
+		edgeUtility();
+		CandidateGraph reduced = kernel.reduced;
+		double uncoveredUtility = 0.0;
+		for (int e = reduced.workerStart[worker]; e < reduced.workerStart[worker + 1]; e++) {
+			if (!coverage.isCovered(kernel.representative(reduced.workerTasks[e])))
+				uncoveredUtility += kernelUtility[e];
+		}
+		return uncoveredUtility;
+	}
+
+	/**
+	 * Utility of the uncovered tasks of a worker, lowered by the number of
+	 * times the worker has been selected when using worker overloading.
+	 *
+	 * @param k
+	 *            the worker index
+	 * @return the gain
+	 */
+	double workerGain(int k) {
+		double uncoveredUtility = uncoveredUtility(k);
+
+		//using worker overloading
+		if(Constants.workerOverload) {
+			GenericWorker w = workerList.get(k);
+			int count = 0;
+			if(OnlineMTC.workerCounts.containsKey(w.getId())) count = OnlineMTC.workerCounts.get(w.getId());
+			
+			uncoveredUtility = uncoveredUtility *(1-Constants.theta)/taskList.size() - count*Constants.theta/GeocrowdConstants.TIME_INSTANCE;
+		}
+		return uncoveredUtility;
+	}
+
+	/**
+	 * The task of a task id in the containers.
+	 *
+	 * @param taskId
+	 *            the task id
+	 * @return the task
+	 */
+	protected SensingTask task(int taskId) {
+		return (SensingTask) tasksMap.get(taskId);
+	}
+
+	/**
+	 * The utility of each (worker, task) pair of the graph, aligned with
+	 * graph.workerTasks. It is computed in parallel on first use, so once per
+	 * time instance, and can be read by the threads evaluating the gains.
+	 *
+	 * @return the utilities
+	 */
+	public double[] edgeUtility() {
+		double[] utilities = edgeUtility;
+		if (utilities == null)
+			utilities = computeEdgeUtility();
+		return utilities;
+	}
+
+	/**
+	 * Compute the edge utilities, if no other thread did.
+	 *
+	 * @return the utilities
+	 */
+	private synchronized double[] computeEdgeUtility() {
+		if (edgeUtility == null) {
+			GenericWorker[] workers = new GenericWorker[graph.workerCount];
+			for (int w = 0; w < graph.workerCount; w++)
+				if (graph.workerDegree(w) > 0)
+					workers[w] = workerList.get(w);
+			SensingTask[] tasks = new SensingTask[graph.taskCount];
+			for (int t = 0; t < graph.taskCount; t++)
+				tasks[t] = task(graph.taskIds[t]);
+			setEdgeUtility(GeocrowdTaskUtility.utilities(Geocrowd.DATA_SET,
+					graph, workers, tasks));
+		}
+		return edgeUtility;
+	}
+
+	/**
+	 * Set the edge utilities, when they are already known, e.g. computed as
+	 * the workers checked in.
+	 *
+	 * @param utilities
+	 *            the utility of each edge, aligned with graph.workerTasks
+	 */
+	protected synchronized void setEdgeUtility(double[] utilities) {
+		kernel = new TaskKernel(graph);
+		kernelUtility = kernel.reduce(utilities);
+		edgeUtility = utilities;
+	}
+
+	/**
+	 * The first edge of a worker in edgeUtility(), if the task map is the one
+	 * of the worker in mapSets, the tasks are then in the same order.
+	 *
+	 * @param worker
+	 *            the worker index in mapSets
+	 * @param tasks
+	 *            the task map
+	 * @return the first edge, -1 if the utilities must be computed
+	 */
+	protected int firstEdge(int worker, HashMap<Integer, Integer> tasks) {
+		if (graph == null || worker >= graph.workerCount
+				|| tasks != mapSets.get(worker))
+			return -1;
+		return graph.workerStart[worker];
+	}
+
+	/**
+	 * Restrict the instance to some workers of another instance over the same
+	 * container. The graph, universe and edge utilities of the other instance
+	 * are shared, and no task is covered.
+	 *
+	 * @param other
+	 *            the other instance
+	 * @param workers
+	 *            the workers, in increasing order
+	 */
+	void share(MaxCover other, Iterable<Integer> workers) {
+		currentTimeInstance = other.currentTimeInstance;
+		graph = other.graph;
+		coverage = other.coverage.empty();
+		universe = other.universe;
+		double[] utilities = other.edgeUtility;
+		if (utilities != null) {
+			kernel = other.kernel;
+			kernelUtility = other.kernelUtility;
+		}
+		edgeUtility = utilities;
+		mapSets = new LinkedHashMap<>();
+		for (int w : workers)
+			mapSets.put(w, other.mapSets.get(w));
+	}
+
+	/**
+	 * Cover the tasks of a selected worker, the newly covered tasks are added
+	 * to assignedTaskSet and their delays to averageDelayTime.
+	 *
+	 * @param worker
+	 *            the worker index in mapSets
+	 */
+	protected void coverTasks(int worker) {
+		for (int e = graph.workerStart[worker]; e < graph.workerStart[worker + 1]; e++) {
+			int t = graph.workerTasks[e];
+			if (coverage.coverTask(t)) {
+				averageDelayTime += currentTimeInstance
+						- (graph.taskDeadline[t] - GeocrowdConstants.MAX_TASK_DURATION)
+						+ 1;
+				assignedTaskSet.add(graph.taskIds[t]);
+			}
+		}
+	}
+
+	/**
+	 * Remove from mapSets the workers whose tasks are a subset of the tasks of
+	 * another worker, at an equal or lower utility for each task, see
+	 * WorkerDominance. The gain of such a worker is never larger than the gain
+	 * of the other one, and is zero once the other one is selected.
+	 *
+	 * @param exact
+	 *            whether a worker is only removed for a worker of the same
+	 *            time instance, and of the same count with worker overloading,
+	 *            so that the other one can always take its place
+	 * @return the number of removed workers
+	 */
+	public int pruneDominatedWorkers(boolean exact) {
+		int n = graph.workerCount;
+		boolean[] active = new boolean[n];
+		for (int w : mapSets.keySet())
+			if (w < n)
+				active[w] = true;
+
+		int[] workerClass = null;
+		if (exact) {
+			workerClass = new int[n];
+			HashMap<Long, Integer> classes = new HashMap<>();
+			for (int w = 0; w < n; w++) {
+				if (!active[w])
+					continue;
+				GenericWorker worker = workerList.get(w);
+				int count = 0;
+				if (Constants.workerOverload
+						&& OnlineMTC.workerCounts.containsKey(worker.getId()))
+					count = OnlineMTC.workerCounts.get(worker.getId());
+				long key = ((long) worker.getOnlineTime() << 32) | count;
+				Integer c = classes.get(key);
+				if (c == null) {
+					c = classes.size();
+					classes.put(key, c);
+				}
+				workerClass[w] = c;
+			}
+		}
+
+		boolean[] dominated = WorkerDominance.dominated(graph, edgeUtility(),
+				workerClass, active);
+		int removed = 0;
+		for (int w = 0; w < n; w++)
+			if (active[w] && dominated[w]) {
+				mapSets.remove(w);
+				removed++;
+			}
+		prunedWorkers += removed;
+		return removed;
+	}
+
+	/**
+	 * Record a selected worker, after its tasks are covered and its gain is
+	 * added to assignedUtility.
+	 *
+	 * @param worker
+	 *            the worker index in mapSets
+	 */
+	protected void recordSelection(int worker) {
+		selectionOrder.add(worker);
+		prefixTasks.add(assignedTaskSet.size());
+		prefixUtility.add(assignedUtility);
+	}
+
+	/**
+	 * The number of workers assigned with a smaller budget, the greedy may
+	 * have stopped before running out of budget.
+	 *
+	 * @param budget
+	 *            the budget, at most the one of the solve
+	 * @return the number of workers
+	 */
+	public int prefixLength(int budget) {
+		return Math.max(0, Math.min(budget, selectionOrder.size()));
+	}
+
+	/**
+	 * The workers assigned with a smaller budget.
+	 *
+	 * @param budget
+	 *            the budget, at most the one of the solve
+	 * @return the workers, in the order of selection
+	 */
+	public List<Integer> prefixWorkers(int budget) {
+		return selectionOrder.subList(0, prefixLength(budget));
+	}
+
+	/**
+	 * The number of tasks assigned with a smaller budget.
+	 *
+	 * @param budget
+	 *            the budget, at most the one of the solve
+	 * @return the number of tasks
+	 */
+	public int prefixAssignedTasks(int budget) {
+		int n = prefixLength(budget);
+		return n == 0 ? 0 : prefixTasks.get(n - 1);
+	}
+
+	/**
+	 * The utility assigned with a smaller budget.
+	 *
+	 * @param budget
+	 *            the budget, at most the one of the solve
+	 * @return the utility
+	 */
+	public double prefixAssignedUtility(int budget) {
+		int n = prefixLength(budget);
+		return n == 0 ? 0.0 : prefixUtility.get(n - 1);
+	}
+
 	/**
 	 * Max set cover.
 	 *
@@ -1,23 +1,16 @@
 package org.geocrowd.maxcover;
 
 import static org.geocrowd.Geocrowd.candidateTaskIndices;
-import static org.geocrowd.Geocrowd.taskList;
-import static org.geocrowd.Geocrowd.tasksMap;
-import static org.geocrowd.Geocrowd.workerList;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Random;
 
-import org.geocrowd.Constants;
 import org.geocrowd.Geocrowd;
-import org.geocrowd.GeocrowdTaskUtility;
-import org.geocrowd.OnlineMTC;
-import org.geocrowd.common.crowd.GenericWorker;
-import org.geocrowd.common.crowd.SensingTask;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CandidateGraph;
 
 /**
  * Change the stopping condition of max cover problem.
@@ -40,6 +33,10 @@ public class MaxCoverAdaptB extends MaxCover {
 		// TODO Auto-generated constructor stub
 	}
 
+	public MaxCoverAdaptB(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
 	/**
 	 * Greedy algorithm.
 	 *
@@ -67,34 +64,18 @@ public class MaxCoverAdaptB extends MaxCover {
 			 * Iterate all workers, find the one which covers maximum number of
 			 * uncovered tasks
 			 */
-			for (int k : S.keySet()) {
-				GenericWorker w = workerList.get(k);
-				HashMap<Integer, Integer> s = S.get(k); // task set covered by
-				// current worker
-				double uncoveredUtility = 0.0;
-				for (Integer i : s.keySet()) {
-					if (!assignedTaskSet.contains(i)) {
-//						SensingTask t = (SensingTask) taskList
-//								.get(candidateTaskIndices.get(i));
-						SensingTask t = (SensingTask) tasksMap.get(i);
-						double utility = GeocrowdTaskUtility.utility(Geocrowd.DATA_SET, w, t);
-//						System.out.println(utility);
-						uncoveredUtility += utility;
-					}
-				}
-				
-				//using worker overloading
-				
-				if(Constants.workerOverload) {
-					int count = 0;
-					if(OnlineMTC.workerCounts.containsKey(w.getId())) count = OnlineMTC.workerCounts.get(w.getId());
-					
-					uncoveredUtility = uncoveredUtility *(1-Constants.theta)/taskList.size() - count*Constants.theta/GeocrowdConstants.TIME_INSTANCE;
-				}
-				if (uncoveredUtility > maxUncoveredUtility) {
-					maxUncoveredUtility = uncoveredUtility;
-					bestWorkerIndex = k;
-				}
+			int[] workers = ParallelGains.toArray(S.keySet());
+			double[] gains = new double[workers.length];
+			int best = ParallelGains.argmax(workers, workers.length,
+					new LazyGreedy.Gain() {
+						@Override
+						public double gain(int k) {
+							return workerGain(k);
+						}
+					}, maxUncoveredUtility, gains);
+			if (best > -1) {
+				maxUncoveredUtility = gains[best];
+				bestWorkerIndex = workers[best];
 			}
 			if(bestWorkerIndex > -1){
 
@@ -133,15 +114,7 @@ public class MaxCoverAdaptB extends MaxCover {
 			/**
 			 * compute average time to assign tasks in taskSet
 			 */
-			for (Integer taskidx : taskSet.keySet()) {
-				if (!assignedTaskSet.contains(taskidx)) {
-
-					averageDelayTime += currentTimeInstance
-							- (taskSet.get(taskidx) - GeocrowdConstants.MAX_TASK_DURATION)
-							+ 1;
-					assignedTaskSet.add(taskidx);
-				}
-			}
+			coverTasks(bestWorkerIndex);
 			//}
 		}
 			else break;
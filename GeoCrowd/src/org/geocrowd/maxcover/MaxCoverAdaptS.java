@@ -43,6 +43,8 @@ public class MaxCoverAdaptS extends MaxCoverSpatial {
 		HashSet<Integer> Q = (HashSet<Integer>) universe.clone();
 //		assignedTaskSet = new HashSet<Integer>();
 
+		IncrementalGreedy greedy = incrementalGreedy(false);
+
 		/**
 		 * Run until either the gain of adding one worker is less than a
 		 * threshold or no more tasks to cover
@@ -53,18 +55,16 @@ public class MaxCoverAdaptS extends MaxCoverSpatial {
 			double maxUncoveredUtility = 0.0;
 			
 			/**
-			 * Iterate all workers, find the one which covers maximum number of
-			 * uncovered tasks
+			 * The worker with the smallest weight, only the weights of the
+			 * workers sharing a task with the last selected worker are
+			 * recomputed
 			 */
-			for (int k : S.keySet()) {
-				HashMap<Integer, Integer> s = S.get(k);
-				WeightGain wg = weight(k, s, currentTimeInstance,
-						assignedTaskSet);
-				if (wg.weight < smallestAvgWeight) {
-					smallestAvgWeight = wg.weight;
-					bestWorkerIndex = k;
-					maxUncoveredUtility = wg.gain;
-				}
+			int k = greedy.peek();
+			if (k > -1) {
+				WeightGain wg = greedy.peekWeightGain();
+				smallestAvgWeight = wg.weight;
+				bestWorkerIndex = k;
+				maxUncoveredUtility = wg.gain;
 			}
 
 			// Check gain threshold
@@ -92,6 +92,7 @@ public class MaxCoverAdaptS extends MaxCoverSpatial {
 			deltaBudget -= 1;
 			gain = maxNoUncoveredTasks;
 			
+			greedy.select(bestWorkerIndex);
 			assignWorkers.add(bestWorkerIndex);
 			assignedUtility += maxUncoveredUtility;
 			HashMap<Integer, Integer> taskSet = S.get(bestWorkerIndex);
@@ -101,14 +102,9 @@ public class MaxCoverAdaptS extends MaxCoverSpatial {
 			/**
 			 * compute average time to assign tasks in taskSet
 			 */
-			for (Integer taskidx : taskSet.keySet())
-				if (!assignedTaskSet.contains(taskidx)) {
-
-					averageDelayTime += currentTimeInstance
-							- (taskSet.get(taskidx) - GeocrowdConstants.MAX_TASK_DURATION)
-							+ 1;
-					assignedTaskSet.add(taskidx);
-				}
+			coverTasks(bestWorkerIndex);
+			if (!isLocalWeight())
+				greedy.updateAll();
 		}
 		assignedTasks = assignedTaskSet.size();
 //		System.out.println("#Task assigned: " + assignedTasks);
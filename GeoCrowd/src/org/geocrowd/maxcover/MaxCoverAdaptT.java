@@ -7,6 +7,7 @@ import java.util.Random;
 
 import org.geocrowd.Constants;
 import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CandidateGraph;
 
 /**
  * Change the stopping condition of max cover problem.
@@ -29,6 +30,10 @@ public class MaxCoverAdaptT extends MaxCoverTemporal {
 		// TODO Auto-generated constructor stub
 	}
 
+	public MaxCoverAdaptT(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
 	/**
 	 * Greedy algorithm.
 	 * 
@@ -46,6 +51,8 @@ public class MaxCoverAdaptT extends MaxCoverTemporal {
 		HashSet<Integer> Q = (HashSet<Integer>) universe.clone();
 //		assignedTaskSet = new HashSet<Integer>();
 
+		IncrementalGreedy greedy = incrementalGreedy(Constants.workerOverload);
+
 		/**
 		 * Run until either the gain of adding one worker is less than a
 		 * threshold or no more tasks to cover
@@ -56,19 +63,16 @@ public class MaxCoverAdaptT extends MaxCoverTemporal {
 			double maxUncoveredUtility = 0.0;
 			
 			/**
-			 * Iterate all workers, find the one which covers maximum number of
-			 * uncovered tasks
+			 * The worker with the smallest weight, only the weights of the
+			 * workers sharing a task with the last selected worker are
+			 * recomputed
 			 */
-			for (int k : S.keySet()) {
-				HashMap<Integer, Integer> s = S.get(k);
-				WeightGain wg = weight(k, s, currentTimeInstance,
-						assignedTaskSet);
-				if(Constants.workerOverload) wg= weight2(k, s, currentTimeInstance, assignedTaskSet);
-				if (wg.weight < smallestAvgWeight) {
-					smallestAvgWeight = wg.weight;
-					bestWorkerIndex = k;
-					maxUncoveredUtility = wg.gain;
-				}
+			int k = greedy.peek();
+			if (k > -1) {
+				WeightGain wg = greedy.peekWeightGain();
+				smallestAvgWeight = wg.weight;
+				bestWorkerIndex = k;
+				maxUncoveredUtility = wg.gain;
 			}
 
 //			System.out.println(S.get(bestWorkerIndex));
@@ -106,6 +110,7 @@ public class MaxCoverAdaptT extends MaxCoverTemporal {
 			//gain = maxNoUncoveredTasks;
 			gain = (int)smallestAvgWeight;
 			
+			greedy.select(bestWorkerIndex);
 			assignWorkers.add(bestWorkerIndex);
 			assignedUtility += maxUncoveredUtility;
 			
@@ -116,14 +121,9 @@ public class MaxCoverAdaptT extends MaxCoverTemporal {
 			/**
 			 * compute average time to assign tasks in taskSet
 			 */
-			for (Integer taskidx : taskSet.keySet())
-				if (!assignedTaskSet.contains(taskidx)) {
-
-					averageDelayTime += currentTimeInstance
-							- (taskSet.get(taskidx) - GeocrowdConstants.MAX_TASK_DURATION)
-							+ 1;
-					assignedTaskSet.add(taskidx);
-				}
+			coverTasks(bestWorkerIndex);
+			if (!isLocalWeight())
+				greedy.updateAll();
 		}
 		assignedTasks = assignedTaskSet.size();
 		//System.out.println("#Task assigned: " + assignedTasks);
@@ -42,6 +42,7 @@ import org.geocrowd.common.crowd.SensingTask;
 import org.geocrowd.common.crowd.SensingWorker;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CandidateGraph;
 
 import net.sf.javailp.Constraint;
 
@@ -61,6 +62,10 @@ public class MaxCoverBasic extends MaxCover {
 		super(container, currentTI);
 	}
 
+	public MaxCoverBasic(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
 	public void printGain(double gain) throws UnsupportedEncodingException, FileNotFoundException, IOException{
 
 
@@ -127,49 +132,27 @@ public class MaxCoverBasic extends MaxCover {
 		/**
 		 * Run until either running out of budget or no more tasks to cover
 		 */
+		/**
+		 * Workers are re-evaluated lazily, the gain of a worker only decreases
+		 * as more tasks are covered
+		 */
+		LazyGreedy greedy = new LazyGreedy(S.keySet(), new LazyGreedy.Gain() {
+			@Override
+			public double gain(int k) {
+				return workerGain(k);
+			}
+		}, !Constants.workerOverload || Constants.theta <= 1);
 		while (assignWorkers.size() < budget && !Q.isEmpty()) {
-			int bestWorkerIndex = -1; // track index of the best worker in S
-			double maxUncoveredUtility = 0.0;
 			/**
-			 * Iterate all workers, find the one which covers maximum number of
-			 * uncovered tasks
+			 * find the worker which covers maximum utility of uncovered tasks
 			 */
-			for (int k : S.keySet()) {
-				GenericWorker w = workerList.get(k);
-				
-				HashMap<Integer, Integer> s = S.get(k); // task set covered by
-														// current worker
-				double uncoveredUtility = 0.0;
-				for (Integer i : s.keySet()) {
-					if (!assignedTaskSet.contains(i)) {
-//						SensingTask t = (SensingTask) taskList
-//								.get(candidateTaskIndices.get(i)); //luan test here
-						SensingTask t = (SensingTask) tasksMap.get(i);
-						double utility = GeocrowdTaskUtility.utility(Geocrowd.DATA_SET, w, t);
-						
-						//	System.out.println(utility);
-						uncoveredUtility += utility;
-//						uncoveredUtility++;
-					}
-				}
-				
-				
-				//using worker overloading
-				
-				if(Constants.workerOverload) {
-					int count = 0;
-					if(OnlineMTC.workerCounts.containsKey(w.getId())) count = OnlineMTC.workerCounts.get(w.getId());
-					
-					uncoveredUtility = uncoveredUtility *(1-Constants.theta)/taskList.size() - count*Constants.theta/GeocrowdConstants.TIME_INSTANCE;
-				}
-				
-				
-				if (uncoveredUtility > maxUncoveredUtility) {
-					maxUncoveredUtility = uncoveredUtility;
-					bestWorkerIndex = k;
-					
-				}
-			}
+			int bestWorkerIndex = greedy.peek(); // track index of the best worker in S
+			double maxUncoveredUtility = 0.0;
+			if (bestWorkerIndex > -1 && greedy.peekGain() > 0) {
+				maxUncoveredUtility = greedy.peekGain();
+				greedy.select();
+			} else
+				bestWorkerIndex = -1;
 
 			// System.out.print(S.get(bestWorkerIndex));
 			// System.out.println(maxNoUncoveredTasks);
@@ -212,14 +195,8 @@ public class MaxCoverBasic extends MaxCover {
 				/**
 				 * compute average time to assign tasks in taskSet
 				 */
-				for (Integer taskidx : taskSet.keySet())
-					if (!assignedTaskSet.contains(taskidx)) {
-
-						averageDelayTime += currentTimeInstance
-								- (taskSet.get(taskidx) - GeocrowdConstants.MAX_TASK_DURATION)
-								+ 1;
-						assignedTaskSet.add(taskidx);
-					}
+				coverTasks(bestWorkerIndex);
+				recordSelection(bestWorkerIndex);
 			}
 			else break;
 		}
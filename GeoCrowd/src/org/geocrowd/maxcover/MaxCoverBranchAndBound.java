@@ -0,0 +1,435 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+import org.geocrowd.Constants;
+import org.geocrowd.dtype.Components;
+
+/**
+ * Branch and bound over the worker variables of a MaxCoverModel, the LP
+ * relaxations are solved in Java by a BoundedSimplex.
+ *
+ * A node fixes some workers to 0 or 1 through their bounds. All the nodes
+ * share one LP of the whole model, over the sparse columns of the workers and
+ * tasks: a node only sets the bounds that differ from the last solved node
+ * and starts from the optimal basis of its parent, which stays dual feasible,
+ * so its relaxation is usually a few dual simplex pivots away. The nodes are
+ * explored depth first, branching on the most fractional worker, and a
+ * solution is rounded from the relaxation of every node. The number of
+ * covered tasks is integer, so a node is pruned if the floor of its bound
+ * does not beat the best solution.
+ */
+public class MaxCoverBranchAndBound {
+
+	private static final double EPSILON = 1e-6;
+
+	/** The max number of iterations of the simplex of a relaxation. */
+	private static final int MAX_ITERATIONS = 1000000;
+
+	/** The model. */
+	private final MaxCoverModel model;
+
+	/** The budget groups of each worker. */
+	private final int[][] workerGroups;
+
+	/** The relaxation of all the nodes, built by the first solve. */
+	private BoundedSimplex lp;
+
+	/** The bounds of the worker variables in lp. */
+	private double[] lpLower;
+	private double[] lpUpper;
+
+	/** The time limit, in milliseconds. */
+	public long timeLimit = Constants.ilpTimeLimit;
+
+	/** The best selection found. */
+	public boolean[] selected;
+
+	/** The number of tasks covered by the best selection. */
+	public int objective = 0;
+
+	/** The bound of the root relaxation. */
+	public double rootBound = 0;
+
+	/** The number of solved nodes. */
+	public int nodes = 0;
+
+	/** Whether the best selection is proved optimal. */
+	public boolean optimal = false;
+
+	/**
+	 * A node, the bounds of the worker variables and the basis its relaxation
+	 * starts from.
+	 */
+	private static class Node {
+		final double[] lower;
+		final double[] upper;
+		final int[] basis;
+
+		Node(double[] lower, double[] upper, int[] basis) {
+			this.lower = lower;
+			this.upper = upper;
+			this.basis = basis;
+		}
+	}
+
+	public MaxCoverBranchAndBound(MaxCoverModel model) {
+		this.model = model;
+		this.workerGroups = model.workerGroups();
+	}
+
+	/**
+	 * Solve the model, or return the best solution found within the time
+	 * limit.
+	 *
+	 * @return the number of covered tasks
+	 */
+	public int solve() {
+		long deadline = System.currentTimeMillis() + timeLimit;
+		selected = new boolean[model.workerCount];
+		objective = 0;
+		nodes = 0;
+		optimal = true;
+
+		if (lp == null)
+			buildRelaxation();
+		for (int g = 0; g < model.groupWorkers.size(); g++)
+			lp.setRhs(model.taskCount + g, model.groupBudget.get(g));
+
+		Node root = new Node(model.lower.clone(), model.upper.clone(), null);
+		round(root, null);
+
+		ArrayDeque<Node> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			if (System.currentTimeMillis() > deadline) {
+				optimal = false;
+				break;
+			}
+			Node node = stack.pop();
+			double[] x = new double[model.workerCount];
+			double bound;
+			try {
+				bound = relax(node, x);
+			} catch (IllegalStateException e) {
+				optimal = false;
+				continue;
+			}
+			if (bound < 0)
+				continue;
+			if (nodes++ == 0)
+				rootBound = bound;
+			if (Math.floor(bound + EPSILON) <= objective)
+				continue;
+
+			round(node, x);
+
+			/**
+			 * branch on the most fractional worker, 1 first
+			 */
+			int branch = -1;
+			double distance = 0.5;
+			for (int w = 0; w < model.workerCount; w++) {
+				double d = Math.abs(x[w] - 0.5);
+				if (node.lower[w] < node.upper[w] && x[w] > EPSILON
+						&& x[w] < 1 - EPSILON && d < distance) {
+					distance = d;
+					branch = w;
+				}
+			}
+			if (branch == -1)
+				continue;
+
+			int[] basis = lp.getBasis();
+			double[] upper = node.upper.clone();
+			upper[branch] = 0;
+			stack.push(new Node(node.lower, upper, basis));
+			double[] lower = node.lower.clone();
+			lower[branch] = 1;
+			stack.push(new Node(lower, node.upper, basis));
+		}
+		return objective;
+	}
+
+	/**
+	 * Solve the model per connected component of the workers and tasks, see
+	 * Components, when it has a single budget and no worker fixed to 1,
+	 * otherwise as solve().
+	 *
+	 * Each component is solved in parallel for the budgets 1, 2, ... until all
+	 * its tasks are covered, which gives its optimal number of covered tasks
+	 * per budget; the budget is then split by dynamic programming over these
+	 * curves. The components share the time limit, a component that runs out
+	 * of time keeps the best solutions found so far.
+	 *
+	 * @return the number of covered tasks
+	 */
+	public int solveComponents() {
+		boolean[] active = new boolean[model.workerCount];
+		for (int w = 0; w < model.workerCount; w++) {
+			if (model.lower[w] > 0)
+				return solve();
+			active[w] = model.upper[w] > 0;
+		}
+		if (model.groupWorkers.size() != 1)
+			return solve();
+
+		final long deadline = System.currentTimeMillis() + timeLimit;
+		final int budget = model.groupBudget.get(0);
+		final Components components = new Components(model.workerCount,
+				model.taskCount, model.workerStart, model.workerTasks, active);
+		final double[][] curves = new double[components.count][];
+		final double[][] bounds = new double[components.count][];
+		final boolean[][][] selections = new boolean[components.count][][];
+		final int[] componentNodes = new int[components.count];
+		final boolean[] componentOptimal = new boolean[components.count];
+		ArrayList<Runnable> jobs = new ArrayList<>();
+		for (int i = 0; i < components.count; i++) {
+			final int c = i;
+			jobs.add(new Runnable() {
+				@Override
+				public void run() {
+					MaxCoverModel component = new MaxCoverModel(model,
+							components.workers(c), 0);
+					int total = 0;
+					for (int t = 0; t < component.taskCount; t++)
+						total += component.taskWeight[t];
+					int max = Math.min(budget, component.workerCount);
+					double[] curve = new double[max + 1];
+					double[] bound = new double[max + 2];
+					boolean[][] selection = new boolean[max + 1][];
+					selection[0] = new boolean[component.workerCount];
+					componentOptimal[c] = true;
+					MaxCoverBranchAndBound solver = new MaxCoverBranchAndBound(
+							component);
+					int k = 0;
+					while (k < max && curve[k] < total) {
+						long remaining = deadline - System.currentTimeMillis();
+						if (remaining <= 0) {
+							componentOptimal[c] = false;
+							break;
+						}
+						k++;
+						component.groupBudget.set(0, k);
+						solver.timeLimit = remaining;
+						curve[k] = solver.solve();
+						selection[k] = solver.selected;
+						componentNodes[c] += solver.nodes;
+						bound[k] = total;
+						if (solver.optimal)
+							bound[k] = curve[k];
+						else {
+							componentOptimal[c] = false;
+							if (solver.nodes > 0)
+								bound[k] = Math.min(total,
+										Math.floor(solver.rootBound + EPSILON));
+						}
+						/**
+						 * a timed out solve may not beat the smaller budget
+						 */
+						if (curve[k] < curve[k - 1]) {
+							curve[k] = curve[k - 1];
+							selection[k] = selection[k - 1];
+						}
+					}
+					curves[c] = Arrays.copyOf(curve, k + 1);
+					selections[c] = selection;
+					/**
+					 * the budgets that are not solved are bounded by all the
+					 * tasks
+					 */
+					if (curve[k] < total && k < max) {
+						bound[k + 1] = total;
+						bounds[c] = Arrays.copyOf(bound, k + 2);
+					} else
+						bounds[c] = Arrays.copyOf(bound, k + 1);
+				}
+			});
+		}
+		ParallelGains.runAll(jobs);
+
+		int[] allocation = BudgetAllocation.dynamicProgramming(curves, budget);
+		selected = new boolean[model.workerCount];
+		objective = 0;
+		nodes = 0;
+		optimal = true;
+		for (int c = 0; c < components.count; c++) {
+			int k = Math.min(allocation[c], curves[c].length - 1);
+			objective += (int) curves[c][k];
+			boolean[] selection = selections[c][k];
+			for (int i = 0; i < selection.length; i++)
+				if (selection[i])
+					selected[components.workers[components.workerOffset[c] + i]] = true;
+			nodes += componentNodes[c];
+			optimal &= componentOptimal[c];
+		}
+		rootBound = BudgetAllocation.value(bounds,
+				BudgetAllocation.dynamicProgramming(bounds, budget));
+		return objective;
+	}
+
+	/**
+	 * Build the LP of the whole model: the worker variables, then the task
+	 * variables, in [0, 1]; the rows y_t - sum x_i <= 0 for the tasks, then
+	 * the budgets.
+	 */
+	private void buildRelaxation() {
+		int n = model.workerCount;
+		int groups = model.groupWorkers.size();
+		int[] start = new int[n + model.taskCount + 1];
+		int entries = model.workerTasks.length + model.taskCount;
+		for (int[] workers : model.groupWorkers)
+			entries += workers.length;
+		int[] rows = new int[entries];
+		double[] values = new double[entries];
+		int e = 0;
+		for (int w = 0; w < n; w++) {
+			for (int i = model.workerStart[w]; i < model.workerStart[w + 1]; i++) {
+				rows[e] = model.workerTasks[i];
+				values[e++] = -1;
+			}
+			for (int g : workerGroups[w]) {
+				rows[e] = model.taskCount + g;
+				values[e++] = 1;
+			}
+			start[w + 1] = e;
+		}
+		for (int t = 0; t < model.taskCount; t++) {
+			rows[e] = t;
+			values[e++] = 1;
+			start[n + t + 1] = e;
+		}
+		lp = new BoundedSimplex(model.taskCount + groups,
+				n + model.taskCount, start, rows, values);
+		for (int t = 0; t < model.taskCount; t++)
+			lp.setObjective(n + t, model.taskWeight[t]);
+		lpLower = new double[n];
+		lpUpper = new double[n];
+		Arrays.fill(lpUpper, 1.0);
+	}
+
+	/**
+	 * Solve the relaxation of a node, from the basis of its parent.
+	 *
+	 * @param node
+	 *            the node
+	 * @param x
+	 *            the values of the worker variables, filled in
+	 * @return the bound, -1 if the workers fixed to 1 are over a budget
+	 */
+	private double relax(Node node, double[] x) {
+		int n = model.workerCount;
+		for (int w = 0; w < n; w++)
+			if (lpLower[w] != node.lower[w] || lpUpper[w] != node.upper[w]) {
+				lp.setBounds(w, node.lower[w], node.upper[w]);
+				lpLower[w] = node.lower[w];
+				lpUpper[w] = node.upper[w];
+			}
+		if (node.basis != null)
+			lp.setBasis(node.basis);
+
+		double bound = lp.solve(MAX_ITERATIONS);
+		if (bound == Double.NEGATIVE_INFINITY)
+			return -1;
+		for (int w = 0; w < n; w++)
+			x[w] = lp.value(w);
+		return bound;
+	}
+
+	/**
+	 * Round a relaxation to a feasible selection, and keep it if it is the
+	 * best. The workers fixed to 1 are selected, then the other workers by
+	 * decreasing value in the relaxation, then the greedy fills the budgets.
+	 *
+	 * @param node
+	 *            the node
+	 * @param x
+	 *            the values of the worker variables, null for the greedy only
+	 */
+	private void round(final Node node, final double[] x) {
+		final boolean[] s = new boolean[model.workerCount];
+		final int[] used = new int[model.groupWorkers.size()];
+		final boolean[] covered = new boolean[model.taskCount];
+
+		ArrayList<Integer> order = new ArrayList<>();
+		for (int w = 0; w < model.workerCount; w++)
+			if (node.lower[w] >= 1)
+				add(w, s, used, covered);
+			else if (x != null && node.upper[w] > 0 && x[w] > EPSILON)
+				order.add(w);
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer w1, Integer w2) {
+				return Double.compare(x[w2], x[w1]);
+			}
+		});
+		for (int w : order)
+			if (fits(w, used))
+				add(w, s, used, covered);
+
+		ArrayList<Integer> rest = new ArrayList<>();
+		for (int w = 0; w < model.workerCount; w++)
+			if (!s[w] && node.upper[w] > 0)
+				rest.add(w);
+		LazyGreedy greedy = new LazyGreedy(rest, new LazyGreedy.Gain() {
+			@Override
+			public double gain(int w) {
+				if (!fits(w, used))
+					return 0;
+				int gain = 0;
+				for (int e = model.workerStart[w]; e < model.workerStart[w + 1]; e++)
+					if (!covered[model.workerTasks[e]])
+						gain += model.taskWeight[model.workerTasks[e]];
+				return gain;
+			}
+		}, true);
+		while (greedy.peek() > -1 && greedy.peekGain() > 0)
+			add(greedy.select(), s, used, covered);
+
+		int count = 0;
+		for (int t = 0; t < model.taskCount; t++)
+			if (covered[t])
+				count += model.taskWeight[t];
+		if (count > objective) {
+			objective = count;
+			selected = Arrays.copyOf(s, s.length);
+		}
+	}
+
+	/**
+	 * Whether a worker can be added within the budgets.
+	 */
+	private boolean fits(int w, int[] used) {
+		for (int g : workerGroups[w])
+			if (used[g] >= model.groupBudget.get(g))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Select a worker.
+	 */
+	private void add(int w, boolean[] s, int[] used, boolean[] covered) {
+		s[w] = true;
+		for (int g : workerGroups[w])
+			used[g]++;
+		for (int e = model.workerStart[w]; e < model.workerStart[w + 1]; e++)
+			covered[model.workerTasks[e]] = true;
+	}
+}
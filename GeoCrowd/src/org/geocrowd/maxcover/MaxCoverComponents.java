@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.geocrowd.dtype.CandidateGraph;
+import org.geocrowd.dtype.Components;
+
+/**
+ * The offline greedy with the dynamic budget, solved per connected component
+ * of the worker/task graph.
+ *
+ * A worker only changes the gains of the workers of its component, so each
+ * component is solved by its own MaxCoverDynamicOffline, in parallel with
+ * Constants.parallelism threads, with the budget capped by its number of
+ * workers. The budget is then split between the components from the utility
+ * curves of their greedy prefixes, curve c giving the utility of the first k
+ * workers selected in component c. By default the curves are merged greedily:
+ * each next worker is the next one of the component with the largest next
+ * gain. The merge is exact, it selects the same workers as one greedy over
+ * the whole instance up to ties between equal gains: a selection never
+ * changes the gains in the other components, so the best gain of the whole
+ * instance is always the next gain of one component, and the gains along a
+ * greedy prefix never increase, so the next gain of a component is its best
+ * one. With dynamicProgramming the best split of the curves is taken
+ * instead.
+ */
+public class MaxCoverComponents extends MaxCover {
+
+	/**
+	 * Whether the budget is split by dynamic programming over the curves,
+	 * otherwise by their greedy merge. The selection is only recorded in
+	 * order, see selectionOrder, with the greedy merge.
+	 */
+	public boolean dynamicProgramming = false;
+
+	/**
+	 * The number of components of the last solve.
+	 */
+	public int componentCount = 0;
+
+	public MaxCoverComponents(ArrayList<HashMap<Integer, Integer>> container,
+			Integer currentTI) {
+		super(container, currentTI);
+	}
+
+	public MaxCoverComponents(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
+	/**
+	 * Greedy algorithm per component.
+	 *
+	 * @return the assigned workers
+	 */
+	@Override
+	public HashSet<Integer> maxCover() {
+		/**
+		 * the utilities are computed once, and shared with the components
+		 */
+		edgeUtility();
+
+		boolean[] active = new boolean[graph.workerCount];
+		for (int w : mapSets.keySet())
+			if (w < graph.workerCount)
+				active[w] = true;
+		Components components = new Components(graph, active);
+		componentCount = components.count;
+
+		final ArrayList<MaxCover> solvers = new ArrayList<>();
+		ArrayList<Runnable> jobs = new ArrayList<>();
+		for (int c = 0; c < components.count; c++) {
+			ArrayList<Integer> workers = new ArrayList<>();
+			for (int w : components.workers(c))
+				workers.add(w);
+			final MaxCover solver = new MaxCoverDynamicOffline();
+			solver.share(this, workers);
+			solver.universe = new HashSet<>();
+			for (int t : components.tasks(c))
+				solver.universe.add(graph.taskIds[t]);
+			solver.budget = Math.min(budget, workers.size());
+			solvers.add(solver);
+			jobs.add(new Runnable() {
+				@Override
+				public void run() {
+					solver.maxCover();
+				}
+			});
+		}
+		ParallelGains.runAll(jobs);
+
+		double[][] curves = new double[solvers.size()][];
+		for (int c = 0; c < curves.length; c++) {
+			MaxCover solver = solvers.get(c);
+			curves[c] = new double[solver.selectionOrder.size() + 1];
+			for (int k = 1; k < curves[c].length; k++)
+				curves[c][k] = solver.prefixAssignedUtility(k);
+		}
+
+		/**
+		 * replay the selected prefixes, so that the coverage and delays are
+		 * the ones of this instance
+		 */
+		if (dynamicProgramming) {
+			int[] allocation = BudgetAllocation.dynamicProgramming(curves,
+					budget);
+			for (int c = 0; c < allocation.length; c++)
+				for (int k = 1; k <= allocation[c]; k++)
+					select(solvers.get(c).selectionOrder.get(k - 1), curves[c][k]
+							- curves[c][k - 1]);
+		} else {
+			int[] order = BudgetAllocation.greedyOrder(curves, budget);
+			int[] next = new int[curves.length];
+			for (int c : order) {
+				int k = ++next[c];
+				int worker = solvers.get(c).selectionOrder.get(k - 1);
+				select(worker, curves[c][k] - curves[c][k - 1]);
+				recordSelection(worker);
+			}
+		}
+		assignedTasks = assignedTaskSet.size();
+		return assignWorkers;
+	}
+
+	/**
+	 * Select a worker of a component, with its gain in the component.
+	 */
+	private void select(int worker, double workerGain) {
+		gain = workerGain;
+		assignedUtility += gain;
+		assignWorkers.add(worker);
+		coverTasks(worker);
+	}
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.geocrowd.dtype.CandidateGraph;
+
+/**
+ * Two-round distributed greedy for the offline max cover (Mirzasoleiman et
+ * al., GreeDi).
+ *
+ * The workers are randomly split in shards, and the offline greedy
+ * (MaxCoverFixedOffline or MaxCoverDynamicOffline) runs with the full budget
+ * on each shard, in parallel by ParallelGains.runAll. A second greedy then
+ * runs over the union of the shard solutions. The result is the best of the
+ * second round and the shard solutions.
+ *
+ * With compareCentralized, the offline greedy also runs over all the workers,
+ * and the approximation loss and speedup of the distributed solve are
+ * reported.
+ */
+public class MaxCoverDistributed extends MaxCover {
+
+	/**
+	 * The number of shards, solved in parallel with Constants.parallelism
+	 * threads.
+	 */
+	public int shards = 4;
+
+	/**
+	 * Whether the shards are solved by MaxCoverFixedOffline, otherwise by
+	 * MaxCoverDynamicOffline.
+	 */
+	public boolean isFixed = true;
+
+	/**
+	 * The seed of the random partition of the workers.
+	 */
+	public long seed = 0;
+
+	/**
+	 * Whether to also solve the whole instance with one greedy, to compute
+	 * approximationLoss and speedup.
+	 */
+	public boolean compareCentralized = false;
+
+	/**
+	 * The utility of the whole instance solved by one greedy.
+	 */
+	public double centralizedUtility = 0.0;
+
+	/**
+	 * Time of the distributed and centralized solves, in milliseconds.
+	 */
+	public double distributedTime = 0;
+	public double centralizedTime = 0;
+
+	/**
+	 * 1 - distributed utility / centralized utility.
+	 */
+	public double approximationLoss = 0;
+
+	/**
+	 * centralized time / distributed time.
+	 */
+	public double speedup = 0;
+
+	public MaxCoverDistributed(ArrayList container, Integer currentTI) {
+		super(container, currentTI);
+	}
+
+	public MaxCoverDistributed(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
+	/**
+	 * A new offline greedy, restricted to some workers of an instance.
+	 *
+	 * @param instance
+	 *            the instance
+	 * @param workers
+	 *            the workers, in increasing order
+	 * @return the max cover
+	 */
+	private MaxCover solver(MaxCover instance, Iterable<Integer> workers) {
+		MaxCover solver = isFixed ? new MaxCoverFixedOffline()
+				: new MaxCoverDynamicOffline();
+		solver.share(instance, workers);
+		solver.budget = budget;
+		return solver;
+	}
+
+	/**
+	 * Split the workers with tasks in shards at random.
+	 *
+	 * @return the workers of each shard, in increasing order
+	 */
+	private ArrayList<ArrayList<Integer>> partition() {
+		ArrayList<Integer> workers = new ArrayList<>();
+		for (int w : mapSets.keySet())
+			if (!mapSets.get(w).isEmpty())
+				workers.add(w);
+		Collections.shuffle(workers, new Random(seed));
+
+		int p = Math.max(1, Math.min(shards, workers.size()));
+		ArrayList<ArrayList<Integer>> parts = new ArrayList<>();
+		for (int i = 0; i < p; i++)
+			parts.add(new ArrayList<Integer>());
+		for (int i = 0; i < workers.size(); i++)
+			parts.get(i % p).add(workers.get(i));
+		for (ArrayList<Integer> part : parts)
+			Collections.sort(part);
+		return parts;
+	}
+
+	/**
+	 * Two-round greedy algorithm.
+	 *
+	 * @return the assigned workers
+	 */
+	@Override
+	public HashSet<Integer> maxCover() {
+		/**
+		 * the utilities are computed once, by the same solver as the shards,
+		 * and shared with them
+		 */
+		final MaxCover whole = solver(this, mapSets.keySet());
+		whole.edgeUtility();
+
+		long start = System.nanoTime();
+		ArrayList<ArrayList<Integer>> parts = partition();
+		final ArrayList<MaxCover> solvers = new ArrayList<>();
+		for (ArrayList<Integer> part : parts)
+			solvers.add(solver(whole, part));
+
+		/**
+		 * first round: solve the shards in parallel
+		 */
+		ArrayList<Runnable> jobs = new ArrayList<>();
+		for (final MaxCover solver : solvers)
+			jobs.add(new Runnable() {
+				@Override
+				public void run() {
+					solver.maxCover();
+				}
+			});
+		ParallelGains.runAll(jobs);
+
+		/**
+		 * second round: solve the union of the shard solutions
+		 */
+		ArrayList<Integer> union = new ArrayList<>();
+		for (MaxCover solver : solvers)
+			union.addAll(solver.assignWorkers);
+		Collections.sort(union);
+		MaxCover best = solver(whole, union);
+		best.maxCover();
+		for (MaxCover solver : solvers)
+			if (solver.assignedUtility > best.assignedUtility)
+				best = solver;
+		distributedTime = (System.nanoTime() - start) / 1000000.0;
+
+		assignWorkers = best.assignWorkers;
+		assignedTaskSet = best.assignedTaskSet;
+		assignedTasks = best.assignedTasks;
+		assignedUtility = best.assignedUtility;
+		averageDelayTime = best.averageDelayTime;
+		coverage = best.coverage;
+		gain = best.gain;
+
+		if (compareCentralized) {
+			start = System.nanoTime();
+			whole.maxCover();
+			centralizedTime = (System.nanoTime() - start) / 1000000.0;
+			centralizedUtility = whole.assignedUtility;
+			approximationLoss = centralizedUtility > 0 ? 1 - assignedUtility
+					/ centralizedUtility : 0;
+			speedup = distributedTime > 0 ? centralizedTime / distributedTime
+					: 0;
+		}
+		return assignWorkers;
+	}
+}
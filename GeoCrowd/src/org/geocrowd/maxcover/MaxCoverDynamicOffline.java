@@ -23,6 +23,7 @@ import org.geocrowd.common.crowd.SensingTask;
 import org.geocrowd.common.crowd.SensingWorker;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CandidateGraph;
 
 /**
  * 
@@ -45,6 +46,10 @@ public class MaxCoverDynamicOffline extends MaxCover {
 		super(container, currentTI);
 	}
 
+	public MaxCoverDynamicOffline(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
 	/**
 	 * Greedy algorithm.
 	 * 
@@ -65,39 +70,27 @@ public class MaxCoverDynamicOffline extends MaxCover {
 		/**
 		 * Run until either running out of budget or no more tasks to cover
 		 */
+		/**
+		 * Workers are re-evaluated lazily, the utility of the uncovered tasks
+		 * of a worker only decreases as more tasks are covered
+		 */
+		LazyGreedy greedy = new LazyGreedy(S.keySet(), new LazyGreedy.Gain() {
+			@Override
+			public double gain(int k) {
+				return uncoveredUtility(k);
+			}
+		}, true);
 		while (assignWorkers.size() < budget && !Q.isEmpty()) {
-			int bestWorkerIndex = -1; // track index of the best worker in S
-			double maxUncoveredUtility = 0.0;
 			/**
-			 * Iterate all workers, find the one which covers maximum number of
-			 * uncovered tasks
+			 * find the worker which covers maximum utility of uncovered tasks
 			 */
-			for (int k : S.keySet()) {
-				HashMap<Integer, Integer> s = S.get(k); // task set covered by
-				// current worker
-				SensingWorker w = (SensingWorker) workerList.get(k);
-				
-				/**
-				 * check if the #selected workers at time instance of current
-				 * worker <limit
-				 */
-				/* actual worker */
-				double uncoveredUtility = 0.0;
-				for (Integer i : s.keySet()) {
-					if (!assignedTaskSet.contains(i)) {
-						// compute utility (w,task i)
-//						SensingTask t = (SensingTask) taskList
-//								.get(candidateTaskIndices.get(i));
-						SensingTask t = (SensingTask) tasksMap.get(i);
-						double utility = GeocrowdTaskUtility.utility(Geocrowd.DATA_SET, w, t);
-						uncoveredUtility += utility;
-					}
-				}
-				if (uncoveredUtility > maxUncoveredUtility) {
-					maxUncoveredUtility = uncoveredUtility;
-					bestWorkerIndex = k;
-				}
-			}
+			int bestWorkerIndex = greedy.peek(); // track index of the best worker in S
+			double maxUncoveredUtility = 0.0;
+			if (bestWorkerIndex > -1 && greedy.peekGain() > 0) {
+				maxUncoveredUtility = greedy.peekGain();
+				greedy.select();
+			} else
+				bestWorkerIndex = -1;
 
 			/**
 			 * gain is reduced at every stage
@@ -115,15 +108,8 @@ public class MaxCoverDynamicOffline extends MaxCover {
 				/**
 				 * compute average time to assign tasks in taskSet
 				 */
-				for (Integer taskidx : taskSet.keySet()) {
-					if (!assignedTaskSet.contains(taskidx)) {
-
-						averageDelayTime += currentTimeInstance
-								- (taskSet.get(taskidx) - GeocrowdConstants.MAX_TASK_DURATION)
-								+ 1;
-						assignedTaskSet.add(taskidx);
-					}
-				}
+				coverTasks(bestWorkerIndex);
+				recordSelection(bestWorkerIndex);
 			} else {
 				System.out.println("Break here because best index = "
 						+ bestWorkerIndex);
@@ -20,12 +20,10 @@ package org.geocrowd.maxcover;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.PriorityQueue;
+import java.util.TreeSet;
 
 import org.geocrowd.Constants;
 import org.geocrowd.datasets.params.GeocrowdConstants;
-import org.geocrowd.dtype.CoverageIndex;
-import org.moeaframework.Executor;
 import org.moeaframework.core.NondominatedPopulation;
 import org.moeaframework.core.Problem;
 import org.moeaframework.core.Solution;
@@ -57,20 +55,20 @@ public class MaxCoverEqualGA extends MaxCover implements Problem {
 		double[] g = new double[1];
 		int usedBudget = 0;
 		int max = 0;
-		HashSet<Integer> coverage = new HashSet<Integer>();
 
 		for (int i = 0; i < mapSets.size(); i++) {
 			if (d[i]) {
 				usedBudget++;
-				HashMap<Integer, Integer> map = mapSets.get(i);
-				coverage.addAll(map.keySet());
 
 				if (workerCounts[i] + 1 > max)
 					max = workerCounts[i] + 1;
 			}
 		}
 
-		f[0] = coverage.size();
+		/**
+		 * union of the task bitsets of the selected workers
+		 */
+		f[0] = coverage.unionCount(d);
 		f[1] = max;
 
 		if (usedBudget <= budget)
@@ -128,11 +126,35 @@ public class MaxCoverEqualGA extends MaxCover implements Problem {
 	 */
 	public HashSet<Integer> maxCover(ArrayList container, Integer currentTI,
 			int[] workerCounts, int budget) {
+		MaxCoverEqualGA problem = new MaxCoverEqualGA(container, currentTI,
+				workerCounts, budget);
+		graph = problem.graph;
+		coverage = problem.coverage.empty();
+
+		/**
+		 * seed with the greedy solution and its prefixes, and the greedy
+		 * solutions over the workers selected at most c times, for each c
+		 */
+		int maxWorkerCount = 0;
+		for (int c : workerCounts)
+			maxWorkerCount = Math.max(maxWorkerCount, c);
+		SeededNSGAII nsga = new SeededNSGAII(problem, new double[] { 0,
+				maxWorkerCount + 2 });
+		nsga.addPrefixSeeds(SeededNSGAII.greedy(coverage.empty(),
+				problem.mapSets.keySet(), budget), 10);
+		TreeSet<Integer> counts = new TreeSet<>();
+		for (int c : workerCounts)
+			counts.add(c);
+		for (int c : counts) {
+			ArrayList<Integer> workers = new ArrayList<>();
+			for (int i = 0; i < workerCounts.length; i++)
+				if (workerCounts[i] <= c)
+					workers.add(i);
+			nsga.addSeed(SeededNSGAII.greedy(coverage.empty(), workers, budget));
+		}
+
 		// solve using NSGA-II
-		NondominatedPopulation result = new Executor()
-				.withProblemClass(MaxCoverEqualGA.class, container, currentTI,
-						workerCounts, budget).withAlgorithm("NSGAII")
-				.withMaxEvaluations(200000).distributeOnAllCores().run();
+		NondominatedPopulation result = nsga.run(Constants.moMaxEvaluations);
 
 		int bestIndex = bestSolution(result);
 
@@ -149,6 +171,7 @@ public class MaxCoverEqualGA extends MaxCover implements Problem {
 		for (Integer i : assignWorkers) {
 			assignedTaskSet.addAll(((HashMap<Integer, Integer>) container
 					.get(i)).keySet());
+			coverage.cover(i);
 		}
 
 		/**
@@ -160,7 +183,7 @@ public class MaxCoverEqualGA extends MaxCover implements Problem {
 			
 			int maxCount = 0;
 			int[] updatedWorkerCounts = new int[workerCounts.length];
-			HashSet<Integer> unselected = new HashSet<Integer>();
+			ArrayList<Integer> unselected = new ArrayList<Integer>();
 			for (int i = 0; i < workerCounts.length; i++) {
 				// if the worker is not selected
 				updatedWorkerCounts[i] = workerCounts[i];
@@ -172,29 +195,30 @@ public class MaxCoverEqualGA extends MaxCover implements Problem {
 					unselected.add(i);
 			}
 
-			PriorityQueue<CoverageIndex> pq = new PriorityQueue<CoverageIndex>();
-			for (int i : unselected) {
-				/**
-				 * do not select the worker with maximum selection
-				 */
-				if (updatedWorkerCounts[i] > maxCount)
-					continue;
-				HashSet<Integer> _assignedTasks = (HashSet<Integer>) assignedTaskSet
-						.clone();
-				_assignedTasks.addAll(((HashMap<Integer, Integer>) container
-						.get(i)).keySet());
-				int cover = _assignedTasks.size();
-				CoverageIndex ci = new CoverageIndex(cover, i);
-
-				pq.add(ci);
-				if (pq.size() > budgetLeft)
-					pq.poll();
-			}
-
-			for (CoverageIndex ci : pq) {
+			/**
+			 * do not select the worker with maximum selection
+			 */
+			ArrayList<Integer> candidates = new ArrayList<Integer>();
+			for (int i : unselected)
+				if (updatedWorkerCounts[i] <= maxCount)
+					candidates.add(i);
+
+			/**
+			 * greedy on the number of newly covered tasks
+			 */
+			LazyGreedy greedy = new LazyGreedy(candidates,
+					new LazyGreedy.Gain() {
+						@Override
+						public double gain(int k) {
+							return coverage.uncoveredCount(k);
+						}
+					}, true);
+			for (int j = 0; j < budgetLeft && greedy.peek() > -1; j++) {
+				int k = greedy.select();
 				assignedTaskSet.addAll(((HashMap<Integer, Integer>) container
-						.get(ci.getIndex())).keySet());
-				assignWorkers.add(ci.getIndex());
+						.get(k)).keySet());
+				coverage.cover(k);
+				assignWorkers.add(k);
 			}
 		}
 		
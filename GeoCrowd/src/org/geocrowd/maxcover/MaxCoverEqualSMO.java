@@ -18,12 +18,12 @@
 package org.geocrowd.maxcover;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 
 import org.geocrowd.Constants;
 import org.geocrowd.datasets.params.GeocrowdConstants;
-import org.moeaframework.Executor;
 import org.moeaframework.core.NondominatedPopulation;
 import org.moeaframework.core.Problem;
 import org.moeaframework.core.Solution;
@@ -41,8 +41,17 @@ public class MaxCoverEqualSMO extends MaxCover implements Problem {
 
 		// indices = new ArrayList<Integer>(mapSets.keySet());
 		this.budget = budget;
+
+		deadlineTerm = new double[mapSets.size()];
+		for (int i = 0; i < deadlineTerm.length; i++)
+			deadlineTerm[i] = weight(mapSets.get(i), currentTI);
 	}
 
+	/**
+	 * The weight of each worker, they do not depend on the selection.
+	 */
+	private double[] deadlineTerm = null;
+
 	private double weight(HashMap<Integer, Integer> tasksWithDeadlines,
 			int currentTI) {
 		/**
@@ -69,18 +78,18 @@ public class MaxCoverEqualSMO extends MaxCover implements Problem {
 		double[] g = new double[1];
 		int usedBudget = 0;
 		double deadline = 0;
-		HashSet<Integer> coverage = new HashSet<Integer>();
 		
 		for (int i = 0; i < mapSets.size(); i++) {
 			if (d[i]) {
 				usedBudget++;
-				HashMap<Integer, Integer> map = mapSets.get(i);
-				coverage.addAll(map.keySet());
-				deadline += weight(mapSets.get(i), currentTimeInstance);
+				deadline += deadlineTerm[i];
 			}
 		}
 
-		f[0] = coverage.size();
+		/**
+		 * union of the task bitsets of the selected workers
+		 */
+		f[0] = coverage.unionCount(d);
 		f[1] = deadline;
 
 		if (usedBudget <= budget)
@@ -138,11 +147,46 @@ public class MaxCoverEqualSMO extends MaxCover implements Problem {
 	 */
 	public HashSet<Integer> maxCover(ArrayList container, Integer currentTI,
 			int budget) {
+		MaxCoverEqualSMO problem = new MaxCoverEqualSMO(container, currentTI,
+				budget);
+		graph = problem.graph;
+		coverage = problem.coverage.empty();
+
+		/**
+		 * the deadline objective of a feasible solution is at most the sum of
+		 * the budget largest weights
+		 */
+		double[] weights = problem.deadlineTerm.clone();
+		Arrays.sort(weights);
+		double maxDeadline = 1;
+		for (int i = weights.length - 1, j = 0; i >= 0 && j < budget; i--) {
+			if (Double.isNaN(weights[i]))
+				continue;
+			maxDeadline += Math.max(0, weights[i]);
+			j++;
+		}
+
+		/**
+		 * seed with the greedy solution and its prefixes, and the greedy
+		 * solutions over the workers with the smallest weights
+		 */
+		SeededNSGAII nsga = new SeededNSGAII(problem, new double[] { 0,
+				maxDeadline });
+		nsga.addPrefixSeeds(SeededNSGAII.greedy(coverage.empty(),
+				problem.mapSets.keySet(), budget), 20);
+		for (double q : new double[] { 0.25, 0.5, 0.75 }) {
+			if (weights.length == 0)
+				break;
+			double limit = weights[(int) (q * (weights.length - 1))];
+			ArrayList<Integer> workers = new ArrayList<>();
+			for (int i = 0; i < problem.deadlineTerm.length; i++)
+				if (problem.deadlineTerm[i] <= limit)
+					workers.add(i);
+			nsga.addSeed(SeededNSGAII.greedy(coverage.empty(), workers, budget));
+		}
+
 		// solve using NSGA-II
-		NondominatedPopulation result = new Executor()
-				.withProblemClass(MaxCoverEqualSMO.class, container, currentTI,
-						budget).withAlgorithm("NSGAII")
-				.withMaxEvaluations(200000).distributeOnAllCores().run();
+		NondominatedPopulation result = nsga.run(Constants.moMaxEvaluations);
 
 		int bestIndex = bestSolution(result);
 
@@ -159,36 +203,36 @@ public class MaxCoverEqualSMO extends MaxCover implements Problem {
 		for (Integer i : assignWorkers) {
 			assignedTaskSet.addAll(((HashMap<Integer, Integer>) container
 					.get(i)).keySet());
+			coverage.cover(i);
 		}
 
 		/**
 		 * If do not use all budget --> use the rest to select the worker
 		 */
-		HashSet<Integer> uncoveredId = new HashSet<Integer>();
+		ArrayList<Integer> uncoveredId = new ArrayList<Integer>();
 		for (int i = 0; i < container.size(); i++)
 			if (!assignWorkers.contains(i))
 				uncoveredId.add(i);
 		if (assignWorkers.size() < budget) {
+			/**
+			 * greedy on the number of newly covered tasks
+			 */
+			LazyGreedy greedy = new LazyGreedy(uncoveredId,
+					new LazyGreedy.Gain() {
+						@Override
+						public double gain(int k) {
+							return coverage.uncoveredCount(k);
+						}
+					}, true);
 			while (assignWorkers.size() < budget) {
-				int bestIndex2 = 0;
-				int bestCover = 0;
-				for (int i : uncoveredId) {
-					HashSet<Integer> _assignedTasks = (HashSet<Integer>) assignedTaskSet
-							.clone();
-					_assignedTasks
-							.addAll(((HashMap<Integer, Integer>) container
-									.get(i)).keySet());
-					int cover = _assignedTasks.size();
-					if (cover > bestCover) {
-						bestCover = cover;
-						bestIndex2 = i;
-					}
-				}
-				if (bestCover == 0)
+				int bestIndex2 = greedy.peek();
+				if (bestIndex2 == -1
+						|| assignedTaskSet.size() + greedy.peekGain() == 0)
 					break;
-				uncoveredId.remove(bestIndex2);
+				greedy.select();
 				assignedTaskSet.addAll(((HashMap<Integer, Integer>) container
 						.get(bestIndex2)).keySet());
+				coverage.cover(bestIndex2);
 				assignWorkers.add(bestIndex2);
 			}
 		}
@@ -20,6 +20,7 @@ import org.geocrowd.common.crowd.SensingTask;
 import org.geocrowd.common.crowd.SensingWorker;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CandidateGraph;
 
 /**
  * 
@@ -42,6 +43,18 @@ public class MaxCoverFixedOffline extends MaxCover {
 		super(container, currentTI);
 	}
 
+	public MaxCoverFixedOffline(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
+	/**
+	 * The task ids in the containers are indices in the candidate tasks.
+	 */
+	@Override
+	protected SensingTask task(int taskId) {
+		return (SensingTask) taskList.get(candidateTaskIndices.get(taskId));
+	}
+
 	/**
 	 * Greedy algorithm.
 	 * 
@@ -66,46 +79,58 @@ public class MaxCoverFixedOffline extends MaxCover {
 		HashSet<Integer> Q = (HashSet<Integer>) universe.clone();
 		// assignedTaskSet = new HashSet<Integer>();
 
+		/**
+		 * one lazy greedy per time instance, over the workers online at that
+		 * time. The utility of the uncovered tasks of a worker only decreases
+		 * as more tasks are covered
+		 */
+		int instances = budgetPerInstance.length;
+		ArrayList<ArrayList<Integer>> workersAtTimeInstance = new ArrayList<>();
+		for (int t = 0; t < instances; t++)
+			workersAtTimeInstance.add(new ArrayList<Integer>());
+		for (int k : S.keySet())
+			workersAtTimeInstance.get(
+					((SensingWorker) workerList.get(k)).getOnlineTime()).add(k);
+		LazyGreedy.Gain f = new LazyGreedy.Gain() {
+			@Override
+			public double gain(int k) {
+				return uncoveredUtility(k); // number of uncovered tasks when
+											// DBU = false
+			}
+		};
+		int[] selectedCount = new int[instances];
+		LazyGreedy[] heaps = new LazyGreedy[instances];
+		for (int t = 0; t < instances; t++)
+			if (!workersAtTimeInstance.get(t).isEmpty())
+				heaps[t] = new LazyGreedy(workersAtTimeInstance.get(t), f, true);
+
 		/**
 		 * Run until either running out of budget or no more tasks to cover
 		 */
 		while (assignWorkers.size() < budget && !Q.isEmpty()) {
 			int bestWorkerIndex = -1; // track index of the best worker in S
+			int bestInstance = -1;
 			double maxUncoveredUtility = 0.0;
 			/**
-			 * Iterate all workers, find the one which covers maximum number of
-			 * uncovered tasks
+			 * The best worker of each open time instance, find the one which
+			 * covers maximum utility of uncovered tasks, the smallest worker
+			 * index on ties
 			 */
-			for (int k : S.keySet()) {
-				HashMap<Integer, Integer> s = S.get(k); // task set covered by
-				// current worker
-
-				/**
-				 * check if the #selected workers at time instance of current
-				 * worker <limit
-				 */
-				/* actual worker */
-				SensingWorker w = (SensingWorker) workerList.get(k);
-				if (selectedWorkerAtTimeInstance.get(w.getOnlineTime()) != null
-						&& selectedWorkerAtTimeInstance.get(w.getOnlineTime()) >= budgetPerInstance[w
-								.getOnlineTime()]) {
+			for (int t = 0; t < instances; t++) {
+				if (heaps[t] == null)
+					continue;
+				int k = heaps[t].peek();
+				if (k == -1) {
+					heaps[t] = null;
 					continue;
 				}
-				double uncoveredUtility = 0.0; // number of uncovered tasks when DBU
-											// = false
-				for (Integer i : s.keySet()) {
-					if (!assignedTaskSet.contains(i)) {
-						// compute utility (w,task i)
-						SensingTask t = (SensingTask) taskList
-								.get(candidateTaskIndices.get(i));
-						double utility = GeocrowdTaskUtility.utility(Geocrowd.DATA_SET, w, t);
-						uncoveredUtility += utility;
-					}
-				}
-
-				if (uncoveredUtility > maxUncoveredUtility) {
+				double uncoveredUtility = heaps[t].peekGain();
+				if (uncoveredUtility > maxUncoveredUtility
+						|| (uncoveredUtility == maxUncoveredUtility
+								&& bestWorkerIndex > -1 && k < bestWorkerIndex)) {
 					maxUncoveredUtility = uncoveredUtility;
 					bestWorkerIndex = k;
+					bestInstance = t;
 				}
 			}
 
@@ -122,30 +147,26 @@ public class MaxCoverFixedOffline extends MaxCover {
 				HashMap<Integer, Integer> taskSet = S.get(bestWorkerIndex);
 				S.remove(bestWorkerIndex);
 				Q.removeAll(taskSet.keySet());
+
+				/**
+				 * the gains of the other instances are stale, the instance
+				 * is dropped once it has a worker and its budget is used
+				 */
+				heaps[bestInstance].select();
+				for (int t = 0; t < instances; t++)
+					if (heaps[t] != null)
+						heaps[t].invalidate();
 				/* increase # selected worker of time instace */
-				SensingWorker w = (SensingWorker) workerList
-						.get(bestWorkerIndex);
-				if (selectedWorkerAtTimeInstance.get(w.getOnlineTime()) != null) {
-					selectedWorkerAtTimeInstance
-							.put(w.getOnlineTime(),
-									selectedWorkerAtTimeInstance.get(w
-											.getOnlineTime()) + 1);
-				} else {
-					selectedWorkerAtTimeInstance.put(w.getOnlineTime(), 1);
-				}
+				selectedCount[bestInstance]++;
+				selectedWorkerAtTimeInstance.put(bestInstance,
+						selectedCount[bestInstance]);
+				if (selectedCount[bestInstance] >= budgetPerInstance[bestInstance])
+					heaps[bestInstance] = null;
 
 				/**
 				 * compute average time to assign tasks in taskSet
 				 */
-				for (Integer taskidx : taskSet.keySet()) {
-					if (!assignedTaskSet.contains(taskidx)) {
-
-						averageDelayTime += currentTimeInstance
-								- (taskSet.get(taskidx) - GeocrowdConstants.MAX_TASK_DURATION)
-								+ 1;
-						assignedTaskSet.add(taskidx);
-					}
-				}
+				coverTasks(bestWorkerIndex);
 			} else {
 				System.out.println("Break here because best index = "
 						+ bestWorkerIndex);
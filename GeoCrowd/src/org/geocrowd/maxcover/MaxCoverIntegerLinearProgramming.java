@@ -3,6 +3,7 @@ package org.geocrowd.maxcover;
 import java.util.ArrayList;
 import java.util.HashMap;
 
+import org.geocrowd.Constants;
 import org.geocrowd.Geocrowd;
 import org.geocrowd.datasets.params.GeocrowdConstants;
 import org.geocrowd.datasets.params.GeocrowdSensingConstants;
@@ -27,20 +28,22 @@ public class MaxCoverIntegerLinearProgramming {
 	public HashMap<Integer, ArrayList<Integer>> taskContainer;
 	public int budget;
 	
-	@SuppressWarnings({ "unchecked" })
+	/**
+	 * The containers are only read, they are not copied.
+	 */
 	public  MaxCoverIntegerLinearProgramming(ArrayList<HashMap<Integer, Integer>> _workerContainer, HashMap<Integer, 
 			ArrayList<Integer>> _taskContainer, int _budget){
 		
-		//create y variables for task
-		this.workerContainer = (ArrayList<HashMap<Integer, Integer>>) _workerContainer.clone();
-		this.taskContainer = (HashMap<Integer, ArrayList<Integer>>) _taskContainer.clone();
+		this.workerContainer = _workerContainer;
+		this.taskContainer = _taskContainer;
 		this.budget = _budget;
 		
 	}
-	
-	
-	public void runIntegerLinearProgrammingFixedBudgeILPSolver(){
-		
+
+	/**
+	 * The budget of each time instance when the budget is fixed.
+	 */
+	private int[] budgetPerInstance() {
 		int[] budgetPerInstance = new int[GeocrowdConstants.TIME_INSTANCE];
 		for (int i = 0; i < budgetPerInstance.length - 1; i++) {
 			budgetPerInstance[i] = budget / GeocrowdConstants.TIME_INSTANCE;
@@ -48,8 +51,13 @@ public class MaxCoverIntegerLinearProgramming {
 		budgetPerInstance[budgetPerInstance.length - 1] = budget - budget
 				/ GeocrowdConstants.TIME_INSTANCE
 				* (GeocrowdConstants.TIME_INSTANCE - 1);
-		
-		//find workers in a time instances
+		return budgetPerInstance;
+	}
+
+	/**
+	 * The workers of each time instance.
+	 */
+	private HashMap<Integer, ArrayList<Integer>> workersInTimeInstances() {
 		HashMap<Integer, ArrayList<Integer>> workersInTimeInstances = new HashMap<>();
 		for(Integer i = 0; i < workerContainer.size(); i++){
 			int timeArrival = Geocrowd.workerList.get(i).getOnlineTime();
@@ -64,6 +72,86 @@ public class MaxCoverIntegerLinearProgramming {
 				workersInTimeInstances.put(timeArrival, workers);
 			}
 		}
+		return workersInTimeInstances;
+	}
+
+	/**
+	 * The model of the dynamic budget, the budget is shared by all the time
+	 * instances.
+	 *
+	 * @return the model
+	 */
+	public MaxCoverModel model() {
+		return new MaxCoverModel(workerContainer.size(), taskContainer, budget);
+	}
+
+	/**
+	 * The model of the fixed budget, each time instance also has its share of
+	 * the budget.
+	 *
+	 * @return the model
+	 */
+	public MaxCoverModel fixedBudgetModel() {
+		MaxCoverModel model = model();
+		int[] budgetPerInstance = budgetPerInstance();
+		HashMap<Integer, ArrayList<Integer>> workersInTimeInstances = workersInTimeInstances();
+		for (Integer timeInstance : workersInTimeInstances.keySet()) {
+			ArrayList<Integer> workers = workersInTimeInstances.get(timeInstance);
+			int[] group = new int[workers.size()];
+			for (int i = 0; i < group.length; i++)
+				group[i] = workers.get(i);
+			model.addBudget(group, budgetPerInstance[timeInstance
+					% GeocrowdSensingConstants.TIME_INSTANCE]);
+		}
+		return model;
+	}
+
+	/**
+	 * Solve a model in Java, without a native solver.
+	 *
+	 * @param model
+	 *            the model
+	 * @return the number of covered tasks
+	 */
+	private int runBranchAndBound(MaxCoverModel model) {
+		if (Constants.pruneDominatedWorkers)
+			System.out.println("Pruned dominated workers: "
+					+ model.pruneDominatedWorkers(Constants.exactPruning));
+		MaxCoverBranchAndBound solver = new MaxCoverBranchAndBound(model);
+		int objective = Constants.decomposeComponents ? solver
+				.solveComponents() : solver.solve();
+		if (solver.optimal)
+			System.out.println(objective);
+		else
+			System.out.println("Time out! best = " + objective + ", bound = "
+					+ solver.rootBound);
+		return objective;
+	}
+
+	/**
+	 * Fixed budget ILP, solved in Java.
+	 *
+	 * @return the number of covered tasks
+	 */
+	public int runBranchAndBoundFixedBudget() {
+		return runBranchAndBound(fixedBudgetModel());
+	}
+
+	/**
+	 * Dynamic budget ILP, solved in Java.
+	 *
+	 * @return the number of covered tasks
+	 */
+	public int runBranchAndBound() {
+		return runBranchAndBound(model());
+	}
+	
+	public void runIntegerLinearProgrammingFixedBudgeILPSolver(){
+		
+		int[] budgetPerInstance = budgetPerInstance();
+		
+		//find workers in a time instances
+		HashMap<Integer, ArrayList<Integer>> workersInTimeInstances = workersInTimeInstances();
 		
 		SolverFactoryGLPK factory = new SolverFactoryGLPK(); // use lp_solve
 		factory.setParameter(Solver.VERBOSE, 1); 
@@ -97,25 +185,14 @@ public class MaxCoverIntegerLinearProgramming {
 		}
 		//x_i, y_i in range 0,1
 		for(int tid:taskContainer.keySet()){
-			linear = new Linear();
-			linear.add(1, "y"+tid);
-			problem.add(new Constraint("ge0"+tid,linear, ">=",0));
-			
-			linear = new Linear();
-			linear.add(1, "y"+tid);
-			problem.add(new Constraint("le1"+tid,linear, "<=",1));
+			problem.setVarLowerBound("y"+tid, 0);
+			problem.setVarUpperBound("y"+tid, 1);
 			problem.setVarType("y"+tid, Integer.class);
 		}
 		
 		for(Integer i = 0; i < workerContainer.size(); i++){
-			linear = new Linear();
-			linear.add(1,"x"+i);
-			problem.add(new Constraint("xge0"+i,linear, ">=", 0));
-			
-			linear = new Linear();
-			linear.add(1,"x"+i);
-			problem.add(new Constraint("xle1",linear, "<=", 1));
-			
+			problem.setVarLowerBound("x"+i, 0);
+			problem.setVarUpperBound("x"+i, 1);
 			problem.setVarType("x"+i, Integer.class);
 			
 		}
@@ -176,25 +253,14 @@ public class MaxCoverIntegerLinearProgramming {
 		}
 		//x_i, y_i in range 0,1
 		for(int tid:taskContainer.keySet()){
-			linear = new Linear();
-			linear.add(1, "y"+tid);
-			problem.add(new Constraint("ge0"+tid,linear, ">=",0));
-			
-			linear = new Linear();
-			linear.add(1, "y"+tid);
-			problem.add(new Constraint("le1"+tid,linear, "<=",1));
+			problem.setVarLowerBound("y"+tid, 0);
+			problem.setVarUpperBound("y"+tid, 1);
 			problem.setVarType("y"+tid, Integer.class);
 		}
 		
 		for(Integer i = 0; i < workerContainer.size(); i++){
-			linear = new Linear();
-			linear.add(1,"x"+i);
-			problem.add(new Constraint("xge0"+i,linear, ">=", 0));
-			
-			linear = new Linear();
-			linear.add(1,"x"+i);
-			problem.add(new Constraint("xle1",linear, "<=", 1));
-			
+			problem.setVarLowerBound("x"+i, 0);
+			problem.setVarUpperBound("x"+i, 1);
 			problem.setVarType("x"+i, Integer.class);
 			
 		}
@@ -0,0 +1,394 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.geocrowd.dtype.TaskKernel;
+import org.geocrowd.dtype.WorkerDominance;
+
+/**
+ * The max coverage ILP in sparse arrays.
+ *
+ * There is one variable x_i per worker and one variable y_t per task with
+ * workers, indexed 0..workerCount-1 and 0..taskCount-1, both in [0, 1] by
+ * their bounds. The tasks covered by the same workers are merged in one task
+ * of weight w_t, see TaskKernel. The model is
+ *
+ * max sum_t w_t y_t
+ *
+ * s.t. y_t <= sum_{i covers t} x_i for every task t,
+ *
+ * sum_{i in g} x_i <= b_g for every budget group g.
+ */
+public class MaxCoverModel {
+
+	/** The number of workers. */
+	public final int workerCount;
+
+	/**
+	 * The worker in the containers of each worker, or in the parent model for
+	 * the model of a component.
+	 */
+	public final int[] workerIds;
+
+	/**
+	 * The number of tasks of the model, the tasks with the same workers are
+	 * merged in one task weighted by their number.
+	 */
+	public final int taskCount;
+
+	/** The task id of the first merged task of each task variable. */
+	public final int[] taskIds;
+
+	/** The number of merged tasks of each task variable. */
+	public final int[] taskWeight;
+
+	/** The merged task ids of task t are memberIds[memberStart[t]..memberStart[t+1]). */
+	public final int[] memberStart;
+	public final int[] memberIds;
+
+	/** The workers of task t are taskWorkers[taskStart[t]..taskStart[t+1]). */
+	public final int[] taskStart;
+	public final int[] taskWorkers;
+
+	/** The tasks of worker i are workerTasks[workerStart[i]..workerStart[i+1]). */
+	public final int[] workerStart;
+	public final int[] workerTasks;
+
+	/** The bounds of the worker variables. */
+	public final double[] lower;
+	public final double[] upper;
+
+	/** The workers of budget group g are groupWorkers.get(g). */
+	public final ArrayList<int[]> groupWorkers = new ArrayList<>();
+	public final ArrayList<Integer> groupBudget = new ArrayList<>();
+
+	/**
+	 * Instantiates a new model, with one budget group of all the workers.
+	 *
+	 * @param workerCount
+	 *            the number of workers
+	 * @param taskContainer
+	 *            the workers of each task id
+	 * @param budget
+	 *            the number of workers that can be selected
+	 */
+	public MaxCoverModel(int workerCount,
+			HashMap<Integer, ArrayList<Integer>> taskContainer, int budget) {
+		this.workerCount = workerCount;
+		workerIds = new int[workerCount];
+		for (int w = 0; w < workerCount; w++)
+			workerIds[w] = w;
+
+		/**
+		 * the tasks with workers in increasing ids, so the model does not
+		 * depend on the order of the map, and their sorted workers
+		 */
+		int[] ids = new int[taskContainer.size()];
+		int n = 0, edges = 0;
+		for (int tid : taskContainer.keySet()) {
+			ArrayList<Integer> workers = taskContainer.get(tid);
+			if (workers != null && !workers.isEmpty()) {
+				ids[n++] = tid;
+				edges += workers.size();
+			}
+		}
+		ids = Arrays.copyOf(ids, n);
+		Arrays.sort(ids);
+		int[] start = new int[n + 1];
+		int[] allWorkers = new int[edges];
+		int e = 0;
+		for (int t = 0; t < n; t++) {
+			for (int w : taskContainer.get(ids[t]))
+				allWorkers[e++] = w;
+			start[t + 1] = e;
+			Arrays.sort(allWorkers, start[t], e);
+		}
+
+		/**
+		 * merge the tasks with the same workers
+		 */
+		TaskKernel kernel = new TaskKernel(n, start, allWorkers);
+		taskCount = kernel.superCount;
+		taskIds = new int[taskCount];
+		taskWeight = new int[taskCount];
+		memberStart = kernel.memberStart;
+		memberIds = new int[n];
+		for (int i = 0; i < n; i++)
+			memberIds[i] = ids[kernel.members[i]];
+		taskStart = new int[taskCount + 1];
+		for (int t = 0; t < taskCount; t++) {
+			int first = kernel.representative(t);
+			taskIds[t] = ids[first];
+			taskWeight[t] = kernel.size(t);
+			taskStart[t + 1] = taskStart[t] + start[first + 1] - start[first];
+		}
+		taskWorkers = new int[taskStart[taskCount]];
+		for (int t = 0; t < taskCount; t++) {
+			int first = kernel.representative(t);
+			System.arraycopy(allWorkers, start[first], taskWorkers,
+					taskStart[t], start[first + 1] - start[first]);
+		}
+
+		workerStart = new int[workerCount + 1];
+		workerTasks = transpose(taskCount, taskStart, taskWorkers, workerCount,
+				workerStart);
+
+		lower = new double[workerCount];
+		upper = new double[workerCount];
+		Arrays.fill(upper, 1.0);
+
+		int[] all = new int[workerCount];
+		for (int w = 0; w < workerCount; w++)
+			all[w] = w;
+		addBudget(all, budget);
+	}
+
+	/**
+	 * Instantiates the model of a connected component of another model, see
+	 * Components, with one budget group of all its workers. The tasks are the
+	 * ones of the workers, each task keeps its workers in the component.
+	 *
+	 * @param parent
+	 *            the other model
+	 * @param workers
+	 *            the workers of the component in the other model, in
+	 *            increasing order
+	 * @param budget
+	 *            the number of workers that can be selected
+	 */
+	public MaxCoverModel(MaxCoverModel parent, int[] workers, int budget) {
+		workerCount = workers.length;
+		workerIds = workers.clone();
+
+		/**
+		 * the tasks of the workers, in increasing order
+		 */
+		int edges = 0;
+		for (int w : workers)
+			edges += parent.workerStart[w + 1] - parent.workerStart[w];
+		int[] tasks = new int[edges];
+		edges = 0;
+		for (int w : workers)
+			for (int e = parent.workerStart[w]; e < parent.workerStart[w + 1]; e++)
+				tasks[edges++] = parent.workerTasks[e];
+		Arrays.sort(tasks);
+		int n = 0;
+		for (int i = 0; i < tasks.length; i++)
+			if (i == 0 || tasks[i] != tasks[i - 1])
+				tasks[n++] = tasks[i];
+		taskCount = n;
+
+		taskIds = new int[taskCount];
+		taskWeight = new int[taskCount];
+		memberStart = new int[taskCount + 1];
+		for (int t = 0; t < taskCount; t++)
+			memberStart[t + 1] = memberStart[t]
+					+ parent.memberStart[tasks[t] + 1]
+					- parent.memberStart[tasks[t]];
+		memberIds = new int[memberStart[taskCount]];
+		taskStart = new int[taskCount + 1];
+		int[] allWorkers = new int[edges];
+		edges = 0;
+		for (int t = 0; t < taskCount; t++) {
+			int p = tasks[t];
+			taskIds[t] = parent.taskIds[p];
+			taskWeight[t] = parent.taskWeight[p];
+			System.arraycopy(parent.memberIds, parent.memberStart[p],
+					memberIds, memberStart[t], memberStart[t + 1]
+							- memberStart[t]);
+			for (int e = parent.taskStart[p]; e < parent.taskStart[p + 1]; e++) {
+				int w = Arrays.binarySearch(workers, parent.taskWorkers[e]);
+				if (w >= 0)
+					allWorkers[edges++] = w;
+			}
+			taskStart[t + 1] = edges;
+		}
+		taskWorkers = Arrays.copyOf(allWorkers, edges);
+
+		workerStart = new int[workerCount + 1];
+		workerTasks = transpose(taskCount, taskStart, taskWorkers, workerCount,
+				workerStart);
+
+		lower = new double[workerCount];
+		upper = new double[workerCount];
+		for (int w = 0; w < workerCount; w++) {
+			lower[w] = parent.lower[workers[w]];
+			upper[w] = parent.upper[workers[w]];
+		}
+
+		int[] all = new int[workerCount];
+		for (int w = 0; w < workerCount; w++)
+			all[w] = w;
+		addBudget(all, budget);
+	}
+
+	/**
+	 * The tasks of each worker from the workers of each task, in increasing
+	 * order.
+	 *
+	 * @param workerStart
+	 *            filled in, the tasks of worker i are
+	 *            workerTasks[workerStart[i]..workerStart[i+1])
+	 * @return workerTasks
+	 */
+	private static int[] transpose(int taskCount, int[] taskStart,
+			int[] taskWorkers, int workerCount, int[] workerStart) {
+		int[] degree = new int[workerCount];
+		for (int w : taskWorkers)
+			degree[w]++;
+		for (int w = 0; w < workerCount; w++)
+			workerStart[w + 1] = workerStart[w] + degree[w];
+		int[] workerTasks = new int[taskWorkers.length];
+		int[] next = Arrays.copyOf(workerStart, workerCount);
+		for (int t = 0; t < taskCount; t++)
+			for (int e = taskStart[t]; e < taskStart[t + 1]; e++)
+				workerTasks[next[taskWorkers[e]]++] = t;
+		return workerTasks;
+	}
+
+	/**
+	 * Add a budget group.
+	 *
+	 * @param workers
+	 *            the workers of the group
+	 * @param budget
+	 *            the number of workers of the group that can be selected
+	 */
+	public void addBudget(int[] workers, int budget) {
+		groupWorkers.add(workers);
+		groupBudget.add(budget);
+	}
+
+	/**
+	 * Fix to 0 the upper bound of the workers whose tasks are a subset of the
+	 * tasks of another worker, see WorkerDominance.
+	 *
+	 * @param exact
+	 *            whether a worker is only removed for a worker of the same
+	 *            budget groups, so that the optimal cover is kept
+	 * @return the number of removed workers
+	 */
+	public int pruneDominatedWorkers(boolean exact) {
+		boolean[] active = new boolean[workerCount];
+		for (int w = 0; w < workerCount; w++)
+			active[w] = upper[w] > 0;
+
+		int[] workerClass = null;
+		if (exact) {
+			workerClass = new int[workerCount];
+			HashMap<String, Integer> classes = new HashMap<>();
+			int[][] groups = workerGroups();
+			for (int w = 0; w < workerCount; w++) {
+				String key = Arrays.toString(groups[w]);
+				Integer c = classes.get(key);
+				if (c == null) {
+					c = classes.size();
+					classes.put(key, c);
+				}
+				workerClass[w] = c;
+			}
+		}
+
+		boolean[] dominated = WorkerDominance.dominated(workerCount,
+				workerStart, workerTasks, taskStart, taskWorkers, null,
+				workerClass, active);
+		int removed = 0;
+		for (int w = 0; w < workerCount; w++)
+			if (active[w] && dominated[w]) {
+				upper[w] = 0;
+				removed++;
+			}
+		return removed;
+	}
+
+	/**
+	 * The budget groups of each worker.
+	 *
+	 * @return the groups of each worker
+	 */
+	public int[][] workerGroups() {
+		int[] count = new int[workerCount];
+		for (int[] workers : groupWorkers)
+			for (int w : workers)
+				count[w]++;
+		int[][] groups = new int[workerCount][];
+		for (int w = 0; w < workerCount; w++)
+			groups[w] = new int[count[w]];
+		Arrays.fill(count, 0);
+		for (int g = 0; g < groupWorkers.size(); g++)
+			for (int w : groupWorkers.get(g))
+				groups[w][count[w]++] = g;
+		return groups;
+	}
+
+	/**
+	 * The number of tasks covered by some workers.
+	 *
+	 * @param selected
+	 *            the selected workers
+	 * @return the number of covered tasks
+	 */
+	public int coveredCount(boolean[] selected) {
+		int covered = 0;
+		for (int t = 0; t < taskCount; t++)
+			for (int e = taskStart[t]; e < taskStart[t + 1]; e++)
+				if (selected[taskWorkers[e]]) {
+					covered += taskWeight[t];
+					break;
+				}
+		return covered;
+	}
+
+	/**
+	 * The ids of the tasks covered by some workers, the merged tasks are
+	 * expanded.
+	 *
+	 * @param selected
+	 *            the selected workers
+	 * @return the covered task ids
+	 */
+	public ArrayList<Integer> coveredTaskIds(boolean[] selected) {
+		ArrayList<Integer> covered = new ArrayList<>();
+		for (int t = 0; t < taskCount; t++)
+			for (int e = taskStart[t]; e < taskStart[t + 1]; e++)
+				if (selected[taskWorkers[e]]) {
+					for (int i = memberStart[t]; i < memberStart[t + 1]; i++)
+						covered.add(memberIds[i]);
+					break;
+				}
+		return covered;
+	}
+
+	/**
+	 * Whether some workers are within all the budgets.
+	 *
+	 * @param selected
+	 *            the selected workers
+	 * @return true, if feasible
+	 */
+	public boolean isFeasible(boolean[] selected) {
+		for (int g = 0; g < groupWorkers.size(); g++) {
+			int count = 0;
+			for (int w : groupWorkers.get(g))
+				if (selected[w])
+					count++;
+			if (count > groupBudget.get(g))
+				return false;
+		}
+		return true;
+	}
+}
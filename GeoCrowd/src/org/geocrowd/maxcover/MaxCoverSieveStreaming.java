@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import static org.geocrowd.Geocrowd.workerList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.geocrowd.Constants;
+import org.geocrowd.Geocrowd;
+import org.geocrowd.GeocrowdTaskUtility;
+import org.geocrowd.common.crowd.GenericWorker;
+import org.geocrowd.common.crowd.SensingTask;
+import org.geocrowd.dtype.CandidateGraph;
+
+/**
+ * Sieve-streaming max cover (Badanidiyuru et al., Streaming Submodular
+ * Maximization).
+ *
+ * The workers are offered one at a time, as they check in, and each one is
+ * kept or discarded at once. The optimal utility OPT is guessed by the values
+ * v = (1+epsilon)^i between m and 2*k*m, where m is the largest utility of a
+ * single worker so far. Each guess has a sieve that keeps a worker if it has
+ * room and the gain of the worker is at least (v/2 - f(S_v)) / (k - |S_v|).
+ * The best sieve is within (1/2-epsilon) of the optimal.
+ *
+ * There are O(log(k)/epsilon) sieves of at most k workers, and an arrival is
+ * evaluated against each sieve in O(|task set|). The utility of each (worker,
+ * task) pair is computed once, when the worker checks in, and kept as the
+ * edge utilities of the graph.
+ *
+ * The budget k is fixed, the worker overload is not taken into account.
+ */
+public class MaxCoverSieveStreaming extends MaxCover {
+
+	/**
+	 * The approximation slack, the smaller the more sieves.
+	 */
+	private double epsilon;
+
+	/**
+	 * The largest utility of a single worker offered so far.
+	 */
+	private double maxSingleton = 0.0;
+
+	/**
+	 * The sieves by the exponent i of their guess (1+epsilon)^i.
+	 */
+	private TreeMap<Integer, Sieve> sieves = new TreeMap<>();
+
+	/**
+	 * The task ids and utilities of the offered workers, worker after worker,
+	 * in the order of the edges of the graph.
+	 */
+	private int[] edgeTasks = new int[64];
+	private double[] edgeUtilities = new double[64];
+	private int edgeCount = 0;
+
+	/**
+	 * The selected workers and covered tasks of one guess of OPT.
+	 */
+	private static class Sieve {
+		final double v;
+		final ArrayList<Integer> workers = new ArrayList<>();
+		final HashSet<Integer> covered = new HashSet<>();
+		double utility = 0.0;
+
+		Sieve(double v) {
+			this.v = v;
+		}
+	}
+
+	/**
+	 * Instantiates a solver whose workers are offered as they check in, the
+	 * graph is given by setGraph once they are all matched.
+	 *
+	 * @param currentTI
+	 *            the current time instance
+	 */
+	public MaxCoverSieveStreaming(Integer currentTI) {
+		super();
+		currentTimeInstance = currentTI;
+		setEpsilon(Constants.sieveEpsilon);
+	}
+
+	public MaxCoverSieveStreaming(ArrayList<HashMap<Integer, Integer>> container,
+			Integer currentTI) {
+		super(container, currentTI);
+		setEpsilon(Constants.sieveEpsilon);
+	}
+
+	public MaxCoverSieveStreaming(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+		setEpsilon(Constants.sieveEpsilon);
+	}
+
+	/**
+	 * Sets the approximation slack, before any worker is offered.
+	 *
+	 * @param epsilon
+	 *            the epsilon, positive
+	 */
+	public void setEpsilon(double epsilon) {
+		if (!(epsilon > 0))
+			throw new IllegalArgumentException("epsilon must be positive: "
+					+ epsilon);
+		this.epsilon = epsilon;
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * Offer a worker that has just checked in. The workers are offered in the
+	 * order of their indices, which is the order of the graph.
+	 *
+	 * @param worker
+	 *            the worker index
+	 * @param tasks
+	 *            the tasks of the worker
+	 * @return true, if a sieve has kept the worker
+	 */
+	public boolean offer(int worker, List<SensingTask> tasks) {
+		int from = edgeCount;
+		if (edgeCount + tasks.size() > edgeTasks.length) {
+			int length = Math.max(edgeTasks.length * 2, edgeCount
+					+ tasks.size());
+			edgeTasks = Arrays.copyOf(edgeTasks, length);
+			edgeUtilities = Arrays.copyOf(edgeUtilities, length);
+		}
+		GenericWorker w = workerList.get(worker);
+		for (SensingTask t : tasks) {
+			edgeTasks[edgeCount] = (int) t.getId();
+			edgeUtilities[edgeCount++] = GeocrowdTaskUtility.utility(
+					Geocrowd.DATA_SET, w, t);
+		}
+		return offer(worker, edgeTasks, edgeUtilities, from, edgeCount);
+	}
+
+	/**
+	 * Offer a worker whose tasks are tasks[from..to) with the utilities
+	 * utilities[from..to).
+	 */
+	private boolean offer(int worker, int[] tasks, double[] utilities,
+			int from, int to) {
+		if (from == to || budget <= 0)
+			return false;
+
+		double singleton = 0.0;
+		for (int j = from; j < to; j++)
+			singleton += utilities[j];
+		if (singleton > maxSingleton) {
+			maxSingleton = singleton;
+			updateSieves();
+		}
+
+		boolean kept = false;
+		for (Sieve s : sieves.values()) {
+			if (s.workers.size() >= budget)
+				continue;
+			double gain = 0.0;
+			for (int j = from; j < to; j++)
+				if (!s.covered.contains(tasks[j]))
+					gain += utilities[j];
+			double threshold = (s.v / 2 - s.utility)
+					/ (budget - s.workers.size());
+			if (gain > 0 && gain >= threshold) {
+				s.workers.add(worker);
+				for (int j = from; j < to; j++)
+					s.covered.add(tasks[j]);
+				s.utility += gain;
+				kept = true;
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * Drop the sieves whose guess is below the largest singleton, and add the
+	 * ones up to 2*k times the largest singleton.
+	 */
+	private void updateSieves() {
+		double base = Math.log(1 + epsilon);
+		int lo = (int) Math.ceil(Math.log(maxSingleton) / base);
+		int hi = (int) Math.floor(Math.log(2 * budget * maxSingleton) / base);
+		Iterator<Map.Entry<Integer, Sieve>> it = sieves.entrySet().iterator();
+		while (it.hasNext())
+			if (it.next().getKey() < lo)
+				it.remove();
+		for (int i = lo; i <= hi; i++)
+			if (!sieves.containsKey(i))
+				sieves.put(i, new Sieve(Math.pow(1 + epsilon, i)));
+	}
+
+	/**
+	 * Set the graph once the offered workers are all matched. The utilities
+	 * computed when the workers checked in are kept as the edge utilities.
+	 *
+	 * @param graph
+	 *            the graph
+	 */
+	@Override
+	public void setGraph(CandidateGraph graph) {
+		super.setGraph(graph);
+		if (edgeCount > 0 && edgeCount == graph.workerTasks.length)
+			setEdgeUtility(Arrays.copyOf(edgeUtilities, edgeCount));
+	}
+
+	/**
+	 * The number of sieves.
+	 *
+	 * @return the int
+	 */
+	public int sieveCount() {
+		return sieves.size();
+	}
+
+	/**
+	 * The workers of the best sieve so far.
+	 *
+	 * @return the workers, in the order they were kept
+	 */
+	public ArrayList<Integer> selected() {
+		Sieve best = null;
+		for (Sieve s : sieves.values())
+			if (best == null || s.utility > best.utility)
+				best = s;
+		return best == null ? new ArrayList<Integer>() : best.workers;
+	}
+
+	/**
+	 * Assign the workers of the best sieve. If no worker was offered as it
+	 * checked in, the workers of the graph are streamed first, in the order
+	 * of their indices.
+	 *
+	 * @return the assigned workers
+	 */
+	@Override
+	public HashSet<Integer> maxCover() {
+		if (edgeCount == 0) {
+			double[] utilities = edgeUtility();
+			int[] tasks = new int[graph.workerTasks.length];
+			for (int e = 0; e < tasks.length; e++)
+				tasks[e] = graph.taskIds[graph.workerTasks[e]];
+			for (int k : mapSets.keySet())
+				offer(k, tasks, utilities, graph.workerStart[k],
+						graph.workerStart[k + 1]);
+		}
+
+		for (int k : selected()) {
+			gain = uncoveredUtility(k);
+			assignedUtility += gain;
+			assignWorkers.add(k);
+			coverTasks(k);
+		}
+
+		assignedTasks = assignedTaskSet.size();
+		return assignWorkers;
+	}
+}
@@ -32,6 +32,7 @@ import org.geocrowd.common.crowd.SensingWorker;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
 import org.geocrowd.datasets.params.GeocrowdSensingConstants;
+import org.geocrowd.dtype.CandidateGraph;
 
 // TODO: Auto-generated Javadoc
 /**
@@ -90,6 +91,10 @@ public class MaxCoverSpatial extends MaxCoverTemporal {
 		super(container, currentTI);
 	}
 
+	public MaxCoverSpatial(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
 	/**
 	 * maxCover inherits from MaxCoverT class
 	 */
@@ -116,16 +121,16 @@ public class MaxCoverSpatial extends MaxCoverTemporal {
 		double uncoveredUtility = 0.0;
 		double totalTaskEntropy = 0;
 
+		int e = firstEdge(workeridx, tasksWithDeadlines);
 		for (Integer taskIdx : tasksWithDeadlines.keySet()) {
+			int edge = e > -1 ? e++ : -1;
 			/**
 			 * Only consider uncovered tasks
 			 */
 			if (!completedTasks.contains(taskIdx)) {
-				GenericWorker worker = workerList.get(workeridx);
-//				SensingTask task = (SensingTask) taskList
-//						.get(candidateTaskIndices.get(taskIdx));
-				SensingTask task = (SensingTask) tasksMap.get(taskIdx);
-				double utility = GeocrowdTaskUtility.utility(Geocrowd.DATA_SET, worker, task);
+				double utility = edge > -1 ? edgeUtility()[edge]
+						: GeocrowdTaskUtility.utility(Geocrowd.DATA_SET,
+								workerList.get(workeridx), task(taskIdx));
 				uncoveredUtility += utility;
 				
 				if (task_entropies.get(taskIdx) !=null && task_entropies.get(taskIdx) != 0) {
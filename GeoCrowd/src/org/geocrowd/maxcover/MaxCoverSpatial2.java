@@ -19,6 +19,7 @@ import java.util.HashSet;
 
 import org.geocrowd.Constants;
 import org.geocrowd.common.crowd.GenericTask;
+import org.geocrowd.dtype.CandidateGraph;
 
 // TODO: Auto-generated Javadoc
 /**
@@ -76,6 +77,10 @@ public class MaxCoverSpatial2 extends Temporal2 {
 		super(container, currentTI);
 	}
 
+	public MaxCoverSpatial2(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
 	
 	/**
 	 * maxCover inherits from MaxCoverT class
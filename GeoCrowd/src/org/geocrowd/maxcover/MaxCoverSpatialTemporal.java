@@ -42,6 +42,21 @@ public class MaxCoverSpatialTemporal extends MaxCoverSpatial {
 		super(container, currentTI);
 	}
 
+	/**
+	 * The weight is normalized by the max entropy of the candidate workers,
+	 * computed in one pass before any weight, so that the weights only read
+	 * the state of the algorithm and can be evaluated by ParallelGains.
+	 */
+	@Override
+	protected IncrementalGreedy incrementalGreedy(boolean workerOverload) {
+		for (int k : mapSets.keySet()) {
+			double regionEntropy = getWorkerEntropies().get(k);
+			if (regionEntropy > maxEntropy)
+				maxEntropy = regionEntropy;
+		}
+		return super.incrementalGreedy(workerOverload);
+	}
+
 	/**
 	 * maxCover inherits from MaxCoverT class
 	 */
@@ -66,10 +81,7 @@ public class MaxCoverSpatialTemporal extends MaxCoverSpatial {
 		int uncoveredTasks = 0;
 		double regionEntropy = getWorkerEntropies().get(workeridx);
 		double totalElapsedTime = 0;
-		
-		if (regionEntropy > maxEntropy)
-			maxEntropy = regionEntropy;
-		
+
 		for (Integer t : tasksWithDeadlines.keySet()) {
 			/**
 			 * Only consider uncovered tasks
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.geocrowd.Constants;
+import org.geocrowd.dtype.CandidateGraph;
+
+/**
+ * Stochastic greedy for max cover (Mirzasoleiman et al., Lazier Than Lazy
+ * Greedy).
+ *
+ * Each round only evaluates a random sample of (n/k)*ln(1/epsilon) of the
+ * remaining workers, where n is the number of workers and k the budget, and
+ * selects the one with the max gain in the sample. The total number of
+ * evaluations is n*ln(1/epsilon) regardless of the budget, plus at most n
+ * for the workers found without gain, and the expected utility is within
+ * (1-1/e-epsilon) of the optimal.
+ *
+ * The budget k is fixed, algorithm stops when running out of budget
+ */
+public class MaxCoverStochastic extends MaxCoverBasic {
+
+	/**
+	 * The approximation slack, the smaller the larger the samples.
+	 */
+	public double epsilon = Constants.stochasticEpsilon;
+
+	/**
+	 * The seed of the random samples, the samples of a time instance are the
+	 * same for the same seed.
+	 */
+	public long seed = Constants.stochasticSeed;
+
+	/**
+	 * The number of gain evaluations.
+	 */
+	public long evaluations = 0;
+
+	public MaxCoverStochastic(ArrayList<HashMap<Integer, Integer>> container,
+			Integer currentTI) {
+		super(container, currentTI);
+	}
+
+	public MaxCoverStochastic(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
+	/**
+	 * The number of workers sampled in each round.
+	 *
+	 * @param n
+	 *            the number of workers
+	 * @return the sample size
+	 */
+	public int sampleSize(int n) {
+		if (budget <= 0 || epsilon <= 0 || epsilon >= 1)
+			return n;
+		double size = Math.ceil(n * 1.0 / budget * Math.log(1 / epsilon));
+		return (int) Math.max(1, Math.min(n, size));
+	}
+
+	/**
+	 * Greedy algorithm.
+	 *
+	 * @return the assigned workers
+	 */
+	@Override
+	public HashSet<Integer> maxCover() {
+		Random r = new Random(seed + currentTimeInstance);
+
+		/**
+		 * Q is the universe of tasks
+		 */
+		HashSet<Integer> Q = new HashSet<>(universe);
+
+		/**
+		 * the remaining workers are remaining[0..n), in no particular order
+		 */
+		int n = mapSets.size();
+		int[] remaining = new int[n];
+		int idx = 0;
+		for (int k : mapSets.keySet())
+			remaining[idx++] = k;
+		int sampleSize = sampleSize(n);
+
+		/**
+		 * Run until either running out of budget or no more tasks to cover
+		 */
+		while (assignWorkers.size() < budget && !Q.isEmpty() && n > 0) {
+			/**
+			 * draw a sample without replacement by a partial shuffle of the
+			 * remaining workers, the sample is remaining[0..s). The gains
+			 * never increase, so a worker without gain is removed from the
+			 * remaining workers for good and another one is drawn instead;
+			 * each worker is removed at most once over all the rounds.
+			 */
+			int s = Math.min(sampleSize, n);
+			int bestPos = -1;
+			double maxUncoveredUtility = 0.0;
+			int i = 0;
+			while (i < s) {
+				int j = i + r.nextInt(n - i);
+				int tmp = remaining[i];
+				remaining[i] = remaining[j];
+				remaining[j] = tmp;
+
+				evaluations++;
+				double g = workerGain(remaining[i]);
+				if (g <= 0) {
+					remaining[i] = remaining[--n];
+					s = Math.min(s, n);
+					continue;
+				}
+				if (g > maxUncoveredUtility
+						|| (g == maxUncoveredUtility && remaining[i] < remaining[bestPos])) {
+					maxUncoveredUtility = g;
+					bestPos = i;
+				}
+				i++;
+			}
+			if (bestPos == -1)
+				break;
+
+			int bestWorkerIndex = remaining[bestPos];
+			remaining[bestPos] = remaining[--n];
+
+			/**
+			 * gain is reduced at every stage
+			 */
+			gain = maxUncoveredUtility;
+			assignedUtility += gain;
+			assignWorkers.add(bestWorkerIndex);
+			HashMap<Integer, Integer> taskSet = mapSets.get(bestWorkerIndex);
+			Q.removeAll(taskSet.keySet());
+
+			/**
+			 * compute average time to assign tasks in taskSet
+			 */
+			coverTasks(bestWorkerIndex);
+		}
+
+		assignedTasks = assignedTaskSet.size();
+		return assignWorkers;
+	}
+}
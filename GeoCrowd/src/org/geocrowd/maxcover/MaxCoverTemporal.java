@@ -32,6 +32,7 @@ import org.geocrowd.common.crowd.SensingWorker;
 import org.geocrowd.common.utils.Utils;
 import org.geocrowd.datasets.params.GeocrowdConstants;
 import org.geocrowd.datasets.params.GeocrowdSensingConstants;
+import org.geocrowd.dtype.CandidateGraph;
 
 // TODO: Auto-generated Javadoc
 /**
@@ -56,6 +57,10 @@ public class MaxCoverTemporal extends MaxCover {
 		super(container, currentTI);
 	}
 
+	public MaxCoverTemporal(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
 	@Override
 	public HashSet<Integer> maxCover() {
 		HashMap<Integer, HashMap<Integer, Integer>> S = (HashMap<Integer, HashMap<Integer, Integer>>) mapSets
@@ -69,6 +74,7 @@ public class MaxCoverTemporal extends MaxCover {
 		 */
 //		assignedTaskSet = new HashSet<Integer>();
 		assignedTaskSet = new HashSet<Integer>();
+		IncrementalGreedy greedy = incrementalGreedy(Constants.workerOverload);
 		while (assignWorkers.size() < budget && !Q.isEmpty()) {
 			int bestWorkerIndex = 0;
 			double smallestAvgTimeToDead = 10000000;
@@ -91,21 +97,18 @@ public class MaxCoverTemporal extends MaxCover {
 //				}
 //			}
 			/**
-			 * Iterate all workers, find the one with the smallest weight
+			 * The worker with the smallest weight, only the weights of the
+			 * workers sharing a task with the last selected worker are
+			 * recomputed
 			 */
-			for (int k : S.keySet()) {
-				HashMap<Integer, Integer> s = S.get(k);
-				WeightGain wg = weight(k, s, currentTimeInstance,
-						assignedTaskSet);
-				
-				if(Constants.workerOverload) wg= weight2(k, s, currentTimeInstance, assignedTaskSet);
-                               
-				if (wg.weight < smallestAvgTimeToDead) {
-					smallestAvgTimeToDead = wg.weight;
-					maxUncoveredUtility = wg.gain;
-					bestWorkerIndex = k;
-				}
+			int k = greedy.peek();
+			if (k > -1) {
+				WeightGain wg = greedy.peekWeightGain();
+				smallestAvgTimeToDead = wg.weight;
+				maxUncoveredUtility = wg.gain;
+				bestWorkerIndex = k;
 			}
+			greedy.select(bestWorkerIndex);
 //                        System.out.println("weight:"+smallestAvgTimeToDead);
                         
 			assignWorkers.add(bestWorkerIndex);
@@ -121,14 +124,9 @@ public class MaxCoverTemporal extends MaxCover {
 			/**
 			 * compute average time to assign tasks in taskSet
 			 */
-			for (Integer taskId : taskSet.keySet()) {
-				if (!assignedTaskSet.contains(taskId)) {
-					averageDelayTime += currentTimeInstance
-							- (taskSet.get(taskId) - GeocrowdConstants.MAX_TASK_DURATION)
-							+ 1;
-					assignedTaskSet.add(taskId);
-				}
-			}
+			coverTasks(bestWorkerIndex);
+			if (!isLocalWeight())
+				greedy.updateAll();
 		}
 		assignedTasks = assignedTaskSet.size();
 
@@ -137,6 +135,41 @@ public class MaxCoverTemporal extends MaxCover {
 	}
 	
 	
+	/**
+	 * The incremental greedy over the weights of the workers.
+	 * 
+	 * @param workerOverload
+	 *            whether the weight takes the worker overload into account
+	 *            (weight2)
+	 * @return the incremental greedy
+	 */
+	protected IncrementalGreedy incrementalGreedy(final boolean workerOverload) {
+		return new IncrementalGreedy(graph, mapSets.keySet(),
+				new IncrementalGreedy.Weight() {
+					@Override
+					public WeightGain weight(int k) {
+						HashMap<Integer, Integer> s = mapSets.get(k);
+						if (workerOverload)
+							return weight2(k, s, currentTimeInstance,
+									assignedTaskSet);
+						return MaxCoverTemporal.this.weight(k, s,
+								currentTimeInstance, assignedTaskSet);
+					}
+				}, 10000000);
+	}
+
+	/**
+	 * Whether the weight of a worker only depends on its own uncovered tasks,
+	 * so that it is recomputed only when one of them gets covered. Called at
+	 * the end of each round; if false, the weights of all the remaining
+	 * workers are recomputed.
+	 * 
+	 * @return true, if successful
+	 */
+	protected boolean isLocalWeight() {
+		return true;
+	}
+	
 	public WeightGain weight2(int workeridx, HashMap<Integer, Integer> tasksWithDeadlines,
 			int currentTI, HashSet<Integer> completedTasks) {
 		/**
@@ -144,7 +177,9 @@ public class MaxCoverTemporal extends MaxCover {
 		 */
 		double uncoveredUtility = 0.0;
 		double totalElapsedTime = 0;
+		int e = firstEdge(workeridx, tasksWithDeadlines);
 		for (Integer t : tasksWithDeadlines.keySet()) {
+			int edge = e > -1 ? e++ : -1;
 			/**
 			 * Only consider uncovered tasks
 			 */
@@ -154,11 +189,9 @@ public class MaxCoverTemporal extends MaxCover {
 																			// the
 																			// better
 //				System.out.println(elapsedTime);
-				GenericWorker worker = workerList.get(workeridx);
-//				SensingTask task = (SensingTask) taskList
-//						.get(candidateTaskIndices.get(t));
-				SensingTask task = (SensingTask) tasksMap.get(t);
-				double utility = GeocrowdTaskUtility.utility(Geocrowd.DATA_SET, worker, task);
+				double utility = edge > -1 ? edgeUtility()[edge]
+						: GeocrowdTaskUtility.utility(Geocrowd.DATA_SET,
+								workerList.get(workeridx), task(t));
 				uncoveredUtility += utility;
 				if(currentTI < GeocrowdSensingConstants.TIME_INSTANCE-1)
 					
@@ -195,7 +228,9 @@ public class MaxCoverTemporal extends MaxCover {
 		 */
 		double uncoveredUtility = 0.0;
 		double totalElapsedTime = 0;
+		int e = firstEdge(workeridx, tasksWithDeadlines);
 		for (Integer t : tasksWithDeadlines.keySet()) {
+			int edge = e > -1 ? e++ : -1;
 			/**
 			 * Only consider uncovered tasks
 			 */
@@ -205,11 +240,9 @@ public class MaxCoverTemporal extends MaxCover {
 																			// the
 																			// better
 //				System.out.println(elapsedTime);
-				GenericWorker worker = workerList.get(workeridx);
-//				SensingTask task = (SensingTask) taskList
-//						.get(candidateTaskIndices.get(t));
-				SensingTask task = (SensingTask) tasksMap.get(t);
-				double utility = GeocrowdTaskUtility.utility(Geocrowd.DATA_SET, worker, task);
+				double utility = edge > -1 ? edgeUtility()[edge]
+						: GeocrowdTaskUtility.utility(Geocrowd.DATA_SET,
+								workerList.get(workeridx), task(t));
 				uncoveredUtility += utility;
 				if(currentTI < GeocrowdSensingConstants.TIME_INSTANCE-1)
 					
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import org.geocrowd.Constants;
+
+/**
+ * Evaluation of the gains of many workers on a fork-join pool of
+ * Constants.parallelism threads.
+ *
+ * The workers are split in ranges, each range is evaluated by one thread. The
+ * argmax of the ranges is reduced from left to right keeping the first max, so
+ * the result is the same as a sequential scan over the workers in the given
+ * order that keeps the first strictly larger gain. The gain functions must
+ * only read the state of the algorithm.
+ */
+public class ParallelGains {
+
+	/** Number of workers evaluated by one thread without splitting. */
+	public static final int THRESHOLD = 64;
+
+	/** The pool. */
+	private static ForkJoinPool pool = null;
+
+	/**
+	 * The pool, created again if Constants.parallelism has changed.
+	 *
+	 * @return the fork join pool
+	 */
+	private static synchronized ForkJoinPool pool() {
+		if (pool == null || pool.getParallelism() != Constants.parallelism) {
+			if (pool != null)
+				pool.shutdown();
+			pool = new ForkJoinPool(Constants.parallelism);
+		}
+		return pool;
+	}
+
+	/**
+	 * Whether n workers are evaluated in parallel.
+	 *
+	 * @param n
+	 *            the number of workers
+	 * @return true, if is parallel
+	 */
+	public static boolean isParallel(int n) {
+		return Constants.parallelism > 1 && n > THRESHOLD;
+	}
+
+	/**
+	 * The workers in the order of the iteration.
+	 *
+	 * @param workers
+	 *            the workers
+	 * @return the array
+	 */
+	public static int[] toArray(Iterable<Integer> workers) {
+		ArrayList<Integer> list = new ArrayList<Integer>();
+		for (int w : workers)
+			list.add(w);
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++)
+			array[i] = list.get(i);
+		return array;
+	}
+
+	/**
+	 * Evaluate the gains of workers[0..n).
+	 *
+	 * @param workers
+	 *            the workers
+	 * @param n
+	 *            the number of workers
+	 * @param f
+	 *            the gain function
+	 * @return the gain of each worker
+	 */
+	public static double[] gains(final int[] workers, int n,
+			final LazyGreedy.Gain f) {
+		final double[] gains = new double[n];
+		run(new Evaluation() {
+			@Override
+			public void evaluate(int i) {
+				gains[i] = f.gain(workers[i]);
+			}
+		}, n);
+		return gains;
+	}
+
+	/**
+	 * Evaluate the weights of workers[0..n).
+	 *
+	 * @param workers
+	 *            the workers
+	 * @param n
+	 *            the number of workers
+	 * @param f
+	 *            the weight function
+	 * @return the weight and gain of each worker
+	 */
+	public static WeightGain[] weights(final int[] workers, int n,
+			final IncrementalGreedy.Weight f) {
+		final WeightGain[] weights = new WeightGain[n];
+		run(new Evaluation() {
+			@Override
+			public void evaluate(int i) {
+				weights[i] = f.weight(workers[i]);
+			}
+		}, n);
+		return weights;
+	}
+
+	/**
+	 * The first worker in workers[0..n) with the max gain, if larger than a
+	 * minimum gain.
+	 *
+	 * @param workers
+	 *            the workers
+	 * @param n
+	 *            the number of workers
+	 * @param f
+	 *            the gain function
+	 * @param min
+	 *            only the gains strictly larger than this are considered
+	 * @param gains
+	 *            the gain of each worker, filled in
+	 * @return the position of the worker in workers, -1 if no gain is larger
+	 *         than min
+	 */
+	public static int argmax(int[] workers, int n, LazyGreedy.Gain f,
+			double min, double[] gains) {
+		Argmax task = new Argmax(workers, f, min, gains, 0, n);
+		if (!isParallel(n))
+			return task.scan();
+		return pool().invoke(task);
+	}
+
+	/**
+	 * Run a fork-join task on the pool, e.g. a precomputation over the
+	 * candidate graph.
+	 *
+	 * @param task
+	 *            the task
+	 * @return the result of the task
+	 */
+	public static <T> T invoke(ForkJoinTask<T> task) {
+		return pool().invoke(task);
+	}
+
+	/**
+	 * Run independent jobs, e.g. the solves of the components of an instance,
+	 * one job per thread of the pool.
+	 *
+	 * @param jobs
+	 *            the jobs
+	 */
+	public static void runAll(List<? extends Runnable> jobs) {
+		if (Constants.parallelism <= 1 || jobs.size() <= 1) {
+			for (Runnable job : jobs)
+				job.run();
+			return;
+		}
+		List<Callable<Object>> tasks = new ArrayList<>();
+		for (Runnable job : jobs)
+			tasks.add(Executors.callable(job));
+		try {
+			for (Future<Object> f : pool().invokeAll(tasks))
+				f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * Evaluate n indices.
+	 *
+	 * @param f
+	 *            the evaluation
+	 * @param n
+	 *            the n
+	 */
+	private static void run(Evaluation f, int n) {
+		EvaluationTask task = new EvaluationTask(f, 0, n);
+		if (!isParallel(n))
+			task.scan();
+		else
+			pool().invoke(task);
+	}
+
+	/**
+	 * The evaluation of one index.
+	 */
+	private interface Evaluation {
+		void evaluate(int i);
+	}
+
+	/**
+	 * Evaluates a range of indices, splitting it in halves while it is large.
+	 */
+	private static class EvaluationTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Evaluation f;
+		private final int from, to;
+
+		EvaluationTask(Evaluation f, int from, int to) {
+			this.f = f;
+			this.from = from;
+			this.to = to;
+		}
+
+		void scan() {
+			for (int i = from; i < to; i++)
+				f.evaluate(i);
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > THRESHOLD) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new EvaluationTask(f, from, mid), new EvaluationTask(
+						f, mid, to));
+				return;
+			}
+			scan();
+		}
+	}
+
+	/**
+	 * The argmax of a range of workers, splitting it in halves while it is
+	 * large.
+	 */
+	private static class Argmax extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] workers;
+		private final LazyGreedy.Gain f;
+		private final double min;
+		private final double[] gains;
+		private final int from, to;
+
+		Argmax(int[] workers, LazyGreedy.Gain f, double min, double[] gains,
+				int from, int to) {
+			this.workers = workers;
+			this.f = f;
+			this.min = min;
+			this.gains = gains;
+			this.from = from;
+			this.to = to;
+		}
+
+		int scan() {
+			int best = -1;
+			double max = min;
+			for (int i = from; i < to; i++) {
+				gains[i] = f.gain(workers[i]);
+				if (gains[i] > max) {
+					max = gains[i];
+					best = i;
+				}
+			}
+			return best;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= THRESHOLD)
+				return scan();
+			int mid = (from + to) >>> 1;
+			Argmax left = new Argmax(workers, f, min, gains, from, mid);
+			Argmax right = new Argmax(workers, f, min, gains, mid, to);
+			right.fork();
+			int l = left.compute();
+			int r = right.join();
+			/*
+			 * the right max replaces the left one only if strictly larger
+			 */
+			if (r == -1)
+				return l;
+			if (l == -1 || gains[r] > gains[l])
+				return r;
+			return l;
+		}
+	}
+}
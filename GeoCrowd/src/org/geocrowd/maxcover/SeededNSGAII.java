@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * @ Year 2013
+ * This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any question.
+ *
+ * Contributors:
+ * Hien To - initial implementation
+ *******************************************************************************/
+package org.geocrowd.maxcover;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.geocrowd.Constants;
+import org.geocrowd.dtype.CoverageBitSet;
+import org.moeaframework.algorithm.NSGAII;
+import org.moeaframework.core.Initialization;
+import org.moeaframework.core.NondominatedPopulation;
+import org.moeaframework.core.NondominatedSortingPopulation;
+import org.moeaframework.core.Problem;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.comparator.ChainedComparator;
+import org.moeaframework.core.comparator.CrowdingComparator;
+import org.moeaframework.core.comparator.ParetoDominanceComparator;
+import org.moeaframework.core.operator.RandomInitialization;
+import org.moeaframework.core.operator.TournamentSelection;
+import org.moeaframework.core.spi.OperatorFactory;
+import org.moeaframework.core.variable.EncodingUtils;
+import org.moeaframework.util.TypedProperties;
+import org.moeaframework.util.distributed.DistributedProblem;
+
+/**
+ * NSGA-II over the selection of workers (one bit per worker) with two
+ * minimized objectives, the negated coverage first.
+ *
+ * It is set up as the default NSGA-II of the Executor (population of 100,
+ * binary tournament on rank and crowding, default variation of the bits),
+ * except that the initial population contains greedy solutions, and that the
+ * run stops as soon as the hypervolume of the result has improved by less than
+ * Constants.moStallTolerance over the last Constants.moStallWindow
+ * evaluations.
+ */
+public class SeededNSGAII {
+
+	/** The population size. */
+	public static final int POPULATION_SIZE = 100;
+
+	/** The problem. */
+	private final Problem problem;
+
+	/** The initial solutions, at most half of the population. */
+	private final ArrayList<boolean[]> seeds = new ArrayList<>();
+
+	/** The reference point of the hypervolume. */
+	private final double[] referencePoint;
+
+	/** The number of evaluations of the last run. */
+	public int evaluations = 0;
+
+	/**
+	 * Instantiates a new seeded NSGA-II.
+	 *
+	 * @param problem
+	 *            the problem
+	 * @param referencePoint
+	 *            a point dominated by all the feasible solutions
+	 */
+	public SeededNSGAII(Problem problem, double[] referencePoint) {
+		this.problem = problem;
+		this.referencePoint = referencePoint;
+	}
+
+	/**
+	 * Add an initial solution.
+	 *
+	 * @param workers
+	 *            the selected workers
+	 */
+	public void addSeed(Iterable<Integer> workers) {
+		if (seeds.size() >= POPULATION_SIZE / 2)
+			return;
+		boolean[] d = new boolean[problem.getNumberOfVariables()];
+		for (int w : workers)
+			d[w] = true;
+		for (boolean[] seed : seeds)
+			if (Arrays.equals(seed, d))
+				return;
+		seeds.add(d);
+	}
+
+	/**
+	 * Add the prefixes of a greedy solution as initial solutions, evenly
+	 * spaced.
+	 *
+	 * @param workers
+	 *            the greedy solution, in the order of selection
+	 * @param count
+	 *            the number of prefixes
+	 */
+	public void addPrefixSeeds(ArrayList<Integer> workers, int count) {
+		int n = workers.size();
+		for (int i = 1; i <= count && n > 0; i++) {
+			int size = Math.max(1, (int) Math.round(i * n / (double) count));
+			addSeed(workers.subList(0, size));
+		}
+	}
+
+	/**
+	 * Greedy max cover of the number of tasks, with lazy evaluations.
+	 *
+	 * @param coverage
+	 *            the task bitsets of the workers, nothing covered
+	 * @param workers
+	 *            the candidate workers
+	 * @param budget
+	 *            the budget
+	 * @return the selected workers, in the order of selection
+	 */
+	public static ArrayList<Integer> greedy(final CoverageBitSet coverage,
+			Iterable<Integer> workers, int budget) {
+		ArrayList<Integer> selected = new ArrayList<>();
+		LazyGreedy greedy = new LazyGreedy(workers, new LazyGreedy.Gain() {
+			@Override
+			public double gain(int k) {
+				return coverage.uncoveredCount(k);
+			}
+		}, true);
+		while (selected.size() < budget && greedy.peek() > -1
+				&& greedy.peekGain() > 0) {
+			int k = greedy.select();
+			coverage.cover(k);
+			selected.add(k);
+		}
+		return selected;
+	}
+
+	/**
+	 * The hypervolume of the feasible solutions, in two dimensions.
+	 *
+	 * @param result
+	 *            the result
+	 * @return the hypervolume
+	 */
+	public double hypervolume(NondominatedPopulation result) {
+		ArrayList<double[]> points = new ArrayList<>();
+		for (Solution s : result) {
+			double[] f = s.getObjectives();
+			if (!s.violatesConstraints() && f[0] < referencePoint[0]
+					&& f[1] < referencePoint[1])
+				points.add(f);
+		}
+		Collections.sort(points, new Comparator<double[]>() {
+			@Override
+			public int compare(double[] a, double[] b) {
+				return Double.compare(a[0], b[0]);
+			}
+		});
+		double volume = 0;
+		double bound = referencePoint[1];
+		for (double[] f : points)
+			if (f[1] < bound) {
+				volume += (referencePoint[0] - f[0]) * (bound - f[1]);
+				bound = f[1];
+			}
+		return volume;
+	}
+
+	/**
+	 * Run NSGA-II, the solutions are evaluated on all the cores.
+	 *
+	 * @param maxEvaluations
+	 *            the max number of evaluations
+	 * @return the result
+	 */
+	public NondominatedPopulation run(int maxEvaluations) {
+		ExecutorService pool = Executors.newFixedThreadPool(Runtime
+				.getRuntime().availableProcessors());
+		try {
+			final Problem distributed = new DistributedProblem(problem, pool);
+			final RandomInitialization random = new RandomInitialization(
+					distributed, POPULATION_SIZE);
+			Initialization initialization = new Initialization() {
+				@Override
+				public Solution[] initialize() {
+					Solution[] solutions = random.initialize();
+					for (int i = 0; i < seeds.size(); i++)
+						EncodingUtils.setBinary(solutions[i].getVariable(0),
+								seeds.get(i));
+					return solutions;
+				}
+			};
+			NSGAII algorithm = new NSGAII(distributed,
+					new NondominatedSortingPopulation(), null,
+					new TournamentSelection(2, new ChainedComparator(
+							new ParetoDominanceComparator(),
+							new CrowdingComparator())), OperatorFactory
+							.getInstance().getVariation(null,
+									new TypedProperties(), distributed),
+					initialization);
+
+			/**
+			 * stop when the hypervolume stalls over a window of evaluations
+			 */
+			double lastVolume = -1;
+			int nextCheck = Constants.moStallWindow;
+			while (algorithm.getNumberOfEvaluations() < maxEvaluations) {
+				algorithm.step();
+				if (algorithm.getNumberOfEvaluations() >= nextCheck) {
+					nextCheck += Constants.moStallWindow;
+					double volume = hypervolume(algorithm.getResult());
+					if (lastVolume >= 0
+							&& volume - lastVolume <= Constants.moStallTolerance
+									* Math.max(volume, Double.MIN_NORMAL))
+						break;
+					lastVolume = volume;
+				}
+			}
+			evaluations = algorithm.getNumberOfEvaluations();
+			NondominatedPopulation result = algorithm.getResult();
+			algorithm.terminate();
+			return result;
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -19,6 +19,7 @@ import java.util.HashSet;
 
 import org.geocrowd.Constants;
 import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CandidateGraph;
 
 // TODO: Auto-generated Javadoc
 /**
@@ -43,6 +44,10 @@ public class Temporal2 extends MaxCover {
 		super(container, currentTI);
 	}
 
+	public Temporal2(CandidateGraph graph, Integer currentTI) {
+		super(graph, currentTI);
+	}
+
 	@Override
 	public HashSet<Integer> maxCover() {
 		HashMap<Integer, HashMap<Integer, Integer>> S = (HashMap<Integer, HashMap<Integer, Integer>>) mapSets
@@ -55,34 +60,31 @@ public class Temporal2 extends MaxCover {
 		 * store all assigned tasks
 		 */
 //		assignedTaskSet = new HashSet<Integer>();
+		IncrementalGreedy greedy = new IncrementalGreedy(graph,
+				mapSets.keySet(), new IncrementalGreedy.Weight() {
+					@Override
+					public WeightGain weight(int k) {
+						return Temporal2.this.weight(k, mapSets.get(k),
+								currentTimeInstance, assignedTaskSet);
+					}
+				}, 10000000);
 		while (assignWorkers.size() < budget && !Q.isEmpty()) {
 			int bestWorkerIndex = 0;
 			double maxGain = -10000000;
 			double minWeight = 10000000;
 
 			/**
-			 * find the maximum of number of uncovered task
+			 * Iterate all workers, find the one with the max gain, then the
+			 * smallest weight; also find the maximum of number of uncovered
+			 * tasks. The weights are cached, only those of the workers
+			 * sharing a task with the last selected worker are recomputed
 			 */
+			greedy.update();
 			for (int k : S.keySet()) {
-				HashMap<Integer, Integer> s = S.get(k); // task set covered by
-														// current worker
-				int noUncoveredTasks = 0;
-				for (Integer i : s.keySet()) {
-					if (!assignedTaskSet.contains(i)) {
-						noUncoveredTasks++;
-					}
-				}
-				if (noUncoveredTasks > maxNoUncoveredTasks) {
-					maxNoUncoveredTasks = noUncoveredTasks;
+				WeightGain wg = greedy.weightGain(k);
+				if (wg.gain > maxNoUncoveredTasks) {
+					maxNoUncoveredTasks = (int) wg.gain;
 				}
-			}
-			/**
-			 * Iterate all workers, find the one with the smallest weight
-			 */
-			for (int k : S.keySet()) {
-				HashMap<Integer, Integer> s = S.get(k);
-				WeightGain wg = weight(k, s, currentTimeInstance,
-						assignedTaskSet);
                                
 				if (wg.gain > maxGain) {
 					maxGain = wg.gain;
@@ -94,6 +96,7 @@ public class Temporal2 extends MaxCover {
 					}
 				}
 			}
+			greedy.select(bestWorkerIndex);
 //                        System.out.println("weight:"+smallestAvgTimeToDead);
                         
 			assignWorkers.add(bestWorkerIndex);
@@ -107,14 +110,7 @@ public class Temporal2 extends MaxCover {
 			/**
 			 * compute average time to assign tasks in taskSet
 			 */
-			for (Integer taskId : taskSet.keySet()) {
-				if (!assignedTaskSet.contains(taskId)) {
-					averageDelayTime += currentTimeInstance
-							- (taskSet.get(taskId) - GeocrowdConstants.MAX_TASK_DURATION)
-							+ 1;
-					assignedTaskSet.add(taskId);
-				}
-			}
+			coverTasks(bestWorkerIndex);
 		}
 		assignedTasks = assignedTaskSet.size();
 //		System.out.println(universe.size() + "\t" + assignedTasks  + "\t" + assignWorkers.size() + "\t"  + assignedTasks/assignWorkers.size() );
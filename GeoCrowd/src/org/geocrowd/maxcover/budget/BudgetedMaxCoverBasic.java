@@ -1,129 +1,340 @@
 package org.geocrowd.maxcover.budget;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Set;
 
-import org.apache.commons.math3.util.MultidimensionalCounter.Iterator;
+import org.geocrowd.Constants;
+import org.geocrowd.maxcover.LazyGreedy;
+import org.geocrowd.maxcover.ParallelGains;
 
+/**
+ * Budgeted max coverage by partial enumeration (Khuller, Moss and Naor): the
+ * best of (H1) the feasible sets of fewer than SEED_SIZE workers and (H2) the
+ * feasible sets of SEED_SIZE workers, each completed by the greedy on the
+ * uncovered profit per cost. A (1 - 1/e) approximation.
+ *
+ * The combinations are streamed by CombinationIterator. The completion is a
+ * lazy greedy whose heap starts from the densities of the workers before any
+ * task is covered, so a worker is only evaluated when it reaches the top. A
+ * seed is skipped when the profit it can reach, its profit plus the remaining
+ * budget times the max density, is below the best completion so far. The
+ * seeds are split by their first worker between Constants.parallelism
+ * threads; ties are broken by the first seed in lexicographic order, so the
+ * result does not depend on the threads.
+ */
 public class BudgetedMaxCoverBasic extends BudgetedMaxCover {
 
+	/** The size of the enumerated seeds. */
+	public static final int SEED_SIZE = 3;
+
+	/** The slack of the bound of a seed, for the rounding of the sums. */
+	private static final double EPSILON = 1e-9;
+
+	/** The workers ids, in increasing order. */
+	private int[] workerIds;
+
+	/** The cost of each worker. */
+	private double[] cost;
+
+	/** The tasks of worker w are workerTasks[workerStart[w]..workerStart[w+1]). */
+	private int[] workerStart;
+	private int[] workerTasks;
+
+	/** The task id and profit of each task. */
+	private int[] taskIds;
+	private double[] profit;
+
+	/** The summed profit of all the tasks. */
+	private double totalProfit;
+
+	/** The workers by decreasing profit per cost, and their densities. */
+	private int[] byDensity;
+	private double[] densities;
+
+	/** The best completed seed so far, and its profit. */
+	private int[] bestSeed = null;
+	private int[] bestWorkers = null;
+	private volatile double bestProfit = -1;
+
+	public BudgetedMaxCoverBasic() {
+		super();
+	}
+
+	public BudgetedMaxCoverBasic(
+			HashMap<Integer, HashMap<Integer, CostProfit>> cost_profit,
+			HashMap<Integer, Double> cost, HashMap<Integer, Double> profit,
+			int currentTI) {
+		super(cost_profit, cost, profit, currentTI);
+	}
+
+	/**
+	 * Index the workers and the tasks.
+	 */
+	private void index() {
+		int n = workerCost.size();
+		workerIds = new int[n];
+		int i = 0;
+		for (int wid : workerCost.keySet())
+			workerIds[i++] = wid;
+		Arrays.sort(workerIds);
+
+		cost = new double[n];
+		workerStart = new int[n + 1];
+		HashMap<Integer, Integer> taskIndices = new HashMap<>();
+		ArrayList<Integer> tasks = new ArrayList<>();
+		for (int w = 0; w < n; w++) {
+			cost[w] = workerCost.get(workerIds[w]);
+			HashMap<Integer, CostProfit> wtasks = wtCostProfit.get(workerIds[w]);
+			if (wtasks != null)
+				for (int tid : wtasks.keySet()) {
+					Integer t = taskIndices.get(tid);
+					if (t == null) {
+						t = taskIndices.size();
+						taskIndices.put(tid, t);
+					}
+					tasks.add(t);
+				}
+			workerStart[w + 1] = tasks.size();
+		}
+		workerTasks = new int[tasks.size()];
+		for (int e = 0; e < workerTasks.length; e++)
+			workerTasks[e] = tasks.get(e);
+
+		taskIds = new int[taskIndices.size()];
+		profit = new double[taskIds.length];
+		totalProfit = 0;
+		for (int tid : taskIndices.keySet()) {
+			int t = taskIndices.get(tid);
+			taskIds[t] = tid;
+			Double p = taskProfit.get(tid);
+			profit[t] = p == null ? 0 : p;
+			totalProfit += profit[t];
+		}
+
+		/**
+		 * the densities only decrease as tasks get covered, they are the
+		 * upper bounds of every lazy greedy
+		 */
+		final double[] d = new double[n];
+		Integer[] order = new Integer[n];
+		for (int w = 0; w < n; w++) {
+			double p = 0;
+			for (int e = workerStart[w]; e < workerStart[w + 1]; e++)
+				p += profit[workerTasks[e]];
+			d[w] = density(p, cost[w]);
+			order[w] = w;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer w1, Integer w2) {
+				int c = Double.compare(d[w2], d[w1]);
+				return c != 0 ? c : w1.compareTo(w2);
+			}
+		});
+		byDensity = new int[n];
+		densities = new double[n];
+		for (int k = 0; k < n; k++) {
+			byDensity[k] = order[k];
+			densities[k] = d[order[k]];
+		}
+	}
+
+	/**
+	 * The profit per cost, a free worker with profit has an infinite density.
+	 */
+	private static double density(double profit, double cost) {
+		if (profit <= 0)
+			return 0;
+		return profit / cost;
+	}
+
+	/**
+	 * The state of the seeds solved by one thread.
+	 */
+	private class Completion {
+
+		/** the tasks covered in the current solve have the current stamp. */
+		final int[] covered = new int[taskIds.length];
+		int stamp = 0;
+
+		double usedCost;
+		double coveredProfit;
+
+		/**
+		 * Start a new set.
+		 */
+		void clear() {
+			stamp++;
+			usedCost = 0;
+			coveredProfit = 0;
+		}
+
+		/**
+		 * Add a worker to the set.
+		 */
+		void add(int w) {
+			usedCost += cost[w];
+			for (int e = workerStart[w]; e < workerStart[w + 1]; e++) {
+				int t = workerTasks[e];
+				if (covered[t] != stamp) {
+					covered[t] = stamp;
+					coveredProfit += profit[t];
+				}
+			}
+		}
+
+		/**
+		 * The profit of the uncovered tasks of a worker per cost, 0 if it is
+		 * over the remaining budget.
+		 */
+		double gain(int w) {
+			if (usedCost + cost[w] > budget)
+				return 0;
+			double p = 0;
+			for (int e = workerStart[w]; e < workerStart[w + 1]; e++)
+				if (covered[workerTasks[e]] != stamp)
+					p += profit[workerTasks[e]];
+			return density(p, cost[w]);
+		}
+
+		/**
+		 * Complete a seed by the greedy, if it can beat the best completion.
+		 */
+		void complete(int[] seed) {
+			clear();
+			for (int w : seed)
+				add(w);
+			if (usedCost > budget)
+				return;
+			double remaining = budget - usedCost;
+			double bound = totalProfit;
+			if (densities.length > 0 && densities[0] != Double.POSITIVE_INFINITY)
+				bound = Math.min(bound, coveredProfit + remaining * densities[0]);
+			if (bound + EPSILON < bestProfit)
+				return;
+
+			ArrayList<Integer> selected = new ArrayList<>();
+			LazyGreedy greedy = new LazyGreedy(byDensity, densities,
+					new LazyGreedy.Gain() {
+						@Override
+						public double gain(int w) {
+							return Completion.this.gain(w);
+						}
+					});
+			while (greedy.peek() > -1 && greedy.peekGain() > 0) {
+				int w = greedy.select();
+				add(w);
+				selected.add(w);
+			}
+			int[] workers = Arrays.copyOf(seed, seed.length + selected.size());
+			for (int i = 0; i < selected.size(); i++)
+				workers[seed.length + i] = selected.get(i);
+			offer(seed, workers, coveredProfit);
+		}
+	}
+
+	/**
+	 * Keep a completed seed if it is the best, or ties the best and comes
+	 * first.
+	 */
+	private synchronized void offer(int[] seed, int[] workers, double p) {
+		if (p > bestProfit
+				|| (p == bestProfit && (bestSeed == null || compare(seed, bestSeed) < 0))) {
+			bestProfit = p;
+			bestSeed = seed.clone();
+			bestWorkers = workers;
+		}
+	}
+
+	/**
+	 * Lexicographic order of two seeds.
+	 */
+	private static int compare(int[] s1, int[] s2) {
+		for (int i = 0; i < s1.length; i++)
+			if (s1[i] != s2[i])
+				return Integer.compare(s1[i], s2[i]);
+		return 0;
+	}
+
 	@Override
 	public double maxCover() {
-		// enumerate all possible family of set of size < k and totalCost < budget
+		index();
+		final int n = workerIds.length;
+		bestSeed = null;
+		bestWorkers = null;
+		bestProfit = -1;
+
+		/**
+		 * H1: the feasible sets of fewer than SEED_SIZE workers
+		 */
 		double maxH1 = 0.0;
-		Set<Integer> workerH1 = new HashSet<Integer>();
-		Integer[] workerids = (Integer[]) workerCost.keySet().toArray();
-		for (int k = 1; k < 3; k++) {
-			Integer[][] c = Combination.combinations(k, workerids);
-			for (int i = 0; i < c.length; i++) {
-				double totalWeight = 0.0;
-				for (int j = 0; j < c[i].length; j++)
-					totalWeight += workerCost.get(c[i][j]);
-				
-				// budget constraint
-				if (totalWeight <= budget) {
-					double totalProfit = 0.0;
-					Set<Integer> coveredTaskids = new HashSet<Integer>();
-					for (int j = 0; j < c[i].length; j++)
-						coveredTaskids.addAll(wtCostProfit.get(c[i][j]).keySet());
-
-					for (Integer tid : coveredTaskids)
-						totalProfit += taskProfit.get(tid);
-					// update max profit
-					if (totalProfit > maxH1) {
-						maxH1 = totalProfit;
-						workerH1 = new HashSet<Integer>();
-						for (int j = 0; j < c[i].length; j++)
-							workerH1.add(c[i][j]);
-					}
+		int[] workerH1 = new int[0];
+		Completion h1 = new Completion();
+		for (int k = 1; k < SEED_SIZE; k++) {
+			CombinationIterator it = new CombinationIterator(0, n, k);
+			while (it.hasNext()) {
+				int[] c = it.next();
+				h1.clear();
+				for (int w : c)
+					h1.add(w);
+				if (h1.usedCost <= budget && h1.coveredProfit > maxH1) {
+					maxH1 = h1.coveredProfit;
+					workerH1 = c.clone();
 				}
 			}
 		}
-		
-		// enumerate all possible family of set of size = k and totalCost <= budget
-		double maxH2 = 0.0;
-		Set<Integer> maxG = null;
-		Set<Integer> maxG_task = null;
-		Integer[][] c = Combination.combinations(3, workerids);
-		
-		for (int i = 0; i < c.length; i++) {
-			double weightG = 0.0;
-			Set<Integer> G = new HashSet<Integer>();
-			for (int j = 0; j < c[i].length; j++) {
-				weightG += workerCost.get(c[i][j]);
-				G.add(c[i][j]);
-			}
-			
-			
-			// budget constraint
-			if (weightG > budget)
-				continue;
-			
-//			Set<Integer> coveredTaskids = new HashSet<Integer>();
-//			for (int j = 0; j < c[i].length; j++)
-//				coveredTaskids.addAll(wtCostProfit.get(c[i][j]).keySet());
-			
-			Set<Integer> U = new HashSet<Integer>(workerCost.keySet());
-			for (Integer g : G)
-				U.remove(g);
-			
-			Set<Integer> G_task = new HashSet<Integer>();
-			for (Integer wid : G)
-				G_task.addAll(wtCostProfit.get(wid).keySet());
-			
-			while (!U.isEmpty()) {
-				
-				// Find the worker that maximize density (i.e, uncovered weight/cost)
-				Iterator it = (Iterator) U.iterator();
-				double maxDensity = 0.0;
-				int bestWID = 0;
-				while (it.hasNext()) {
-					int wid = it.next();
-					double cost = workerCost.get(wid);
-					double W_prime = 0.0;
-					for (Integer tid : wtCostProfit.get(wid).keySet()) {
-						if (!G_task.contains(tid)) {
-							W_prime += taskProfit.get(tid);
+
+		/**
+		 * H2: the feasible seeds of SEED_SIZE workers, completed by the
+		 * greedy; the seeds of the first workers i, i + jobs, ... are solved
+		 * by the same job. A seed must beat H1 to be completed.
+		 */
+		bestProfit = maxH1;
+		bestSeed = null;
+		final int jobCount = Constants.parallelism <= 1 ? 1
+				: 4 * Constants.parallelism;
+		ArrayList<Runnable> jobs = new ArrayList<>();
+		for (int j = 0; j < jobCount; j++) {
+			final int job = j;
+			jobs.add(new Runnable() {
+				@Override
+				public void run() {
+					Completion completion = new Completion();
+					int[] seed = new int[SEED_SIZE];
+					for (int first = job; first < n; first += jobCount) {
+						seed[0] = first;
+						CombinationIterator it = new CombinationIterator(
+								first + 1, n, SEED_SIZE - 1);
+						while (it.hasNext()) {
+							int[] rest = it.next();
+							if (cost[first] + cost[rest[0]] > budget)
+								continue;
+							System.arraycopy(rest, 0, seed, 1, rest.length);
+							completion.complete(seed);
 						}
 					}
-					double density = W_prime/cost;
-					if (density > maxDensity) {
-						maxDensity = density;
-						bestWID = wid;
-					}
-				}
-				
-				if (weightG + workerCost.get(bestWID) <= budget) {
-					G.add(bestWID);
-					G_task.addAll(wtCostProfit.get(bestWID).keySet());
 				}
-				
-				U.remove(bestWID);
-			}
-			
-			// compute weight of G
-			double G_profit = 0.0;
-			for (Integer tid : G_task)
-				G_profit += taskProfit.get(tid);
-			
-			if (G_profit > maxH2) {
-				maxH2 = G_profit;
-				maxG = new HashSet<Integer>(G);
-				maxG_task = new HashSet<Integer>(G_task);
-			}
+			});
 		}
-		
+		ParallelGains.runAll(jobs);
+
 		// compare H1 & H2
-		if (maxH1 > maxH2) {
-			maxProfit = maxH1;
-			SelectedWorkers = (HashSet<Integer>) workerH1;
-		} else {
-			maxProfit = maxH2;
-			SelectedWorkers = (HashSet<Integer>) maxG;
+		int[] selected = workerH1;
+		maxProfit = maxH1;
+		if (bestWorkers != null && bestProfit >= maxH1) {
+			selected = bestWorkers;
+			maxProfit = bestProfit;
+		}
+		SelectedWorkers = new HashSet<>();
+		CoveredTasks = new HashSet<>();
+		for (int w : selected) {
+			SelectedWorkers.add(workerIds[w]);
+			for (int e = workerStart[w]; e < workerStart[w + 1]; e++)
+				CoveredTasks.add(taskIds[workerTasks[e]]);
 		}
-		
 		return maxProfit;
 	}
-
 }
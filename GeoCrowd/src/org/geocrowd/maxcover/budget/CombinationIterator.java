@@ -0,0 +1,78 @@
+package org.geocrowd.maxcover.budget;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the k-combinations of the indices from..to-1 in lexicographic order,
+ * without materializing them as Combination.combinations does.
+ *
+ * next() returns the same array every time, updated in place, so a
+ * combination must be copied to be kept.
+ */
+public class CombinationIterator implements Iterator<int[]> {
+
+	private final int to;
+
+	/** The current combination. */
+	private final int[] ind;
+
+	/** Whether the current combination has not been returned yet. */
+	private boolean pending = true;
+
+	private boolean hasNext;
+
+	/**
+	 * Instantiates a new iterator.
+	 *
+	 * @param from
+	 *            the first index
+	 * @param to
+	 *            the index after the last one
+	 * @param k
+	 *            the size of the combinations
+	 */
+	public CombinationIterator(int from, int to, int k) {
+		this.to = to;
+		ind = new int[k];
+		for (int i = 0; i < k; i++)
+			ind[i] = from + i;
+		hasNext = k >= 0 && from + k <= to;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (pending || !hasNext)
+			return hasNext;
+		/**
+		 * move the last index that can move, and the following ones right
+		 * after it
+		 */
+		int k = ind.length;
+		int x = k - 1;
+		while (x >= 0 && ind[x] == to - (k - x))
+			x--;
+		if (x < 0) {
+			hasNext = false;
+			return false;
+		}
+		ind[x]++;
+		for (int y = x + 1; y < k; y++)
+			ind[y] = ind[y - 1] + 1;
+		pending = true;
+		return true;
+	}
+
+	@Override
+	public int[] next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		pending = false;
+		return ind;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+}
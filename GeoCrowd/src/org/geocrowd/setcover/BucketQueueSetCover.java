@@ -0,0 +1,153 @@
+/**
+ * *****************************************************************************
+ * @ Year 2013 This is the source code of the following papers.
+ *
+ * 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla
+ * Kazemi, Cyrus Shahabi.
+ *
+ *
+ * Please contact the author Hien To, ubriela@gmail.com if you have any
+ * question.
+ *
+ * Contributors: Hien To - initial implementation
+ ******************************************************************************
+ */
+package org.geocrowd.setcover;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+
+import org.geocrowd.dtype.CandidateGraph;
+
+/**
+ * The greedy selection of the set cover over a candidate graph: the worker
+ * with the most uncovered tasks, the smallest worker index on ties.
+ *
+ * The numbers of uncovered tasks are integers, so the workers are kept in one
+ * bucket per number. When a task is covered, the number of each of its
+ * workers is decremented and the worker is added to the bucket below; it is
+ * left in its old bucket, and skipped when it comes out of it. Each bucket is
+ * a heap of worker indices, so that the smallest index comes first. The
+ * whole cover takes O(E log W) for the E edges of the graph, instead of
+ * scanning every worker at each selection.
+ */
+public class BucketQueueSetCover {
+
+	/** The graph. */
+	private final CandidateGraph graph;
+
+	/** The workers that can be selected with fewer than minCount tasks. */
+	private final boolean[] always;
+
+	/** The least number of uncovered tasks of a selected worker. */
+	private final int minCount;
+
+	/** The number of uncovered tasks of each worker. */
+	private final int[] count;
+
+	/** The covered tasks. */
+	private final boolean[] covered;
+
+	/** The workers by number of uncovered tasks. */
+	private final ArrayList<PriorityQueue<Integer>> buckets;
+
+	/** The largest bucket that may not be empty. */
+	private int top;
+
+	/**
+	 * Instantiates a new bucket queue where no task is covered.
+	 *
+	 * @param graph
+	 *            the graph
+	 * @param minCount
+	 *            a worker is only selected with at least minCount uncovered
+	 *            tasks, and never without any
+	 * @param always
+	 *            the workers selected with fewer tasks than minCount, null
+	 *            for none
+	 */
+	public BucketQueueSetCover(CandidateGraph graph, int minCount,
+			boolean[] always) {
+		this.graph = graph;
+		this.minCount = Math.max(1, minCount);
+		this.always = always;
+		count = new int[graph.workerCount];
+		covered = new boolean[graph.taskCount];
+
+		top = 0;
+		for (int w = 0; w < graph.workerCount; w++) {
+			count[w] = graph.workerDegree(w);
+			top = Math.max(top, count[w]);
+		}
+		buckets = new ArrayList<>(top + 1);
+		for (int c = 0; c <= top; c++)
+			buckets.add(null);
+		for (int w = 0; w < graph.workerCount; w++)
+			push(w);
+	}
+
+	/**
+	 * Add a worker to the bucket of its number of uncovered tasks, if it can
+	 * still be selected.
+	 */
+	private void push(int w) {
+		int c = count[w];
+		if (c == 0 || (c < minCount && (always == null || !always[w])))
+			return;
+		PriorityQueue<Integer> bucket = buckets.get(c);
+		if (bucket == null) {
+			bucket = new PriorityQueue<>();
+			buckets.set(c, bucket);
+		}
+		bucket.add(w);
+	}
+
+	/**
+	 * Number of uncovered tasks of a worker.
+	 *
+	 * @param w
+	 *            the worker index in the graph
+	 * @return the count
+	 */
+	public int count(int w) {
+		return count[w];
+	}
+
+	/**
+	 * Select the worker with the most uncovered tasks and cover its tasks.
+	 *
+	 * @return the worker index in the graph, -1 if no worker can be selected
+	 */
+	public int select() {
+		while (top > 0) {
+			PriorityQueue<Integer> bucket = buckets.get(top);
+			while (bucket != null && !bucket.isEmpty()) {
+				int w = bucket.poll();
+				if (count[w] == top) {
+					cover(w);
+					return w;
+				}
+			}
+			top--;
+		}
+		return -1;
+	}
+
+	/**
+	 * Cover the tasks of a worker, and move the workers of the newly covered
+	 * tasks to their new buckets.
+	 */
+	private void cover(int w) {
+		for (int e = graph.workerStart[w]; e < graph.workerStart[w + 1]; e++) {
+			int t = graph.workerTasks[e];
+			if (covered[t])
+				continue;
+			covered[t] = true;
+			for (int f = graph.taskStart[t]; f < graph.taskStart[t + 1]; f++) {
+				int v = graph.taskWorkers[f];
+				count[v]--;
+				push(v);
+			}
+		}
+	}
+}
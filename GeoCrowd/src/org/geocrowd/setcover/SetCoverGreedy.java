@@ -20,6 +20,9 @@ import java.util.HashSet;
 
 import org.geocrowd.common.crowd.GenericTask;
 import org.geocrowd.common.crowd.VirtualWorker;
+import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CandidateGraph;
+import org.geocrowd.dtype.CoverageBitSet;
 
 // TODO: Auto-generated Javadoc
 /**
@@ -34,6 +37,18 @@ public abstract class SetCoverGreedy {
      */
     public ArrayList listOfSets = null;
 
+    /**
+     * The same worker/task adjacency as listOfSets, in compressed sparse rows.
+     * Tasks without deadline info have deadline 0.
+     */
+    public CandidateGraph graph = null;
+
+    /**
+     * The covered tasks and the tasks of each worker in bitsets over the dense
+     * task indices of the graph, in sync with assignedTaskSet.
+     */
+    public CoverageBitSet coverage = null;
+
     /**
      * All the task index in the candidate tasks (not the task list).
      */
@@ -80,6 +95,7 @@ public abstract class SetCoverGreedy {
         listOfSets = new ArrayList<>();
         universe = new HashSet<>();
         currentTimeInstance = current_time_instance;
+        CandidateGraph.Builder builder = new CandidateGraph.Builder();
         if (container.size() > 0 && container.get(0).getClass().isInstance(new ArrayList())) {
             for (int i = 0; i < container.size(); i++) {
 
@@ -87,7 +103,9 @@ public abstract class SetCoverGreedy {
                 if (items != null) {
                     HashSet<Integer> itemSet = new HashSet<Integer>(items);
                     listOfSets.add(itemSet);
-                    universe.addAll(itemSet);
+                    builder.addWorker();
+                    for (Integer item : itemSet)
+                        builder.addTask(item, 0);
                 }
             }
         } else {
@@ -97,10 +115,35 @@ public abstract class SetCoverGreedy {
                 if (items != null) {
                     HashMap<Integer, Integer> itemSet = new HashMap<>(items);
                     listOfSets.add(itemSet);
-                    universe.addAll(itemSet.keySet());
+                    builder.addWorker();
+                    for (Integer item : itemSet.keySet())
+                        builder.addTask(item, itemSet.get(item));
                 }
             }
         }
+        graph = builder.build();
+        coverage = new CoverageBitSet(graph);
+        for (int taskId : graph.taskIds)
+            universe.add(taskId);
+    }
+
+    /**
+     * Cover the tasks of a selected worker, the newly covered tasks are added
+     * to assignedTaskSet and their delays to averageDelayTime.
+     *
+     * @param worker
+     *            the worker index in listOfSets
+     */
+    protected void coverTasks(int worker) {
+        for (int e = graph.workerStart[worker]; e < graph.workerStart[worker + 1]; e++) {
+            int t = graph.workerTasks[e];
+            if (coverage.coverTask(t)) {
+                averageDelayTime += currentTimeInstance
+                        - (graph.taskDeadline[t] - GeocrowdConstants.MAX_TASK_DURATION)
+                        + 1;
+                assignedTaskSet.add(graph.taskIds[t]);
+            }
+        }
     }
 
     /**
@@ -15,11 +15,9 @@
 package org.geocrowd.setcover;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Set;
 
-import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CoverageBitSet;
 
 // TODO: Auto-generated Javadoc
 /**
@@ -33,62 +31,26 @@ public class SetCoverGreedy_HighTaskCoverage extends SetCoverGreedy {
 	}
 
 	/**
-	 * Greedy algorithm.
+	 * Greedy algorithm, see BucketQueueSetCover.
 	 * 
-	 * @return the number of assigned workers
+	 * @return the assigned workers, their indices in listOfSets
 	 */
 	@Override
 	public HashSet<Integer> minSetCover() {
-		ArrayList<HashMap<Integer, Integer>> S = (ArrayList<HashMap<Integer, Integer>>) listOfSets
-				.clone();
-
-		/**
-		 * Q is the universe of tasks
-		 */
-		HashSet<Integer> Q = (HashSet<Integer>) universe.clone();
 		assignedTaskSet = new HashSet<Integer>();
+		coverage = new CoverageBitSet(graph);
+		BucketQueueSetCover queue = new BucketQueueSetCover(graph, 1, null);
 
 		/**
 		 * Run until no more tasks to cover
 		 */
-		while (!Q.isEmpty()) {
-			int bestWorkerIndex = 0; // track index of the best worker in S
-			int maxNoUncoveredTasks = 0;
-			/**
-			 * Iterate all workers, find the one which covers maximum number of
-			 * uncovered tasks
-			 */
-			for (int k = 0; k < S.size(); k++) {
-				HashMap<Integer, Integer> s = S.get(k); // task set covered by
-														// current worker
-				int noUncoveredTasks = 0;
-				for (Integer i : s.keySet()) {
-					if (!assignedTaskSet.contains(i)) {
-						noUncoveredTasks++;
-					}
-				}
-				if (noUncoveredTasks > maxNoUncoveredTasks) {
-					maxNoUncoveredTasks = noUncoveredTasks;
-					bestWorkerIndex = k;
-				}
-			}
-
-			assignWorkers.add(bestWorkerIndex);
-			HashMap<Integer, Integer> taskSet = S.get(bestWorkerIndex);
-			S.remove(taskSet);
-			Q.removeAll(taskSet.keySet());
-
+		int worker;
+		while ((worker = queue.select()) > -1) {
+			assignWorkers.add(worker);
 			/**
 			 * compute average time to assign tasks in taskSet
 			 */
-			for (Integer taskidx : taskSet.keySet())
-				if (!assignedTaskSet.contains(taskidx)) {
-
-					averageDelayTime += currentTimeInstance
-							- (taskSet.get(taskidx) - GeocrowdConstants.MAX_TASK_DURATION)
-							+ 1;
-					assignedTaskSet.add(taskidx);
-				}
+			coverTasks(worker);
 		}
 		assignedTasks = assignedTaskSet.size();
 		System.out.println("#Task assigned: " + assignedTasks);
@@ -20,6 +20,7 @@ import java.util.HashSet;
 
 import org.geocrowd.Constants;
 import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CoverageBitSet;
 
 /**
  * @author Luan
@@ -53,76 +54,39 @@ public class SetCoverGreedy_LargeWorkerFanout extends SetCoverGreedy {
 	}
 
 	/**
-	 * Greedy algorithm.
+	 * Greedy algorithm, see BucketQueueSetCover.
 	 * 
-	 * @return number of assigned workers
+	 * @return the assigned workers, their indices in listOfSets
 	 */
 	public HashSet<Integer> minSetCover() {
-		ArrayList<HashMap<Integer, Integer>> S = (ArrayList<HashMap<Integer, Integer>>) listOfSets
-				.clone();
-		/**
-		 * Q is the universe of tasks
-		 */
-		HashSet<Integer> Q = (HashSet<Integer>) universe.clone();
 		/**
 		 * store all assigned tasks
 		 */
 		assignedTaskSet = new HashSet<Integer>();
+		coverage = new CoverageBitSet(graph);
 
-		while (!Q.isEmpty()) {
-			int bestWorkerIndex = -1;
-			int maxNoUncoveredTask = 0;
-
-			/**
-			 * Iterate all workers, find the one which covers maximum number of
-			 * uncovered tasks
-			 */
-			for (int j = 0; j < S.size(); j++) {
-				HashMap<Integer, Integer> s = S.get(j);
-				int noUncoveredTasks = 0;
-				for (Integer i : s.keySet()) {
-					if (!assignedTaskSet.contains(i)) {
-						noUncoveredTasks++;
-					}
-				}
-				/**
-				 * check condition: only select workers that either cover 
-				 * at least K (e.g.,= k=2,3..) tasks or
-				 * cover any task that will not available in the next time instance
-				 */
-				if (noUncoveredTasks > maxNoUncoveredTask
-						&& (noUncoveredTasks >= Constants.M || containElementDeadAtNextTime(
-								s, currentTimeInstance))) 
-				{
-					maxNoUncoveredTask = noUncoveredTasks;
-					bestWorkerIndex = j;
-
-				}
-			}
-			
-			/**
-			 * why this?
-			 */
-			if (bestWorkerIndex == -1) {
-				break;
-			}
-			assignWorkers.add(bestWorkerIndex);
+		/**
+		 * only select workers that either cover at least K (e.g.,= k=2,3..)
+		 * tasks or cover any task that will not available in the next time
+		 * instance
+		 */
+		boolean[] deadAtNextTime = new boolean[listOfSets.size()];
+		for (int j = 0; j < listOfSets.size(); j++) {
+			Object s = listOfSets.get(j);
+			deadAtNextTime[j] = s instanceof HashMap ? containElementDeadAtNextTime(
+					(HashMap<Integer, Integer>) s, currentTimeInstance)
+					: currentTimeInstance == GeocrowdConstants.TIME_INSTANCE - 1;
+		}
+		BucketQueueSetCover queue = new BucketQueueSetCover(graph,
+				Constants.M, deadAtNextTime);
 
-			HashMap<Integer, Integer> taskSet = S.get(bestWorkerIndex);
-			S.remove(taskSet);
-			Q.removeAll(taskSet.keySet());
+		int worker;
+		while ((worker = queue.select()) > -1) {
+			assignWorkers.add(worker);
 			/**
 			 * compute average time to assign tasks in taskSet
 			 */
-			for (Integer taskId : taskSet.keySet()) {
-				if (!assignedTaskSet.contains(taskId)) {
-
-					averageDelayTime += currentTimeInstance
-							- (taskSet.get(taskId) - GeocrowdConstants.MAX_TASK_DURATION) + 1;
-					assignedTaskSet.add(taskId);
-				}
-			}
-
+			coverTasks(worker);
 		}
 
 		assignedTasks = assignedTaskSet.size();
@@ -15,11 +15,11 @@
 package org.geocrowd.setcover;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.HashSet;
-import java.util.Set;
+import java.util.PriorityQueue;
 
-import org.geocrowd.datasets.params.GeocrowdConstants;
+import org.geocrowd.dtype.CoverageBitSet;
 
 // TODO: Auto-generated Javadoc
 /**
@@ -34,88 +34,111 @@ public class SetCoverGreedy_LowWorkerCoverage extends SetCoverGreedy {
     }
 
     /**
-     * Compute number of sets associates with uncovered elements in a set.
-     *
-     * @param S the s
-     * @param s the s
-     * @param C the c
-     * @return the int
+     * A candidate set with its number of uncovered elements and of associate
+     * sets when it was queued, it is stale when they changed since.
      */
-    private int computeAssociateSets(ArrayList<HashMap<Integer, Integer>> S, HashMap<Integer, Integer> s,
-            HashSet<Integer> C) {
-        int numAssociateSet = 0; //initialize  varibale
-        //loop for uncovered elements
-        for (Integer i : s.keySet()) {
-            if (!C.contains(i)) { //check uncovered condition. 
-                for (HashMap<Integer, Integer> s2 : S) {
-                    if (s2.keySet().contains(i)) {
-                        numAssociateSet++;
-                    }
-                }
-            }
+    private static class Candidate {
+
+        final int worker;
+        final int newElem;
+        final int numAssociateSet;
+
+        Candidate(int worker, int newElem, int numAssociateSet) {
+            this.worker = worker;
+            this.newElem = newElem;
+            this.numAssociateSet = numAssociateSet;
         }
-        return numAssociateSet;
     }
 
+    /**
+     * The set that maximizes coverage first, then the one with the smaller
+     * associate sets, then the first one.
+     */
+    private static final Comparator<Candidate> ORDER = new Comparator<Candidate>() {
+        @Override
+        public int compare(Candidate c1, Candidate c2) {
+            if (c1.newElem != c2.newElem)
+                return Integer.compare(c2.newElem, c1.newElem);
+            if (c1.numAssociateSet != c2.numAssociateSet)
+                return Integer.compare(c1.numAssociateSet, c2.numAssociateSet);
+            return Integer.compare(c1.worker, c2.worker);
+        }
+    };
+
     /**
      * Greedy algorithm.
      *
-     * @return the int
+     * The number of sets associates with the uncovered elements of a set is
+     * the sum of their frequencies, the number of sets not selected yet that
+     * contain them. The frequencies, the uncovered elements and the associate
+     * sets of every set are kept in arrays, and updated through the task
+     * adjacency of the graph when a set is selected; the sets are queued by
+     * their counts, and a set is queued again each time they change. The
+     * cover takes O(E log E) for the E edges of the graph.
+     *
+     * @return the assigned workers, their indices in listOfSets
      */
     @Override
     public HashSet<Integer> minSetCover() {
-        ArrayList<HashMap<Integer, Integer>> S = (ArrayList<HashMap<Integer, Integer>>) listOfSets.clone();
-        HashSet<Integer> Q = (HashSet<Integer>) universe.clone();
         assignedTaskSet = new HashSet<Integer>();
+        coverage = new CoverageBitSet(graph);
 
-        ArrayList<HashSet<Integer>> AW = new ArrayList<>();
+        int setSize = graph.workerCount;
+        int[] frequency = new int[graph.taskCount];
+        for (int t = 0; t < graph.taskCount; t++)
+            frequency[t] = graph.taskDegree(t);
+        int[] newElem = new int[setSize];
+        int[] numAssociateSet = new int[setSize];
+        boolean[] selected = new boolean[setSize];
 
-        int set_size = S.size();
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Math.max(1, setSize), ORDER);
+        for (int o = 0; o < setSize; o++) {
+            newElem[o] = graph.workerDegree(o);
+            for (int e = graph.workerStart[o]; e < graph.workerStart[o + 1]; e++)
+                numAssociateSet[o] += frequency[graph.workerTasks[e]];
+            if (newElem[o] > 0)
+                queue.add(new Candidate(o, newElem[o], numAssociateSet[o]));
+        }
 
-        while (!Q.isEmpty()) {
-            HashMap<Integer, Integer> maxSet = null;
-            int maxElem = 0;
-            int numAssociateSet = 0; // number of sets associates with maxSet.
-            for ( int o=0 ; o < S.size();o++) {
-                // select the item set that maximize coverage
-                // how many elements in s that are not in C
-            	HashMap<Integer, Integer> s = S.get(o);
-                int newElem = 0;
+        /**
+         * the sets whose counts changed with the last selected set
+         */
+        int[] changed = new int[setSize];
+        ArrayList<Integer> changedSets = new ArrayList<>();
+        int round = 0;
+        while (!queue.isEmpty()) {
+            Candidate c = queue.poll();
+            int maxSet = c.worker;
+            if (selected[maxSet] || c.newElem != newElem[maxSet]
+                    || c.numAssociateSet != numAssociateSet[maxSet])
+                continue;
+            selected[maxSet] = true;
+            assignWorkers.add(maxSet);
 
-                for (Integer i : s.keySet()) {
-                    if (!assignedTaskSet.contains(i)) {
-                        newElem++;
-                    }
-                }
-                if (newElem > maxElem) {
-                    maxElem = newElem;
-                    maxSet = s;
-                    numAssociateSet = computeAssociateSets(S, s, assignedTaskSet);
-                    assignWorkers.add(o);
-                } else if (newElem == maxElem) //compare associate sets , choose the smaller
-                {
-                    int n = computeAssociateSets(S, s, assignedTaskSet);
-                    if (n < numAssociateSet) {
-                        maxElem = newElem;
-                        maxSet = s;
-                        numAssociateSet = n;
-                        assignWorkers.add(o);
+            round++;
+            changedSets.clear();
+            for (int e = graph.workerStart[maxSet]; e < graph.workerStart[maxSet + 1]; e++) {
+                int t = graph.workerTasks[e];
+                if (!coverage.isCovered(t))
+                    for (int f = graph.taskStart[t]; f < graph.taskStart[t + 1]; f++) {
+                        int o = graph.taskWorkers[f];
+                        if (selected[o])
+                            continue;
+                        newElem[o]--;
+                        numAssociateSet[o] -= frequency[t];
+                        if (changed[o] != round) {
+                            changed[o] = round;
+                            changedSets.add(o);
+                        }
                     }
-                }
+                frequency[t]--;
             }
+            for (int o : changedSets)
+                if (newElem[o] > 0)
+                    queue.add(new Candidate(o, newElem[o], numAssociateSet[o]));
 
-            S.remove(maxSet);
-            Q.removeAll(maxSet.keySet());
             //compute average time to assign tasks 
-            Set assignedSet = maxSet.keySet();
-            for (Object kt : assignedSet) {
-                Integer key = (Integer)kt;
-                if (!assignedTaskSet.contains(key)) {
-                    
-                    averageDelayTime += currentTimeInstance - (maxSet.get(key) - GeocrowdConstants.MAX_TASK_DURATION) + 1;
-                    assignedTaskSet.add(key);
-                }
-            }
+            coverTasks(maxSet);
         }
 
         //compute workers per task
@@ -0,0 +1,210 @@
+/*******************************************************************************
+* @ Year 2013
+* This is the source code of the following papers.
+*
+* 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+*
+*
+* Please contact the author Hien To, ubriela@gmail.com if you have any question.
+*
+* Contributors:
+* Hien To - initial implementation
+*******************************************************************************/
+package test.geocrowd;
+
+import java.util.Random;
+
+import org.geocrowd.maxcover.BoundedSimplex;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * BoundedSimplex against the best vertex of small random LPs, solved from
+ * the slacks and warm started after bound changes.
+ */
+public class BoundedSimplexTest {
+
+	private static final double EPSILON = 1e-6;
+
+	/** A random LP max c x s.t. A x <= b, l <= x <= u. */
+	private static class Problem {
+		int m, n;
+		double[][] a;
+		double[] b, c, l, u;
+
+		Problem(Random r) {
+			m = 1 + r.nextInt(3);
+			n = 1 + r.nextInt(4);
+			a = new double[m][n];
+			b = new double[m];
+			c = new double[n];
+			l = new double[n];
+			u = new double[n];
+			for (int i = 0; i < m; i++) {
+				for (int j = 0; j < n; j++)
+					a[i][j] = r.nextInt(7) - 3;
+				b[i] = r.nextInt(9) - 2;
+			}
+			for (int j = 0; j < n; j++) {
+				c[j] = r.nextInt(7) - 3;
+				l[j] = r.nextInt(2);
+				u[j] = l[j] + r.nextInt(3);
+			}
+		}
+
+		BoundedSimplex simplex() {
+			int[] start = new int[n + 1];
+			int[] rows = new int[m * n];
+			double[] values = new double[m * n];
+			int e = 0;
+			for (int j = 0; j < n; j++) {
+				for (int i = 0; i < m; i++)
+					if (a[i][j] != 0) {
+						rows[e] = i;
+						values[e++] = a[i][j];
+					}
+				start[j + 1] = e;
+			}
+			BoundedSimplex lp = new BoundedSimplex(m, n, start, rows, values);
+			for (int i = 0; i < m; i++)
+				lp.setRhs(i, b[i]);
+			for (int j = 0; j < n; j++) {
+				lp.setObjective(j, c[j]);
+				lp.setBounds(j, l[j], u[j]);
+			}
+			return lp;
+		}
+
+		/**
+		 * The best vertex: every choice of n tight constraints among the rows
+		 * and the bounds, Double.NEGATIVE_INFINITY if none is feasible.
+		 */
+		double bruteForce() {
+			int k = m + 2 * n;
+			double best = Double.NEGATIVE_INFINITY;
+			for (int mask = 0; mask < (1 << k); mask++) {
+				if (Integer.bitCount(mask) != n)
+					continue;
+				double[][] s = new double[n][n + 1];
+				int row = 0;
+				for (int t = 0; t < k; t++) {
+					if ((mask >> t & 1) == 0)
+						continue;
+					if (t < m) {
+						System.arraycopy(a[t], 0, s[row], 0, n);
+						s[row][n] = b[t];
+					} else {
+						int j = (t - m) / 2;
+						s[row][j] = 1;
+						s[row][n] = (t - m) % 2 == 0 ? l[j] : u[j];
+					}
+					row++;
+				}
+				double[] x = solveSystem(s);
+				if (x != null && feasible(x)) {
+					double z = 0;
+					for (int j = 0; j < n; j++)
+						z += c[j] * x[j];
+					best = Math.max(best, z);
+				}
+			}
+			return best;
+		}
+
+		boolean feasible(double[] x) {
+			for (int j = 0; j < n; j++)
+				if (x[j] < l[j] - EPSILON || x[j] > u[j] + EPSILON)
+					return false;
+			for (int i = 0; i < m; i++) {
+				double v = 0;
+				for (int j = 0; j < n; j++)
+					v += a[i][j] * x[j];
+				if (v > b[i] + EPSILON)
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Gaussian elimination, null if the system is singular.
+	 */
+	private static double[] solveSystem(double[][] s) {
+		int n = s.length;
+		for (int c = 0; c < n; c++) {
+			int p = c;
+			for (int i = c + 1; i < n; i++)
+				if (Math.abs(s[i][c]) > Math.abs(s[p][c]))
+					p = i;
+			if (Math.abs(s[p][c]) < 1e-9)
+				return null;
+			double[] t = s[p];
+			s[p] = s[c];
+			s[c] = t;
+			for (int i = 0; i < n; i++) {
+				if (i == c)
+					continue;
+				double f = s[i][c] / s[c][c];
+				for (int k = c; k <= n; k++)
+					s[i][k] -= f * s[c][k];
+			}
+		}
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++)
+			x[i] = s[i][n] / s[i][i];
+		return x;
+	}
+
+	private static void assertSolved(Problem p, BoundedSimplex lp, double z) {
+		double expected = p.bruteForce();
+		assertEquals(expected, z, EPSILON);
+		if (z == Double.NEGATIVE_INFINITY)
+			return;
+		double[] x = new double[p.n];
+		double value = 0;
+		for (int j = 0; j < p.n; j++) {
+			x[j] = lp.value(j);
+			value += p.c[j] * x[j];
+		}
+		assertEquals(z, value, EPSILON);
+		assertEquals(true, p.feasible(x));
+	}
+
+	@Test
+	public void testRandom() {
+		Random r = new Random(3);
+		for (int it = 0; it < 2000; it++) {
+			Problem p = new Problem(r);
+			BoundedSimplex lp = p.simplex();
+			assertSolved(p, lp, lp.solve(1000));
+		}
+	}
+
+	/**
+	 * Change the bounds of one variable at a time, as a branch and bound node,
+	 * from the last basis or from the first one.
+	 */
+	@Test
+	public void testWarmStart() {
+		Random r = new Random(5);
+		for (int it = 0; it < 500; it++) {
+			Problem p = new Problem(r);
+			BoundedSimplex lp = p.simplex();
+			lp.solve(1000);
+			int[] first = lp.getBasis();
+			for (int change = 0; change < 5; change++) {
+				int j = r.nextInt(p.n);
+				p.l[j] = r.nextInt(2);
+				p.u[j] = p.l[j] + r.nextInt(2);
+				lp.setBounds(j, p.l[j], p.u[j]);
+				int i = r.nextInt(p.m);
+				p.b[i] = r.nextInt(9) - 2;
+				lp.setRhs(i, p.b[i]);
+				if (change % 2 == 1)
+					lp.setBasis(first);
+				assertSolved(p, lp, lp.solve(1000));
+			}
+		}
+	}
+}
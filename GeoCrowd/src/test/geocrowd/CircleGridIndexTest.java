@@ -0,0 +1,114 @@
+/*******************************************************************************
+* @ Year 2013
+* This is the source code of the following papers.
+*
+* 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+*
+*
+* Please contact the author Hien To, ubriela@gmail.com if you have any question.
+*
+* Contributors:
+* Hien To - initial implementation
+*******************************************************************************/
+package test.geocrowd;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.geocrowd.DatasetEnum;
+import org.geocrowd.GeocrowdTaskUtility;
+import org.geocrowd.TaskType;
+import org.geocrowd.WorkerType;
+import org.geocrowd.common.crowd.GenericTask;
+import org.geocrowd.common.crowd.GenericWorker;
+import org.geocrowd.common.crowd.TaskFactory;
+import org.geocrowd.common.crowd.WorkerFactory;
+import org.geocrowd.dtype.CircleGridIndex;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The circle query of CircleGridIndex, filtered by the exact distance, must
+ * find the same tasks as distanceWorkerTask over all of them.
+ */
+public class CircleGridIndexTest {
+
+	@Test
+	public void testGeographic() {
+		Random r = new Random(11);
+		/* mid latitudes */
+		check(DatasetEnum.GOWALLA, r, 30, 40, -120, -110, 5);
+		/* high latitudes, where a degree of longitude is short */
+		check(DatasetEnum.GOWALLA, r, 80, 89, 0, 40, 50);
+		check(DatasetEnum.GOWALLA, r, -89, -75, -30, 30, 100);
+	}
+
+	@Test
+	public void testPlanar() {
+		Random r = new Random(13);
+		check(DatasetEnum.UNIFORM, r, 0, 100, 0, 100, 5);
+		check(DatasetEnum.UNIFORM, r, 0, 10, 0, 1000, 20);
+	}
+
+	@Test
+	public void testEmpty() {
+		CircleGridIndex index = new CircleGridIndex(new int[0], new double[0],
+				new double[0], 5, true);
+		assertEquals(0, index.query(10, 10).size());
+	}
+
+	/**
+	 * Tasks uniform in a box, queries uniform in the box grown by the radius
+	 * so that they also fall near and past the border of the grid.
+	 */
+	private void check(DatasetEnum dataset, Random r, double minLat,
+			double maxLat, double minLng, double maxLng, double radius) {
+		boolean geographic = GeocrowdTaskUtility.isGeographic(dataset);
+		int n = 500;
+		int[] ids = new int[n];
+		double[] lats = new double[n];
+		double[] lngs = new double[n];
+		GenericTask[] tasks = new GenericTask[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = i;
+			lats[i] = minLat + r.nextDouble() * (maxLat - minLat);
+			lngs[i] = minLng + r.nextDouble() * (maxLng - minLng);
+			tasks[i] = TaskFactory.getTask(TaskType.EXPERT, lats[i], lngs[i]);
+		}
+		CircleGridIndex index = new CircleGridIndex(ids, lats, lngs, radius,
+				geographic);
+
+		double marginLat = geographic ? Math.toDegrees(radius
+				/ GeocrowdTaskUtility.EARTH_RADIUS) : radius;
+		double marginLng = geographic ? 2 * marginLat : radius;
+		for (int q = 0; q < 300; q++) {
+			double lat = minLat - marginLat + r.nextDouble()
+					* (maxLat - minLat + 2 * marginLat);
+			double lng = minLng - marginLng + r.nextDouble()
+					* (maxLng - minLng + 2 * marginLng);
+			if (geographic)
+				lat = Math.max(-90, Math.min(90, lat));
+			GenericWorker w = WorkerFactory.getWorker(WorkerType.EXPERT, lat,
+					lng);
+
+			HashSet<Integer> expected = new HashSet<Integer>();
+			for (int i = 0; i < n; i++)
+				if (GeocrowdTaskUtility.distanceWorkerTask(dataset, w, tasks[i]) <= radius)
+					expected.add(i);
+
+			ArrayList<Integer> candidates = index.query(lat, lng);
+			HashSet<Integer> found = new HashSet<Integer>();
+			for (int i : candidates)
+				if (GeocrowdTaskUtility.distanceWorkerTask(dataset, w, tasks[i]) <= radius)
+					found.add(i);
+			assertEquals(candidates.size(), new HashSet<Integer>(candidates)
+					.size());
+			assertEquals(expected, found);
+		}
+		/* the stencil must actually prune at this density */
+		assertTrue(index.query(lats[0], lngs[0]).size() < n);
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+* @ Year 2013
+* This is the source code of the following papers.
+*
+* 1) Geocrowd: A Server-Assigned Crowdsourcing Framework. Hien To, Leyla Kazemi, Cyrus Shahabi.
+*
+*
+* Please contact the author Hien To, ubriela@gmail.com if you have any question.
+*
+* Contributors:
+* Hien To - initial implementation
+*******************************************************************************/
+package test.geocrowd;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.geocrowd.maxcover.MaxCoverBranchAndBound;
+import org.geocrowd.maxcover.MaxCoverModel;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MaxCoverBranchAndBound against all the selections of small random models,
+ * with one budget and with a budget per time instance.
+ */
+public class MaxCoverBranchAndBoundTest {
+
+	private static MaxCoverModel model(Random r, boolean instances) {
+		int workers = 2 + r.nextInt(11);
+		double p = 0.05 + 0.3 * r.nextDouble();
+		HashMap<Integer, ArrayList<Integer>> taskContainer = new HashMap<>();
+		int tasks = 3 + r.nextInt(25);
+		for (int t = 0; t < tasks; t++) {
+			ArrayList<Integer> taskWorkers = new ArrayList<>();
+			for (int w = 0; w < workers; w++)
+				if (r.nextDouble() < p)
+					taskWorkers.add(w);
+			taskContainer.put(t, taskWorkers);
+		}
+		MaxCoverModel model = new MaxCoverModel(workers, taskContainer,
+				1 + r.nextInt(workers));
+		if (instances)
+			for (int i = 0; i < 3; i++) {
+				int[] group = new int[(workers - i + 2) / 3];
+				for (int k = 0; k < group.length; k++)
+					group[k] = i + 3 * k;
+				model.addBudget(group, 1 + r.nextInt(2));
+			}
+		return model;
+	}
+
+	/**
+	 * Whether a selection is within the budgets.
+	 */
+	private static boolean feasible(MaxCoverModel model, boolean[] selected) {
+		int[][] groups = model.workerGroups();
+		int[] used = new int[model.groupWorkers.size()];
+		for (int w = 0; w < model.workerCount; w++)
+			if (selected[w])
+				for (int g : groups[w])
+					if (++used[g] > model.groupBudget.get(g))
+						return false;
+		return true;
+	}
+
+	/**
+	 * The most tasks covered by a selection within the budgets.
+	 */
+	private static int bruteForce(MaxCoverModel model) {
+		int best = 0;
+		boolean[] selected = new boolean[model.workerCount];
+		for (int mask = 0; mask < 1 << model.workerCount; mask++) {
+			for (int w = 0; w < model.workerCount; w++)
+				selected[w] = (mask >> w & 1) == 1;
+			if (feasible(model, selected))
+				best = Math.max(best, model.coveredCount(selected));
+		}
+		return best;
+	}
+
+	@Test
+	public void testSolve() {
+		Random r = new Random(17);
+		for (int it = 0; it < 300; it++) {
+			MaxCoverModel model = model(r, it % 2 == 0);
+			int expected = bruteForce(model);
+			MaxCoverBranchAndBound solver = new MaxCoverBranchAndBound(model);
+			assertEquals(expected, solver.solve());
+			assertTrue(solver.optimal);
+			assertTrue(solver.rootBound >= expected - 1e-6);
+			assertTrue(feasible(model, solver.selected));
+			assertEquals(expected, model.coveredCount(solver.selected));
+		}
+	}
+
+	@Test
+	public void testSolveComponents() {
+		Random r = new Random(19);
+		for (int it = 0; it < 300; it++) {
+			MaxCoverModel model = model(r, false);
+			int expected = bruteForce(model);
+			MaxCoverBranchAndBound solver = new MaxCoverBranchAndBound(model);
+			assertEquals(expected, solver.solveComponents());
+			assertTrue(feasible(model, solver.selected));
+			assertEquals(expected, model.coveredCount(solver.selected));
+		}
+	}
+}
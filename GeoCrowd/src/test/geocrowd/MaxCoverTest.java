@@ -16,15 +16,28 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Random;
 
+import org.geocrowd.Constants;
+import org.geocrowd.Geocrowd;
+import org.geocrowd.common.crowd.SensingTask;
+import org.geocrowd.common.crowd.SensingWorker;
+import org.geocrowd.dtype.CandidateGraph;
 import org.geocrowd.maxcover.MaxCoverAdaptB;
 import org.geocrowd.maxcover.MaxCoverBasic;
 import org.geocrowd.maxcover.MaxCoverEqualGA;
+import org.geocrowd.maxcover.MaxCoverSieveStreaming;
+import org.geocrowd.maxcover.MaxCoverSpatialTemporal;
 import org.geocrowd.maxcover.MaxCoverTemporal;
+import org.geocrowd.maxcover.budget.BudgetedMaxCoverBasic;
+import org.geocrowd.maxcover.budget.CostProfit;
 import org.geocrowd.setcover.SetCoverGreedy;
 import org.geocrowd.setcover.SetCoverGreedy_HighTaskCoverage;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 // TODO: Auto-generated Javadoc
 /**
  * The Class SetCoverTest.
@@ -114,6 +127,113 @@ public class MaxCoverTest {
 		System.out.println(no_set);
 	}
 	
+	@Test
+	public void testBudgetedMaxCoverBasic() {
+		ArrayList<HashMap<Integer, Integer>> container = getContainer();
+		double[] costs = { 3, 2, 1, 1, 3 };
+		HashMap<Integer, HashMap<Integer, CostProfit>> wtCostProfit = new HashMap<>();
+		HashMap<Integer, Double> workerCost = new HashMap<>();
+		HashMap<Integer, Double> taskProfit = new HashMap<>();
+		for (int i = 0; i < container.size(); i++) {
+			HashMap<Integer, CostProfit> tasks = new HashMap<>();
+			for (int tid : container.get(i).keySet()) {
+				tasks.put(tid, new CostProfit());
+				taskProfit.put(tid, 1.0);
+			}
+			wtCostProfit.put(i, tasks);
+			workerCost.put(i, costs[i]);
+		}
+		BudgetedMaxCoverBasic mc = new BudgetedMaxCoverBasic(wtCostProfit,
+				workerCost, taskProfit, 0);
+		mc.budget = 4;
+
+		assertEquals(9.0, mc.maxCover(), 1e-9);
+		assertEquals(new HashSet<>(Arrays.asList(0, 2)), mc.SelectedWorkers);
+		System.out.println(mc.SelectedWorkers);
+	}
+
+	/**
+	 * The spatial temporal weights are normalized by the max entropy, the
+	 * selection must not depend on the threads that evaluate them.
+	 */
+	@Test
+	public void testSpatialTemporalParallel() {
+		HashSet<Integer> sequential = spatialTemporal(1);
+		assertEquals(sequential, spatialTemporal(4));
+		assertEquals(new HashSet<>(Arrays.asList(0, 1, 2, 3, 4)), sequential);
+	}
+
+	private HashSet<Integer> spatialTemporal(int parallelism) {
+		ArrayList<HashMap<Integer, Integer>> container = new ArrayList<>();
+		HashMap<Integer, Double> entropies = new HashMap<>();
+		for (int w = 0; w < 1000; w++) {
+			HashMap<Integer, Integer> tasks = new HashMap<Integer, Integer>();
+			tasks.put(w, 3);
+			container.add(tasks);
+			entropies.put(w, w + 1.0);
+		}
+		int saved = Constants.parallelism;
+		Constants.parallelism = parallelism;
+		try {
+			MaxCoverSpatialTemporal mc = new MaxCoverSpatialTemporal(
+					container, 0);
+			mc.budget = 5;
+			mc.setWorkerEntropies(entropies);
+			return mc.maxCover();
+		} finally {
+			Constants.parallelism = saved;
+		}
+	}
+
+	/**
+	 * Offering the workers as they are matched selects the same workers as
+	 * streaming them from the graph afterwards.
+	 */
+	@Test
+	public void testSieveStreamingOffer() {
+		Random r = new Random(7);
+		Geocrowd.workerList = new ArrayList<>();
+		Geocrowd.tasksMap = new HashMap<>();
+		ArrayList<SensingTask> tasks = new ArrayList<>();
+		for (int j = 0; j < 60; j++) {
+			SensingTask t = new SensingTask(j, r.nextDouble() * 10,
+					r.nextDouble() * 10, 0, 5);
+			Geocrowd.tasksMap.put(j, t);
+			tasks.add(t);
+		}
+
+		MaxCoverSieveStreaming streamed = new MaxCoverSieveStreaming(0);
+		streamed.budget = 4;
+		CandidateGraph.Builder builder = new CandidateGraph.Builder();
+		for (int i = 0; i < 40; i++) {
+			SensingWorker w = new SensingWorker("w" + i, r.nextDouble() * 10,
+					r.nextDouble() * 10, 0);
+			Geocrowd.workerList.add(w);
+			builder.addWorker();
+			ArrayList<SensingTask> matched = new ArrayList<>();
+			for (SensingTask t : tasks)
+				if (Math.hypot(w.getLat() - t.getLat(), w.getLng() - t.getLng()) <= 2) {
+					builder.addTask((int) t.getId(), 5);
+					matched.add(t);
+				}
+			streamed.offer(i, matched);
+		}
+		CandidateGraph graph = builder.build();
+		streamed.setGraph(graph);
+		HashSet<Integer> selected = streamed.maxCover();
+
+		MaxCoverSieveStreaming replayed = new MaxCoverSieveStreaming(graph, 0);
+		replayed.budget = 4;
+		assertEquals(replayed.maxCover(), selected);
+		assertEquals(replayed.assignedUtility, streamed.assignedUtility, 1e-9);
+		assertTrue(selected.size() > 0 && selected.size() <= 4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSieveStreamingEpsilon() {
+		new MaxCoverSieveStreaming(0).setEpsilon(0);
+	}
+
 	@Test
 	public void testMaxCoverBasicMO() {
 		ArrayList<HashMap<Integer, Integer>> container = getContainer();
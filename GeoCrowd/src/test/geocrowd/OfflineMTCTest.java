@@ -171,7 +171,7 @@ public class OfflineMTCTest {
 
 			//compute the #tasks/worker
 			
-			ArrayList<HashMap<Integer, Integer>> tasksWithDeadline = offlineMTC.containerWorkerWithTaskDeadline;
+			ArrayList<HashMap<Integer, Integer>> tasksWithDeadline = OfflineMTC.getContainerWorkerWithTaskDeadline();
 			double sum = 0;
 			for(HashMap<Integer, Integer> taskD : tasksWithDeadline){
 				sum += taskD.size();
@@ -196,7 +196,7 @@ public class OfflineMTCTest {
 		
 			long start = test.geocrowd.Utils.getCPUTime(); // requires java 1.5
 			MaxCoverIntegerLinearProgramming itlm = new MaxCoverIntegerLinearProgramming(tasksWithDeadline, 
-					offlineMTC.invertedContainer,offlineMTC.budget);
+					OfflineMTC.candidateGraph.toInvertedContainer(),offlineMTC.budget);
 	
 			
 			System.out.println("radius  = "+GeocrowdSensingConstants.TASK_RADIUS);
@@ -213,6 +213,22 @@ public class OfflineMTCTest {
 			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
 			
 			System.out.println("Running time of Dynamic offline ILP="+elapsedTimeInSec+" seconds");
+			System.out.println("-------------------");
+			
+			
+			start = test.geocrowd.Utils.getCPUTime();
+			itlm.runBranchAndBoundFixedBudget();
+			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
+			
+			System.out.println("Running time of branch and bound="+elapsedTimeInSec+" seconds");
+			System.out.println("-------------------");
+			
+			
+			start = test.geocrowd.Utils.getCPUTime();
+			itlm.runBranchAndBound();
+			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
+			
+			System.out.println("Running time of Dynamic offline branch and bound="+elapsedTimeInSec+" seconds");
 			
 		}
 	}
@@ -346,7 +362,7 @@ public class OfflineMTCTest {
 
 			//compute the #tasks/worker
 			
-			ArrayList<HashMap<Integer, Integer>> tasksWithDeadline = offlineMTC.containerWorkerWithTaskDeadline;
+			ArrayList<HashMap<Integer, Integer>> tasksWithDeadline = OfflineMTC.getContainerWorkerWithTaskDeadline();
 			double sum = 0;
 			for(HashMap<Integer, Integer> taskD : tasksWithDeadline){
 				sum += taskD.size();
@@ -371,7 +387,7 @@ public class OfflineMTCTest {
 		
 			long start = test.geocrowd.Utils.getCPUTime(); // requires java 1.5
 			MaxCoverIntegerLinearProgramming itlm = new MaxCoverIntegerLinearProgramming(tasksWithDeadline, 
-					offlineMTC.invertedContainer,offlineMTC.budget);
+					OfflineMTC.candidateGraph.toInvertedContainer(),offlineMTC.budget);
 	
 			
 			System.out.println("delta = "+delta[i]);
@@ -388,6 +404,22 @@ public class OfflineMTCTest {
 			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
 			
 			System.out.println("Running time of Dynamic offline ILP="+elapsedTimeInSec+" seconds");
+			System.out.println("-------------------");
+			
+			
+			start = test.geocrowd.Utils.getCPUTime();
+			itlm.runBranchAndBoundFixedBudget();
+			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
+			
+			System.out.println("Running time of branch and bound="+elapsedTimeInSec+" seconds");
+			System.out.println("-------------------");
+			
+			
+			start = test.geocrowd.Utils.getCPUTime();
+			itlm.runBranchAndBound();
+			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
+			
+			System.out.println("Running time of Dynamic offline branch and bound="+elapsedTimeInSec+" seconds");
 			
 		}
 	}
@@ -601,7 +633,7 @@ public class OfflineMTCTest {
 		offlineMTC.matchingTaskWorkers2();
 		//compute the #tasks/worker
 		
-		ArrayList<HashMap<Integer, Integer>> tasksWithDeadline = offlineMTC.containerWorkerWithTaskDeadline;
+		ArrayList<HashMap<Integer, Integer>> tasksWithDeadline = OfflineMTC.getContainerWorkerWithTaskDeadline();
 		double sum = 0;
 		for(HashMap<Integer, Integer> taskD : tasksWithDeadline){
 			sum += taskD.size();
@@ -627,8 +659,8 @@ public class OfflineMTCTest {
 		
 		for(int i = 0; i < budgets.length; i++){
 			long start = test.geocrowd.Utils.getCPUTime(); // requires java 1.5
-			MaxCoverIntegerLinearProgramming itlm = new MaxCoverIntegerLinearProgramming(offlineMTC.containerWorkerWithTaskDeadline, 
-					offlineMTC.invertedContainer,budgets[i]);
+			MaxCoverIntegerLinearProgramming itlm = new MaxCoverIntegerLinearProgramming(OfflineMTC.getContainerWorkerWithTaskDeadline(), 
+					OfflineMTC.candidateGraph.toInvertedContainer(),budgets[i]);
 	
 			
 			System.out.println("Fix budget = "+budgets[i]);
@@ -645,6 +677,22 @@ public class OfflineMTCTest {
 			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
 			
 			System.out.println("Running time of Dynamic offline ILP="+elapsedTimeInSec+" seconds");
+			System.out.println("-------------------");
+			
+			
+			start = test.geocrowd.Utils.getCPUTime();
+			itlm.runBranchAndBoundFixedBudget();
+			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
+			
+			System.out.println("Running time of branch and bound="+elapsedTimeInSec+" seconds");
+			System.out.println("-------------------");
+			
+			
+			start = test.geocrowd.Utils.getCPUTime();
+			itlm.runBranchAndBound();
+			elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
+			
+			System.out.println("Running time of Dynamic offline branch and bound="+elapsedTimeInSec+" seconds");
 			
 		}
 		}
@@ -663,22 +711,36 @@ public class OfflineMTCTest {
 			int next_time_period = starttime + t
 					* GeocrowdSensingConstants.TIME_INSTANCE;
 
-			for (int b = 0; b < budgets.length; b++)
-				for (int fix = 0; fix < isFixes.length; fix++) {
-					OfflineMTC offlineMTC = new OfflineMTC();
-					offlineMTC.isFixed = isFixes[fix];
-					offlineMTC.budget = budgets[b];
-					offlineMTC.reset();
+			/**
+			 * the instance is read once, and all the budgets are solved on it
+			 */
+			for (int fix = 0; fix < isFixes.length; fix++) {
+				OfflineMTC offlineMTC = new OfflineMTC();
+				offlineMTC.isFixed = isFixes[fix];
+				offlineMTC.reset();
+
+				for (int i = 0; i < GeocrowdSensingConstants.TIME_INSTANCE; i++) {
+					int next_time = next_time_period + i;
+					offlineMTC.readWorkloadTasks(
+							Utils.datasetToTaskPath(Geocrowd.DATA_SET)
+									+ next_time + ".txt", next_time_period);
+					offlineMTC.readWorkers(
+							Utils.datasetToWorkerPath(Geocrowd.DATA_SET)
+									+ next_time + ".txt", i);
+				}
 
-					for (int i = 0; i < GeocrowdSensingConstants.TIME_INSTANCE; i++) {
-						int next_time = next_time_period + i;
-						offlineMTC.readWorkloadTasks(
-								Utils.datasetToTaskPath(Geocrowd.DATA_SET)
-										+ next_time + ".txt", next_time_period);
-						offlineMTC.readWorkers(
-								Utils.datasetToWorkerPath(Geocrowd.DATA_SET)
-										+ next_time + ".txt", i);
-					}
+				offlineMTC.matchingTasksWorkers();
+
+				long start = test.geocrowd.Utils.getCPUTime(); // requires java 1.5
+				offlineMTC.maxTaskCoverage(budgets);
+				double elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
+
+				System.out.println("Running time of fixed =  "+isFixes[fix]+" is: " +elapsedTimeInSec+" seconds");
+
+				for (int b = 0; b < budgets.length; b++) {
+					assignedWorkers[b][fix] = offlineMTC.budgetAssignedWorkers[b];
+					coveredTasks[b][fix] += offlineMTC.budgetAssignedTasks[b];
+					coveredUtility[b][fix] += offlineMTC.budgetCoveredUtility[b];
 
 					System.out.print("\nbudget = " + budgets[b]
 							+ ", isFixed = " + isFixes[fix]);
@@ -686,29 +748,17 @@ public class OfflineMTCTest {
 							"\n%-10s \t %-10s \t %-10s \t %-10s \t %-10s",
 							"TotalTask", "CoveredTask", "TotalWorker",
 							"SelectedWorker", "W/T");
-
-					offlineMTC.matchingTasksWorkers();
-					
-					long start = test.geocrowd.Utils.getCPUTime(); // requires java 1.5
-					offlineMTC.maxTaskCoverage();
-					double elapsedTimeInSec = (test.geocrowd.Utils.getCPUTime() - start) * 1.0 / 1000000000;
-					
-					System.out.println("Running time of fixed =  "+isFixes[fix]+" is: " +elapsedTimeInSec+" seconds");
-
-					assignedWorkers[b][fix] = OfflineMTC.TotalAssignedWorkers;
-					coveredTasks[b][fix] += OfflineMTC.TotalAssignedTasks;
-					coveredUtility[b][fix] += OfflineMTC.TotalCoveredUtility;
-
 					System.out.printf(
 							"\n%-10d \t %-10d \t %-10d \t %-10d \t %-10d\n",
 							offlineMTC.TaskCount,
-							OfflineMTC.TotalAssignedTasks,
-							offlineMTC.budget,
-							OfflineMTC.TotalAssignedWorkers,
-							OfflineMTC.TotalAssignedTasks
+							offlineMTC.budgetAssignedTasks[b],
+							budgets[b],
+							offlineMTC.budgetAssignedWorkers[b],
+							offlineMTC.budgetAssignedTasks[b]
 									/ Math.max(1,
-											OfflineMTC.TotalAssignedWorkers));
+											offlineMTC.budgetAssignedWorkers[b]));
 				}
+			}
 		}
 
 		/**
@@ -22,6 +22,8 @@ import org.geocrowd.setcover.SetCoverGreedy;
 import org.geocrowd.setcover.SetCoverGreedy_HighTaskCoverage;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+
 // TODO: Auto-generated Javadoc
 /**
  * The Class SetCoverTest.
@@ -47,4 +49,25 @@ public class SetCoverTest {
 		HashSet<Integer> no_set = scg.minSetCover();
 		System.out.println(no_set.size());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * The selected workers are their indices in the container, whatever was
+	 * selected before them.
+	 */
+	@Test
+	public void testStableWorkerIds() {
+		ArrayList<HashMap<Integer, Integer>> container = new ArrayList<>();
+		int[][] sets = { { 1, 2, 3 }, { 2, 4 }, { 3, 4 }, { 4, 5 } };
+		for (int[] set : sets) {
+			HashMap<Integer, Integer> tasks = new HashMap<>();
+			for (int t : set)
+				tasks.put(t, 5);
+			container.add(tasks);
+		}
+
+		SetCoverGreedy scg = new SetCoverGreedy_HighTaskCoverage(container, 1);
+		HashSet<Integer> workers = scg.minSetCover();
+		assertEquals(new HashSet<>(Arrays.asList(0, 3)), workers);
+		assertEquals(5, scg.assignedTasks);
+	}
+}